@@ -14,6 +14,7 @@ import xyz.hotchpotch.hogandiff.excel.Factory;
 import xyz.hotchpotch.hogandiff.excel.SComparator;
 import xyz.hotchpotch.hogandiff.excel.SResult;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.util.Pair;
 import xyz.hotchpotch.hogandiff.util.Settings;
 
@@ -132,10 +133,11 @@ import xyz.hotchpotch.hogandiff.util.Settings;
             
             BookInfo bookInfo1 = settings.get(SettingKeys.CURR_BOOK_INFO1);
             BookInfo bookInfo2 = settings.get(SettingKeys.CURR_BOOK_INFO2);
-            SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1);
+            StringPool stringPool = new StringPool();
+            SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1, stringPool);
             SheetLoader loader2 = isSameBook()
                     ? loader1
-                    : factory.sheetLoader(settings, bookInfo2);
+                    : factory.sheetLoader(settings, bookInfo2, stringPool);
             
             SComparator comparator = factory.comparator(settings);
             Map<Pair<String>, Optional<SResult>> results = new HashMap<>();
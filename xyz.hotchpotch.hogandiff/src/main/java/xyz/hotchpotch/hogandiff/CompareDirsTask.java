@@ -23,6 +23,7 @@ import xyz.hotchpotch.hogandiff.excel.Factory;
 import xyz.hotchpotch.hogandiff.excel.SComparator;
 import xyz.hotchpotch.hogandiff.excel.SResult;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.util.IntPair;
 import xyz.hotchpotch.hogandiff.util.Pair;
 import xyz.hotchpotch.hogandiff.util.Pair.Side;
@@ -275,8 +276,9 @@ import xyz.hotchpotch.hogandiff.util.Settings;
         
         List<Pair<String>> sheetNamePairs = getSheetNamePairs(bookInfo1, bookInfo2);
         
-        SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1);
-        SheetLoader loader2 = factory.sheetLoader(settings, bookInfo2);
+        StringPool stringPool = new StringPool();
+        SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1, stringPool);
+        SheetLoader loader2 = factory.sheetLoader(settings, bookInfo2, stringPool);
         SComparator comparator = factory.comparator(settings);
         Map<Pair<String>, Optional<SResult>> results = new HashMap<>();
         
@@ -13,6 +13,7 @@ import xyz.hotchpotch.hogandiff.excel.Factory;
 import xyz.hotchpotch.hogandiff.excel.SComparator;
 import xyz.hotchpotch.hogandiff.excel.SResult;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.util.Pair;
 import xyz.hotchpotch.hogandiff.util.Settings;
 
@@ -96,10 +97,11 @@ import xyz.hotchpotch.hogandiff.util.Settings;
             
             BookInfo bookInfo1 = settings.get(SettingKeys.CURR_BOOK_INFO1);
             BookInfo bookInfo2 = settings.get(SettingKeys.CURR_BOOK_INFO2);
-            SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1);
+            StringPool stringPool = new StringPool();
+            SheetLoader loader1 = factory.sheetLoader(settings, bookInfo1, stringPool);
             SheetLoader loader2 = isSameBook()
                     ? loader1
-                    : factory.sheetLoader(settings, bookInfo2);
+                    : factory.sheetLoader(settings, bookInfo2, stringPool);
             
             Pair<String> pair = Pair.of(
                     settings.get(SettingKeys.CURR_SHEET_NAME1),
@@ -202,6 +202,44 @@ public class SettingKeys {
             Boolean::valueOf,
             false);
     
+    /**
+     * Excelシート同士の比較において、行同士・列同士の対応付けに
+     * 作業領域が線形オーダーのマッチャーを用いるエディットグラフの広さ（縦×横）の閾値を表します。<br>
+     * エディットグラフがこれより広い場合は、処理時間よりもメモリ使用量の抑制を優先します。<br>
+     */
+    public static final Key<Long> LINEAR_SPACE_MATCHING_THRESHOLD = new Key<Long>(
+            "compare.linearSpaceMatchingThreshold",
+            () -> 500_000_000L,
+            String::valueOf,
+            Long::valueOf,
+            true);
+    
+    /**
+     * Excelシート同士の比較において、行同士・列同士の差分コストを
+     * 各行（列）から一度だけ作成する MinHash シグネチャで推定する（{@code true}）か
+     * セルを突き合わせて正確に評価する（{@code false}）かを表します。<br>
+     * 推定する場合、列（行）の多いシートの比較時間を大幅に短縮できる一方で、
+     * 行同士・列同士の対応付けの精度が低下することがあります。<br>
+     */
+    public static final Key<Boolean> APPROXIMATE_DIFF_COSTS = new Key<Boolean>(
+            "compare.approximateDiffCosts",
+            () -> false,
+            String::valueOf,
+            Boolean::valueOf,
+            true);
+    
+    /**
+     * Excelシート同士の比較において行と列の挿入／削除をともに考慮する場合に、
+     * 列同士を先に対応付け、対応付けられた列のセルだけを用いて行同士を対応付ける（{@code true}）か
+     * 行同士と列同士をそれぞれ独立に対応付ける（{@code false}）かを表します。<br>
+     */
+    public static final Key<Boolean> ALIGN_COLUMNS_FIRST = new Key<Boolean>(
+            "compare.alignColumnsFirst",
+            () -> false,
+            String::valueOf,
+            Boolean::valueOf,
+            true);
+    
     /**
      * 比較結果のレポートにおいて、余剰行・余剰列に着ける色のインデックス値を表します。<br>
      */
@@ -0,0 +1,85 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntBiFunction;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * 2つのリストの先頭と末尾で差分コストがゼロとなる要素同士をそのまま対応付け、
+ * それらに挟まれた区間の要素同士の対応付けを別のマッチャーに委ねる {@link Matcher} の実装です。<br>
+ * 差分が一部に集中しているリスト同士であれば、対応付けを行う範囲を大きく絞り込むことができます。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class AffixTrimmingMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    private final Matcher<? super T> gapMatcher;
+    
+    /*package*/ AffixTrimmingMatcher(
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        assert diffEvaluator != null;
+        assert gapMatcher != null;
+        
+        this.diffEvaluator = diffEvaluator;
+        this.gapMatcher = gapMatcher;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、先頭と末尾で差分コストがゼロとなる要素同士を対応付け、
+     * それらに挟まれた区間の要素同士の対応付けを、コンストラクタで指定されたマッチャーに委ねます。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        int minSize = Math.min(sizeA, sizeB);
+        int prefix = 0;
+        while (prefix < minSize
+                && diffEvaluator.applyAsInt(listA.get(prefix), listB.get(prefix)) == 0) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < minSize - prefix
+                && diffEvaluator.applyAsInt(listA.get(sizeA - 1 - suffix), listB.get(sizeB - 1 - suffix)) == 0) {
+            suffix++;
+        }
+        if (prefix == 0 && suffix == 0) {
+            return gapMatcher.makePairs(listA, listB);
+        }
+        
+        IntPairList.Builder pairs = IntPairList.builder(sizeA + sizeB - prefix - suffix);
+        for (int n = 0; n < prefix; n++) {
+            pairs.addPair(n, n);
+        }
+        pairs.addAll(
+                gapMatcher.makePairs(listA.subList(prefix, sizeA - suffix), listB.subList(prefix, sizeB - suffix)),
+                prefix,
+                prefix);
+        for (int n = suffix; 0 < n; n--) {
+            pairs.addPair(sizeA - n, sizeB - n);
+        }
+        
+        return pairs.build();
+    }
+}
@@ -0,0 +1,290 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * 2つのリスト間の編集距離が最小となるように要素同士を対応付ける {@link Matcher} の実装です。<br>
+ * {@link MinimumEditDistanceMatcher2} と同じ評価関数で同じ組み合わせを求めますが、
+ * エディットグラフのうち対角線の近傍の帯状の領域のみを探索します。<br>
+ * 帯の外を通る経路が最適となり得ないことを確認できるまで、帯の幅を倍々に広げながら探索します（Ukkonen法）。<br>
+ * 余剰要素の少ないリスト同士であれば、エディットグラフの大部分の評価を省略することができます。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class BandedMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /** 最初に探索する帯の、対角線から片側への幅 */
+    private static final int INITIAL_BAND = 16;
+    
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+    
+    private static final byte FROM_UPPER_LEFT = 0;
+    private static final byte FROM_UPPER = 1;
+    private static final byte FROM_LEFT = 2;
+    
+    /**
+     * 余剰コストを小さいものから {@code n} 個選んだときの和を、{@code n} ごとに格納した配列を返します。<br>
+     * 
+     * @param gapCosts 余剰コストの配列
+     * @return 小さいものから {@code n} 個の余剰コストの和を {@code n} 番目に格納した配列
+     */
+    private static long[] smallestGapSums(int[] gapCosts) {
+        assert gapCosts != null;
+        
+        int[] sorted = gapCosts.clone();
+        Arrays.sort(sorted);
+        long[] sums = new long[sorted.length + 1];
+        for (int n = 0; n < sorted.length; n++) {
+            sums[n + 1] = sums[n] + sorted[n];
+        }
+        return sums;
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private final ToIntFunction<? super T> gapEvaluator;
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    
+    /*package*/ BandedMatcher(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        
+        this.gapEvaluator = gapEvaluator;
+        this.diffEvaluator = diffEvaluator;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、2つのリスト間の編集距離が最小となるような要素同士の組み合わせを返します。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        // 先頭と末尾の差分コストがゼロとなる要素同士は、エディットグラフを探索せずにそのまま対応付ける。
+        // （MinimumEditDistanceMatcher2 と同じ組み合わせを返すため、同じ方法で処理する。）
+        return new AffixTrimmingMatcher<T>(diffEvaluator, this::makeMiddlePairs).makePairs(listA, listB);
+    }
+    
+    private List<IntPair> makeMiddlePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        assert listA != null;
+        assert listB != null;
+        
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        int[] gapCostsA = listA.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        int[] gapCostsB = listB.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        long[] gapSumsA = smallestGapSums(gapCostsA);
+        long[] gapSumsB = smallestGapSums(gapCostsB);
+        
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        int delta = sizeB - sizeA;
+        
+        for (int k = INITIAL_BAND;; k *= 2) {
+            // 帯に含まれる対角線 j - i の範囲
+            int lo = Math.max(Math.min(0, delta) - k, -sizeA);
+            int hi = Math.min(Math.max(0, delta) + k, sizeB);
+            
+            // 帯がエディットグラフの大部分を占めるようになったら、全体を探索した方が効率が良い。
+            if (sizeB + 1 < 4L * (hi - lo + 1)
+                    || Integer.MAX_VALUE < (sizeA + 1L) * (hi - lo + 1)) {
+                return new MinimumEditDistanceMatcher2<T>(gapEvaluator, diffEvaluator)
+                        .makePairs(listA, listB);
+            }
+            
+            Band band = new Band(listA, listB, gapCostsA, gapCostsB, lo, hi);
+            
+            // 帯の外の対角線に達する経路は、リストA, Bの要素をそれぞれ少なくとも
+            // k+1+max(0,-delta) 個, k+1+max(0,delta) 個余剰としなければならない。
+            // その最小コスト（余剰コストの小さい要素から順に選んだ場合の和）が
+            // 帯の中の最小コストを上回れば、帯の中の経路が最適であることが確定する。
+            // 余剰コストがゼロの要素（空の行など）が一部に含まれていても、残りの要素によって下限値が定まる。
+            int gapsA = k + 1 + Math.max(0, -delta);
+            int gapsB = k + 1 + Math.max(0, delta);
+            long lowerBound = sizeA < gapsA || sizeB < gapsB
+                    ? INFINITY
+                    : gapSumsA[gapsA] + gapSumsB[gapsB];
+            if (band.cost < lowerBound) {
+                return band.traceBack();
+            }
+        }
+    }
+    
+    /**
+     * 内部処理用のクラスです。<br>
+     * エディットグラフのうち、対角線 {@code lo <= j - i <= hi} の範囲の点についての
+     * 最小到達コストと最適遷移方向を保持します。<br>
+     * 
+     * @author nmby
+     */
+    private class Band {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private final int sizeA;
+        private final int sizeB;
+        private final int lo;
+        private final int width;
+        private final byte[] directions;
+        private final long cost;
+        
+        private Band(
+                List<? extends T> listA,
+                List<? extends T> listB,
+                int[] gapCostsA,
+                int[] gapCostsB,
+                int lo,
+                int hi) {
+            
+            assert lo <= 0 && 0 <= hi;
+            
+            this.sizeA = listA.size();
+            this.sizeB = listB.size();
+            this.lo = lo;
+            this.width = hi - lo + 1;
+            this.directions = new byte[(sizeA + 1) * width];
+            
+            // 各行の点を、対角線のオフセット t = j - i - lo で表す。
+            // このとき、左上の点は前の行の t、上の点は前の行の t + 1、左の点は同じ行の t - 1 となる。
+            long[] prevCosts = new long[width + 2];
+            long[] currCosts = new long[width + 2];
+            Arrays.fill(prevCosts, INFINITY);
+            
+            for (int i = 0; i <= sizeA; i++) {
+                Arrays.fill(currCosts, INFINITY);
+                int tStart = Math.max(0, -i - lo);
+                int tEnd = Math.min(width - 1, sizeB - i - lo);
+                
+                for (int t = tStart; t <= tEnd; t++) {
+                    int j = i + lo + t;
+                    if (i == 0 && j == 0) {
+                        currCosts[t + 1] = 0;
+                        continue;
+                    }
+                    
+                    // 左上からの遷移を最適と仮置きし、左から、上からの遷移と順に比較する。
+                    long minCost = 0 < i && 0 < j
+                            ? prevCosts[t + 1] + diffEvaluator.applyAsInt(listA.get(i - 1), listB.get(j - 1))
+                            : INFINITY;
+                    byte direction = FROM_UPPER_LEFT;
+                    if (0 < j) {
+                        long tmpCost = currCosts[t] + gapCostsB[j - 1];
+                        if (tmpCost < minCost) {
+                            minCost = tmpCost;
+                            direction = FROM_LEFT;
+                        }
+                    }
+                    if (0 < i) {
+                        long tmpCost = prevCosts[t + 2] + gapCostsA[i - 1];
+                        if (tmpCost < minCost) {
+                            minCost = tmpCost;
+                            direction = FROM_UPPER;
+                        }
+                    }
+                    currCosts[t + 1] = minCost;
+                    directions[i * width + t] = direction;
+                }
+                
+                long[] tmp = prevCosts;
+                prevCosts = currCosts;
+                currCosts = tmp;
+            }
+            
+            this.cost = prevCosts[sizeB - sizeA - lo + 1];
+        }
+        
+        /**
+         * 終点から始点まで最適遷移方向をたどり、要素同士の組み合わせを求めます。<br>
+         */
+        private IntPairList traceBack() {
+            byte[] route = new byte[sizeA + sizeB];
+            int n = route.length;
+            int i = sizeA;
+            int j = sizeB;
+            
+            while (0 < i || 0 < j) {
+                byte direction = directions[i * width + j - i - lo];
+                switch (direction) {
+                case FROM_UPPER_LEFT:
+                    i--;
+                    j--;
+                    break;
+                case FROM_UPPER:
+                    i--;
+                    break;
+                case FROM_LEFT:
+                    j--;
+                    break;
+                default:
+                    throw new AssertionError(direction);
+                }
+                route[--n] = direction;
+            }
+            
+            IntPairList.Builder pairs = IntPairList.builder(route.length - n);
+            for (; n < route.length; n++) {
+                switch (route[n]) {
+                case FROM_UPPER_LEFT:
+                    pairs.addPair(i++, j++);
+                    break;
+                case FROM_UPPER:
+                    pairs.addOnlyA(i++);
+                    break;
+                case FROM_LEFT:
+                    pairs.addOnlyB(j++);
+                    break;
+                default:
+                    throw new AssertionError(route[n]);
+                }
+            }
+            return pairs.build();
+        }
+    }
+}
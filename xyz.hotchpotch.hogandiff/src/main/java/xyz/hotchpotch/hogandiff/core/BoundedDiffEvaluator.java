@@ -0,0 +1,45 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.Objects;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 2つの要素の差分コストを、上限値を超えることが確定した時点で評価を打ち切って返す評価関数を表します。<br>
+ * これは、{@link #applyAsInt(Object, Object, int)} を関数メソッドに持つ関数型インタフェースです。<br>
+ * 
+ * @param <T> 要素の型
+ * @author nmby
+ */
+@FunctionalInterface
+public interface BoundedDiffEvaluator<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 上限値を考慮しない差分コスト評価関数を {@link BoundedDiffEvaluator} に変換します。<br>
+     * 変換後の評価関数は、上限値に関わらず常に差分コストそのものを返します。<br>
+     * 
+     * @param <T> 要素の型
+     * @param diffEvaluator 差分コスト評価関数
+     * @return 型だけが変換された評価関数
+     * @throws NullPointerException {@code diffEvaluator} が {@code null} の場合
+     */
+    public static <T> BoundedDiffEvaluator<T> from(ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        
+        return (t1, t2, limit) -> diffEvaluator.applyAsInt(t1, t2);
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 2つの要素の差分コストを返します。<br>
+     * 差分コストが {@code limit} を超える場合は、{@code limit} より大きな任意の値を返すことができます。<br>
+     * 
+     * @param t1 要素1
+     * @param t2 要素2
+     * @param limit 差分コストの上限値
+     * @return 差分コスト。差分コストが {@code limit} を超える場合は {@code limit} より大きな任意の値
+     */
+    int applyAsInt(T t1, T t2, int limit);
+}
@@ -0,0 +1,39 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.List;
+
+/**
+ * 2つのリストの要素同士の組み合わせのうち、対応付けの候補として評価すべきものを絞り込む関数を表します。<br>
+ * これは、{@link #candidates(List, List)} を関数メソッドに持つ関数型インタフェースです。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+@FunctionalInterface
+public interface CandidateFilter<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 文字列に含まれる3文字ずつの並び（trigram）の共通性に基づいて候補を絞り込む関数を返します。<br>
+     * 組み合わせの総数が少ない場合は、全ての組み合わせを候補とします。<br>
+     * 
+     * @return 新しい関数
+     */
+    public static CandidateFilter<String> qGramFilter() {
+        return new QGramCandidateFilter();
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * リストAの各要素について、対応付けの候補となるリストBの要素を返します。<br>
+     * 
+     * @param listA リストA
+     * @param listB リストB
+     * @return リストAの各要素について、候補となるリストBの要素のインデックスを昇順に並べた配列
+     */
+    int[][] candidates(
+            List<? extends T> listA,
+            List<? extends T> listB);
+}
@@ -0,0 +1,322 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * 2つのリスト間の編集距離が最小となるように要素同士を対応付ける {@link Matcher} の実装です。<br>
+ * {@link MinimumEditDistanceMatcher2} と同じ評価関数で同じ最小コストの組み合わせを求めますが、
+ * エディットグラフ上の遷移経路を保持せず、分割統治（Hirschberg法）により経路を復元します。<br>
+ * これにより、作業領域をリストの長さの線形オーダーに抑えることができます。<br>
+ * その代わり、計算量は {@link MinimumEditDistanceMatcher2} のおよそ2倍となります。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class HirschbergMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 分割を止めて遷移方向表による通常の探索に切り替えるエディットグラフの広さです。<br>
+     */
+    private static final int BASE_CASE_CELLS = 1 << 16;
+    
+    private static final byte FROM_UPPER_LEFT = 0;
+    private static final byte FROM_UPPER = 1;
+    private static final byte FROM_LEFT = 2;
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private final ToIntFunction<? super T> gapEvaluator;
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    
+    /*package*/ HirschbergMatcher(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        
+        this.gapEvaluator = gapEvaluator;
+        this.diffEvaluator = diffEvaluator;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、2つのリスト間の編集距離が最小となるような要素同士の組み合わせを返します。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        // 作業領域を短い方のリストの長さに抑えるため、長い方のリストを縦軸に、短い方のリストを横軸に採る。
+        boolean swapped = listA.size() < listB.size();
+        List<? extends T> rows = swapped ? listB : listA;
+        List<? extends T> cols = swapped ? listA : listB;
+        
+        int[] gapCostsR = rows.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        int[] gapCostsC = cols.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        IntBinaryOperator diffCost = swapped
+                ? (r, c) -> diffEvaluator.applyAsInt(listA.get(c), listB.get(r))
+                : (r, c) -> diffEvaluator.applyAsInt(listA.get(r), listB.get(c));
+        
+        Solver solver = new Solver(gapCostsR, gapCostsC, diffCost);
+        solver.solve(0, rows.size(), 0, cols.size());
+        
+        IntPairList pairs = solver.pairs.build();
+        return swapped ? swap(pairs) : pairs;
+    }
+    
+    private static IntPairList swap(IntPairList pairs) {
+        IntPairList.Builder swapped = IntPairList.builder(pairs.size());
+        for (int n = 0; n < pairs.size(); n++) {
+            if (!pairs.hasA(n)) {
+                swapped.addOnlyA(pairs.b(n));
+            } else if (!pairs.hasB(n)) {
+                swapped.addOnlyB(pairs.a(n));
+            } else {
+                swapped.addPair(pairs.b(n), pairs.a(n));
+            }
+        }
+        return swapped.build();
+    }
+    
+    /**
+     * 内部処理用のクラスです。<br>
+     * 縦軸の要素を {@code r}、横軸の要素を {@code c} で表し、
+     * エディットグラフの部分矩形 {@code [r0, r1) × [c0, c1)} ごとに最適経路を求めます。<br>
+     * 
+     * @author nmby
+     */
+    private static class Solver {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private final int[] gapCostsR;
+        private final int[] gapCostsC;
+        private final IntBinaryOperator diffCost;
+        private final IntPairList.Builder pairs;
+        
+        private Solver(
+                int[] gapCostsR,
+                int[] gapCostsC,
+                IntBinaryOperator diffCost) {
+            
+            assert gapCostsR != null;
+            assert gapCostsC != null;
+            assert diffCost != null;
+            
+            this.gapCostsR = gapCostsR;
+            this.gapCostsC = gapCostsC;
+            this.diffCost = diffCost;
+            this.pairs = IntPairList.builder(gapCostsR.length + gapCostsC.length);
+        }
+        
+        /**
+         * 部分矩形 {@code [r0, r1) × [c0, c1)} の最適経路を求め、
+         * その組み合わせを {@link #pairs} に順に追加します。<br>
+         */
+        private void solve(int r0, int r1, int c0, int c1) {
+            if (r0 == r1) {
+                IntStream.range(c0, c1).forEach(pairs::addOnlyB);
+                return;
+            }
+            if (c0 == c1) {
+                IntStream.range(r0, r1).forEach(pairs::addOnlyA);
+                return;
+            }
+            if (r1 - r0 == 1 || (long) (r1 - r0) * (c1 - c0) <= BASE_CASE_CELLS) {
+                solveDirectly(r0, r1, c0, c1);
+                return;
+            }
+            
+            // 縦軸を中央で分割し、上半分の前向き最小コストと下半分の後ろ向き最小コストの和が
+            // 最小となる横軸上の点を、最適経路が中央行を通過する点として求める。
+            int rMid = (r0 + r1) >>> 1;
+            CompletableFuture<long[]> forward = CompletableFuture.supplyAsync(
+                    () -> forwardCosts(r0, rMid, c0, c1));
+            long[] backward = backwardCosts(rMid, r1, c0, c1);
+            long[] fwd = forward.join();
+            
+            int best = 0;
+            long bestCost = fwd[0] + backward[0];
+            for (int k = 1; k < fwd.length; k++) {
+                long cost = fwd[k] + backward[k];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = k;
+                }
+            }
+            
+            solve(r0, rMid, c0, c0 + best);
+            solve(rMid, r1, c0 + best, c1);
+        }
+        
+        /**
+         * 点 {@code (r0, c0)} から点 {@code (r1, c)} までの最小到達コストを
+         * {@code c0 <= c <= c1} の各点について求めます。<br>
+         */
+        private long[] forwardCosts(int r0, int r1, int c0, int c1) {
+            long[] costs = new long[c1 - c0 + 1];
+            for (int c = c0; c < c1; c++) {
+                costs[c - c0 + 1] = costs[c - c0] + gapCostsC[c];
+            }
+            
+            for (int r = r0; r < r1; r++) {
+                long upperLeft = costs[0];
+                costs[0] += gapCostsR[r];
+                for (int c = c0; c < c1; c++) {
+                    int k = c - c0 + 1;
+                    long upper = costs[k];
+                    long minCost = upperLeft + diffCost.applyAsInt(r, c);
+                    minCost = Math.min(minCost, costs[k - 1] + gapCostsC[c]);
+                    minCost = Math.min(minCost, upper + gapCostsR[r]);
+                    costs[k] = minCost;
+                    upperLeft = upper;
+                }
+            }
+            return costs;
+        }
+        
+        /**
+         * 点 {@code (r0, c)} から点 {@code (r1, c1)} までの最小到達コストを
+         * {@code c0 <= c <= c1} の各点について求めます。<br>
+         */
+        private long[] backwardCosts(int r0, int r1, int c0, int c1) {
+            long[] costs = new long[c1 - c0 + 1];
+            for (int c = c1 - 1; c0 <= c; c--) {
+                costs[c - c0] = costs[c - c0 + 1] + gapCostsC[c];
+            }
+            
+            for (int r = r1 - 1; r0 <= r; r--) {
+                long lowerRight = costs[c1 - c0];
+                costs[c1 - c0] += gapCostsR[r];
+                for (int c = c1 - 1; c0 <= c; c--) {
+                    int k = c - c0;
+                    long lower = costs[k];
+                    long minCost = lowerRight + diffCost.applyAsInt(r, c);
+                    minCost = Math.min(minCost, costs[k + 1] + gapCostsC[c]);
+                    minCost = Math.min(minCost, lower + gapCostsR[r]);
+                    costs[k] = minCost;
+                    lowerRight = lower;
+                }
+            }
+            return costs;
+        }
+        
+        /**
+         * 十分に小さな部分矩形について、遷移方向表を用いて最適経路を求めます。<br>
+         */
+        private void solveDirectly(int r0, int r1, int c0, int c1) {
+            int height = r1 - r0;
+            int width = c1 - c0;
+            byte[] directions = new byte[(height + 1) * (width + 1)];
+            long[] costs = new long[width + 1];
+            
+            for (int c = 1; c <= width; c++) {
+                costs[c] = costs[c - 1] + gapCostsC[c0 + c - 1];
+                directions[c] = FROM_LEFT;
+            }
+            for (int i = 1; i <= height; i++) {
+                int r = r0 + i - 1;
+                long upperLeft = costs[0];
+                costs[0] += gapCostsR[r];
+                directions[i * (width + 1)] = FROM_UPPER;
+                
+                for (int j = 1; j <= width; j++) {
+                    int c = c0 + j - 1;
+                    long upper = costs[j];
+                    
+                    // 左上からの遷移を最適と仮置きし、左から、上からの遷移と順に比較する。
+                    long minCost = upperLeft + diffCost.applyAsInt(r, c);
+                    byte direction = FROM_UPPER_LEFT;
+                    long tmpCost = costs[j - 1] + gapCostsC[c];
+                    if (tmpCost < minCost) {
+                        minCost = tmpCost;
+                        direction = FROM_LEFT;
+                    }
+                    tmpCost = upper + gapCostsR[r];
+                    if (tmpCost < minCost) {
+                        minCost = tmpCost;
+                        direction = FROM_UPPER;
+                    }
+                    
+                    costs[j] = minCost;
+                    directions[i * (width + 1) + j] = direction;
+                    upperLeft = upper;
+                }
+            }
+            
+            byte[] route = new byte[height + width];
+            int n = route.length;
+            int i = height;
+            int j = width;
+            while (0 < i || 0 < j) {
+                byte direction = directions[i * (width + 1) + j];
+                switch (direction) {
+                case FROM_UPPER_LEFT:
+                    i--;
+                    j--;
+                    break;
+                case FROM_UPPER:
+                    i--;
+                    break;
+                case FROM_LEFT:
+                    j--;
+                    break;
+                default:
+                    throw new AssertionError(direction);
+                }
+                route[--n] = direction;
+            }
+            for (; n < route.length; n++) {
+                switch (route[n]) {
+                case FROM_UPPER_LEFT:
+                    pairs.addPair(r0 + i++, c0 + j++);
+                    break;
+                case FROM_UPPER:
+                    pairs.addOnlyA(r0 + i++);
+                    break;
+                case FROM_LEFT:
+                    pairs.addOnlyB(c0 + j++);
+                    break;
+                default:
+                    throw new AssertionError(route[n]);
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package xyz.hotchpotch.hogandiff.core;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
@@ -21,20 +18,79 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
     
     // [static members] ********************************************************
     
-    private static final Comparator<IntPair> PairComparator = (p1, p2) -> {
-        if (p1.isPaired() && p2.isPaired()) {
-            return Integer.compare(p1.a(), p2.a());
-        }
-        if (p1.isPaired() != p2.isPaired()) {
-            return p1.isPaired() ? -1 : 1;
+    /**
+     * 要素のハッシュコードを、オープンアドレス法のハッシュ表の添え字に適した値に攪拌します。<br>
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * リストの要素のインデックスを、オープンアドレス法（線形探索）で保持するハッシュ表です。<br>
+     * インデックスをボクシングせずに保持するため、{@link java.util.HashMap} よりも軽量です。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @author nmby
+     */
+    private static class IndexTable<T> {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private final List<? extends T> list;
+        private final int[] hashes;
+        
+        /** 要素のインデックスに1を加えた値を保持する表。空きスロットは0 */
+        private final int[] slots;
+        private final int mask;
+        
+        /**
+         * 指定されたリストの全要素のインデックスを保持するハッシュ表を構築します。<br>
+         * 
+         * @throws IllegalArgumentException リストに重複要素が含まれる場合
+         */
+        private IndexTable(List<? extends T> list) {
+            assert list != null;
+            
+            this.list = list;
+            this.hashes = list.stream().mapToInt(e -> spread(Objects.hashCode(e))).toArray();
+            
+            // 負荷率が 1/2 以下となるよう、2の冪乗のサイズを確保する。
+            int capacity = Integer.highestOneBit(Math.max(1, list.size()) * 2 - 1) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            
+            for (int i = 0; i < hashes.length; i++) {
+                int slot = hashes[i] & mask;
+                while (slots[slot] != 0) {
+                    int other = slots[slot] - 1;
+                    if (hashes[other] == hashes[i] && Objects.equals(list.get(other), list.get(i))) {
+                        throw new IllegalArgumentException("list has duplicate values.");
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
         }
-        if (p1.isOnlyA() != p2.isOnlyA()) {
-            return p1.isOnlyA() ? -1 : 1;
+        
+        /**
+         * 指定された要素と等しい要素のインデックスを返します。<br>
+         * 
+         * @return 等しい要素のインデックス。存在しない場合は {@code -1}
+         */
+        private int indexOf(Object elem, int hash) {
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                int i = slots[slot] - 1;
+                if (hashes[i] == hash && Objects.equals(list.get(i), elem)) {
+                    return i;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
         }
-        return p1.isOnlyA()
-                ? Integer.compare(p1.a(), p2.a())
-                : Integer.compare(p1.b(), p2.b());
-    };
+    }
     
     // [instance members] ******************************************************
     
@@ -62,20 +118,9 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
         Objects.requireNonNull(listA, "listA");
         Objects.requireNonNull(listB, "listB");
         
-        Map<? extends T, Integer> mapA = IntStream.range(0, listA.size())
-                .collect(
-                        HashMap::new,
-                        (map, i) -> map.put(listA.get(i), i),
-                        Map::putAll);
-        Map<? extends T, Integer> mapB = IntStream.range(0, listB.size())
-                .collect(
-                        HashMap::new,
-                        (map, i) -> map.put(listB.get(i), i),
-                        Map::putAll);
-        
-        if (listA.size() != mapA.size() || listB.size() != mapB.size()) {
-            throw new IllegalArgumentException("list has duplicate values.");
-        }
+        // 重複要素の有無を検査するため、リストAについてもハッシュ表を構築する。
+        IndexTable<T> tableA = new IndexTable<>(listA);
+        IndexTable<T> tableB = new IndexTable<>(listB);
         
         if (listA.isEmpty() && listB.isEmpty()) {
             return List.of();
@@ -92,19 +137,34 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
             return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
         }
         
-        List<IntPair> result = new ArrayList<>();
+        int[] partners = new int[listA.size()];
+        boolean[] pairedB = new boolean[listB.size()];
+        for (int i = 0; i < partners.length; i++) {
+            int j = tableB.indexOf(listA.get(i), tableA.hashes[i]);
+            partners[i] = j;
+            if (0 <= j) {
+                pairedB[j] = true;
+            }
+        }
         
-        mapA.forEach((elemA, i) -> {
-            if (mapB.containsKey(elemA)) {
-                result.add(IntPair.of(i, mapB.get(elemA)));
-                mapB.remove(elemA);
-            } else {
+        // 対応付けられた組み合わせ、リストAの余剰要素、リストBの余剰要素の順に、
+        // それぞれインデックスの昇順で出力する。
+        List<IntPair> result = new ArrayList<>(listA.size() + listB.size());
+        for (int i = 0; i < partners.length; i++) {
+            if (0 <= partners[i]) {
+                result.add(IntPair.of(i, partners[i]));
+            }
+        }
+        for (int i = 0; i < partners.length; i++) {
+            if (partners[i] < 0) {
                 result.add(IntPair.onlyA(i));
             }
-        });
-        mapB.values().forEach(j -> result.add(IntPair.onlyB(j)));
-        
-        result.sort(PairComparator);
+        }
+        for (int j = 0; j < pairedB.length; j++) {
+            if (!pairedB[j]) {
+                result.add(IntPair.onlyB(j));
+            }
+        }
         return result;
     }
 }
@@ -1,5 +1,6 @@
 package xyz.hotchpotch.hogandiff.core;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.ToIntBiFunction;
@@ -49,6 +50,149 @@ public interface Matcher<T> {
         return new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
     }
     
+    /**
+     * 2つのリスト間の編集距離が最小となるように要素同士を対応付けるマッチャーを返します。<br>
+     * {@link #minimumEditDistanceMatcherOf(ToIntFunction, ToIntBiFunction)} と異なり、
+     * 作業領域がリストの長さの線形オーダーに収まるため、巨大なリスト同士の比較に適しています。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 差分コスト評価関数
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code gapEvaluator}, {@code diffEvaluator} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> hirschbergMatcherOf(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        
+        Objects.requireNonNull(gapEvaluator, "gapEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        
+        return new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+    }
+    
+    /**
+     * 2つのリスト間の編集距離が最小となるように要素同士を対応付けるマッチャーを返します。<br>
+     * {@link #minimumEditDistanceMatcherOf(ToIntFunction, ToIntBiFunction)} と同じ組み合わせを返しますが、
+     * エディットグラフの対角線の近傍のみを探索するため、余剰要素の少ないリスト同士の比較に適しています。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 差分コスト評価関数
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code gapEvaluator}, {@code diffEvaluator} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> bandedMatcherOf(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        
+        Objects.requireNonNull(gapEvaluator, "gapEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        
+        return new BandedMatcher<>(gapEvaluator, diffEvaluator);
+    }
+    
+    /**
+     * 2つのリストの先頭と末尾で差分コストがゼロとなる要素同士をそのまま対応付け、
+     * それらに挟まれた区間の要素同士の対応付けを指定されたマッチャーに委ねるマッチャーを返します。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param diffEvaluator 差分コスト評価関数
+     * @param gapMatcher 先頭と末尾に挟まれた区間の要素同士を対応付けるマッチャー
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code diffEvaluator}, {@code gapMatcher} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> affixTrimmingMatcherOf(
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        Objects.requireNonNull(gapMatcher, "gapMatcher");
+        
+        return new AffixTrimmingMatcher<>(diffEvaluator, gapMatcher);
+    }
+    
+    /**
+     * 差分コストがゼロとなる要素同士をMyersの O((A+B)D) アルゴリズムにより対応付け、
+     * それらに挟まれた区間の要素同士の対応付けを指定されたマッチャーに委ねるマッチャーを返します。<br>
+     * 差分の少ないリスト同士の対応付けを高速に行うことができます。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param diffEvaluator 差分コスト評価関数
+     * @param gapMatcher 等しい要素同士に挟まれた区間の要素同士を対応付けるマッチャー
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code diffEvaluator}, {@code gapMatcher} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> myersMatcherOf(
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        Objects.requireNonNull(gapMatcher, "gapMatcher");
+        
+        return new MyersMatcher<>(diffEvaluator, gapMatcher);
+    }
+    
+    /**
+     * 差分コストがゼロとなる要素同士をMyersの O((A+B)D) アルゴリズムにより対応付け、
+     * それらに挟まれた区間の要素同士の対応付けを指定されたマッチャーに委ねるマッチャーを返します。<br>
+     * {@link #myersMatcherOf(ToIntBiFunction, Matcher)} と異なり、余剰コストがゼロの要素や
+     * いずれかのリストに複数回現れる要素は、対応付けの目印としません。
+     * 空の行のような情報量の少ない要素同士を目印とし、最小コストの対応付けから外れることを防ぎます。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param hashEvaluator ハッシュ値評価関数（差分コストがゼロとなる要素同士は同じハッシュ値を返す必要があります）
+     * @param diffEvaluator 差分コスト評価関数
+     * @param gapMatcher 等しい要素同士に挟まれた区間の要素同士を対応付けるマッチャー
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code gapEvaluator}, {@code hashEvaluator}, {@code diffEvaluator}, {@code gapMatcher}
+     *              のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> myersMatcherOf(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntFunction<? super T> hashEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        Objects.requireNonNull(gapEvaluator, "gapEvaluator");
+        Objects.requireNonNull(hashEvaluator, "hashEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        Objects.requireNonNull(gapMatcher, "gapMatcher");
+        
+        return new MyersMatcher<>(gapEvaluator, hashEvaluator, diffEvaluator, gapMatcher);
+    }
+    
+    /**
+     * それぞれのリストにおいて一度しか現れない等しい要素同士を目印として対応付け（patience diff）、
+     * 目印の間に挟まれた区間の要素同士の対応付けを指定されたマッチャーに委ねるマッチャーを返します。<br>
+     * 一意な要素を多く含むリスト同士の対応付けを、区間ごとに並列に行うことができます。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param hashEvaluator ハッシュ値評価関数（差分コストがゼロとなる要素同士は同じハッシュ値を返す必要があります）
+     * @param diffEvaluator 差分コスト評価関数
+     * @param gapMatcher 目印の間に挟まれた区間の要素同士を対応付けるマッチャー
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code hashEvaluator}, {@code diffEvaluator}, {@code gapMatcher} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> patienceMatcherOf(
+            ToIntFunction<? super T> hashEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        Objects.requireNonNull(hashEvaluator, "hashEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        Objects.requireNonNull(gapMatcher, "gapMatcher");
+        
+        return new PatienceMatcher<>(hashEvaluator, diffEvaluator, gapMatcher);
+    }
+    
     /**
      * 2つのリストの要素同士の組み合わせの中で、リスト内における要素の順番に関わりなく
      * 最も一致度の高いペアから対応付けを確定していくマッチャーを返します。<br>
@@ -70,6 +214,56 @@ public interface Matcher<T> {
         return new NerutonMatcher<>(gapEvaluator, diffEvaluator);
     }
     
+    /**
+     * 2つのリストの要素同士の組み合わせの中で、リスト内における要素の順番に関わりなく
+     * 最も一致度の高いペアから対応付けを確定していくマッチャーを返します。<br>
+     * {@link #nerutonMatcherOf(ToIntFunction, ToIntBiFunction)} と同じ組み合わせを返しますが、
+     * 結果として採用され得ない組み合わせについては、差分コストの評価を途中で打ち切ります。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 上限値を超えた時点で評価を打ち切る差分コスト評価関数
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code gapEvaluator}, {@code diffEvaluator} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> boundedNerutonMatcherOf(
+            ToIntFunction<? super T> gapEvaluator,
+            BoundedDiffEvaluator<? super T> diffEvaluator) {
+        
+        Objects.requireNonNull(gapEvaluator, "gapEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        
+        return NerutonMatcher.of(gapEvaluator, diffEvaluator);
+    }
+    
+    /**
+     * 2つのリストの要素同士の組み合わせの中で、リスト内における要素の順番に関わりなく
+     * 最も一致度の高いペアから対応付けを確定していくマッチャーを返します。<br>
+     * {@link #boundedNerutonMatcherOf(ToIntFunction, BoundedDiffEvaluator)} と異なり、
+     * 指定された関数で絞り込んだ組み合わせのみを評価します。
+     * 候補とならなかった要素同士が対応付けられることはありません。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 上限値を超えた時点で評価を打ち切る差分コスト評価関数
+     * @param candidateFilter 差分コストを評価する組み合わせを絞り込む関数
+     * @return 新しいマッチャー
+     * @throws NullPointerException
+     *              {@code gapEvaluator}, {@code diffEvaluator}, {@code candidateFilter} のいずれかが {@code null} の場合
+     */
+    public static <T> Matcher<T> boundedNerutonMatcherOf(
+            ToIntFunction<? super T> gapEvaluator,
+            BoundedDiffEvaluator<? super T> diffEvaluator,
+            CandidateFilter<? super T> candidateFilter) {
+        
+        Objects.requireNonNull(gapEvaluator, "gapEvaluator");
+        Objects.requireNonNull(diffEvaluator, "diffEvaluator");
+        Objects.requireNonNull(candidateFilter, "candidateFilter");
+        
+        return NerutonMatcher.of(gapEvaluator, diffEvaluator, candidateFilter);
+    }
+    
     /**
      * リスト内における要素の順番に関わりなく
      * 2つのリストの等しい要素同士を対応付けるマッチャーを返します。<br>
@@ -81,6 +275,21 @@ public interface Matcher<T> {
         return new IdentityMatcher<>();
     }
     
+    /**
+     * 昇順に並んだ2つのリストの等しい要素同士を、マージにより対応付けるマッチャーを返します。<br>
+     * {@link #identityMatcher()} と同じ組み合わせを返しますが、要素のハッシュ計算を行いません。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param comparator リストの並び順を定めるコンパレータ
+     * @return 新しいマッチャー
+     * @throws NullPointerException {@code comparator} が {@code null} の場合
+     */
+    public static <T> Matcher<T> sortedIdentityMatcherOf(Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator");
+        
+        return new SortedIdentityMatcher<>(comparator);
+    }
+    
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
     /**
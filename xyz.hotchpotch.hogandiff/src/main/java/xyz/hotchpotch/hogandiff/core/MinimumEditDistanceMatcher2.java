@@ -1,6 +1,5 @@
 package xyz.hotchpotch.hogandiff.core;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.ToIntBiFunction;
@@ -8,6 +7,7 @@ import java.util.function.ToIntFunction;
 import java.util.stream.IntStream;
 
 import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
 
 /**
  * 2つのリスト間の編集距離が最小となるように要素同士を対応付ける {@link Matcher} の実装です。<br>
@@ -52,19 +52,70 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
         // [instance members] --------------------------------------------------
     }
     
+    /** 遷移方向表の1ワード（{@code long}）に格納する点の数 */
+    private static final int SLOTS_PER_WORD = Long.SIZE / 2;
+    
+    /** 斜めのスライスを並列処理する際の1タスクあたりの点の数（{@link #SLOTS_PER_WORD} の倍数） */
+    private static final int SLOTS_PER_TASK = SLOTS_PER_WORD * 64;
+    
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    private static final int CODE_FROM_UPPER_LEFT = Direction.FROM_UPPER_LEFT.ordinal();
+    private static final int CODE_FROM_UPPER = Direction.FROM_UPPER.ordinal();
+    private static final int CODE_FROM_LEFT = Direction.FROM_LEFT.ordinal();
+    
     /**
-     * 内部処理用の不変クラス（レコード）です。<br>
-     * エディットグラフ上の各点における遷移経路を表します。<br>
+     * 内部処理用のクラスです。<br>
+     * エディットグラフ上の各点における最適遷移方向を、1点あたり2ビットに詰めて保持します。<br>
+     * エディットグラフを斜めにスライスしたときの各スライスの先頭は、
+     * 並列処理時に複数のスレッドが同じワードに書き込まないよう、ワード境界に揃えます。<br>
      * 
      * @author nmby
      */
-    private static record ComeFrom(
-            ComeFrom prev,
-            Direction direction) {
+    private static class DirectionTable {
         
         // [static members] ----------------------------------------------------
         
         // [instance members] --------------------------------------------------
+        
+        private final int sizeA;
+        private final long[] offsets;
+        private final long[] words;
+        
+        private DirectionTable(int sizeA, long[] offsets, long[] words) {
+            assert 0 <= sizeA;
+            assert offsets != null;
+            assert words != null;
+            
+            this.sizeA = sizeA;
+            this.offsets = offsets;
+            this.words = words;
+        }
+        
+        /**
+         * エディットグラフ上の点 {@code (i, j)} の最適遷移方向を返します。<br>
+         * 
+         * @param i リストAの要素を消費した数
+         * @param j リストBの要素を消費した数
+         * @return 最適遷移方向
+         */
+        private Direction get(int i, int j) {
+            assert 0 < i + j;
+            
+            int n = i + j - 1;
+            int k = Math.min(n, sizeA) - i + 1;
+            long slot = offsets[n] + k;
+            int bits = (int) (words[(int) (slot / SLOTS_PER_WORD)] >>> ((slot % SLOTS_PER_WORD) * 2)) & 0b11;
+            return DIRECTIONS[bits];
+        }
+    }
+    
+    private static int sliceLen(int n, int minSize, int maxSize, int sumSize) {
+        return n < minSize
+                ? n + 2
+                : n < maxSize
+                        ? minSize + 2
+                        : sumSize - n + 2;
     }
     
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
@@ -113,14 +164,43 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
             return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
         }
         
-        ComeFrom bestRoute = calcBestRoute(listA, listB);
+        // 先頭と末尾の差分コストがゼロとなる要素同士は、エディットグラフを探索せずにそのまま対応付ける。
+        return new AffixTrimmingMatcher<T>(diffEvaluator, this::makeMiddlePairs).makePairs(listA, listB);
+    }
+    
+    private List<IntPair> makeMiddlePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        assert listA != null;
+        assert listB != null;
+        
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        if (TiledMatcher.TILE * 2 <= Math.min(listA.size(), listB.size())) {
+            // エディットグラフが十分に広い場合は、斜めのスライスごとに同期を取る代わりに
+            // タイル単位で並列処理するマッチャーに処理を委ねる。
+            return new TiledMatcher<T>(gapEvaluator, diffEvaluator).makePairs(listA, listB);
+        }
+        
+        DirectionTable bestRoute = calcBestRoute(listA, listB);
+        if (bestRoute == null) {
+            // 遷移方向表を配列に格納しきれないほどエディットグラフが広い場合は、
+            // 遷移方向表を必要としない線形空間版のマッチャーに処理を委ねる。
+            return new HirschbergMatcher<T>(gapEvaluator, diffEvaluator).makePairs(listA, listB);
+        }
         
         List<IntPair> pairs = traceBestRoute(listA, listB, bestRoute);
         
         return pairs;
     }
     
-    private ComeFrom calcBestRoute(
+    private DirectionTable calcBestRoute(
             List<? extends T> listA,
             List<? extends T> listB) {
         
@@ -136,114 +216,177 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
         //    比較対象リストが長くなるほど、すなわちエディットグラフ（探索平面）が広くなるほど
         //    処理の並列化が効果を発揮すると信じて、処理を並列化する。
         //    縦方向、横方向には並列化できないため、探索平面を斜めにスライスして並列化する。
-        int minSize = Math.min(listA.size(), listB.size());
-        int maxSize = Math.max(listA.size(), listB.size());
-        int sumSize = listA.size() + listB.size();
+        //    最小到達コストは直近の3スライス分だけを保持すればよいため、
+        //    3つの配列を使い回す。
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        int minSize = Math.min(sizeA, sizeB);
+        int maxSize = Math.max(sizeA, sizeB);
+        int sumSize = sizeA + sizeB;
+        
+        long[] offsets = new long[sumSize];
+        long totalSlots = 0;
+        for (int n = 0; n < sumSize; n++) {
+            offsets[n] = totalSlots;
+            int sliceLen = sliceLen(n, minSize, maxSize, sumSize);
+            totalSlots += (sliceLen + SLOTS_PER_WORD - 1) / SLOTS_PER_WORD * SLOTS_PER_WORD;
+        }
+        if (Integer.MAX_VALUE - 8 < totalSlots / SLOTS_PER_WORD) {
+            return null;
+        }
+        long[] words = new long[(int) (totalSlots / SLOTS_PER_WORD)];
+        
+        long[] accCosts2 = new long[minSize + 2];
+        long[] accCosts1 = new long[minSize + 2];
+        long[] accCosts0 = new long[minSize + 2];
+        int prevSliceLen = 1;
         
-        long[] accCosts2 = null;
-        long[] accCosts1 = new long[] { 0 };
-        long[] accCosts0 = null;
-        ComeFrom[] comeFrom2 = null;
-        ComeFrom[] comeFrom1 = new ComeFrom[] { null };
-        ComeFrom[] comeFrom0 = null;
+        // 差分コストはタスクごとに一括して計算し、作業用配列に格納しておく。
+        // 同時に実行されるタスクはスライス内の異なる区間を受け持つため、区間ごとに作業用配列を使い回す。
+        int[][] diffCostsBuffers = new int[(minSize + 2 + SLOTS_PER_TASK - 1) / SLOTS_PER_TASK][SLOTS_PER_TASK];
         
         for (int n = 0; n < sumSize; n++) {
-            int sliceLen = n < minSize
-                    ? n + 2
-                    : n < maxSize
-                            ? minSize + 2
-                            : sumSize - n + 2;
-            
-            accCosts0 = new long[sliceLen];
-            comeFrom0 = new ComeFrom[sliceLen];
-            
-            if (n < listA.size()) {
-                accCosts0[0] = accCosts1[0] + gapCostsA[n];
-                comeFrom0[0] = new ComeFrom(comeFrom1[0], Direction.FROM_UPPER);
-            }
-            if (n < listB.size()) {
-                accCosts0[accCosts0.length - 1] = accCosts1[accCosts1.length - 1] + gapCostsB[n];
-                comeFrom0[comeFrom0.length - 1] = new ComeFrom(comeFrom1[comeFrom1.length - 1], Direction.FROM_LEFT);
-            }
+            int sliceLen = sliceLen(n, minSize, maxSize, sumSize);
             
             final int nf = n;
+            final int prevLast = prevSliceLen - 1;
             final long[] accCosts2f = accCosts2;
             final long[] accCosts1f = accCosts1;
             final long[] accCosts0f = accCosts0;
-            final ComeFrom[] comeFrom2f = comeFrom2;
-            final ComeFrom[] comeFrom1f = comeFrom1;
-            final ComeFrom[] comeFrom0f = comeFrom0;
+            final int firstWord = (int) (offsets[n] / SLOTS_PER_WORD);
+            
+            // スライス上の点 k に対応するリストA, リストBの要素のインデックスは a = aBase - k, b = bBase + k であり、
+            // 直前の2スライス上の参照先の位置のずれ dk2, dk1 はスライスごとに一定である。
+            final int aBase = n < sizeA ? n : sizeA;
+            final int bBase = n - aBase - 1;
+            final int dk2 = (n <= sizeA) ? -1 : (n == sizeA + 1) ? 0 : 1;
+            final int dk1 = (n <= sizeA) ? -1 : 0;
             
-            IntStream.range(1, sliceLen - 1).parallel().forEach(k -> {
-                int a = nf < listA.size() ? nf - k : listA.size() - k;
-                int b = nf - a - 1;
+            IntStream tasks = IntStream.range(0, (sliceLen + SLOTS_PER_TASK - 1) / SLOTS_PER_TASK);
+            if (SLOTS_PER_TASK < sliceLen) {
+                tasks = tasks.parallel();
+            }
+            tasks.forEach(t -> {
+                int kStart = t * SLOTS_PER_TASK;
+                int kEnd = Math.min(kStart + SLOTS_PER_TASK, sliceLen);
                 
-                // 左上からの遷移（つまりリストA, リストBの要素が対応する場合）が最適であると仮置きする。
-                int dk2 = (nf <= listA.size()) ? -1 : (nf == listA.size() + 1) ? 0 : 1;
-                long minCost = accCosts2f[k + dk2] + diffEvaluator.applyAsInt(listA.get(a), listB.get(b));
-                comeFrom0f[k] = new ComeFrom(comeFrom2f[k + dk2], Direction.FROM_UPPER_LEFT);
+                // スライスの端点を除く、内側の点の区間
+                int innerStart = Math.max(kStart, 1);
+                int innerEnd = Math.min(kEnd, sliceLen - 1);
                 
-                // 左から遷移した場合（つまりリストBの要素が余剰である場合）のコストを求めて比較する。
-                int dk1 = (nf <= listA.size()) ? -1 : 0;
-                long tmpCostB = accCosts1f[k + dk1] + gapCostsB[b];
-                if (tmpCostB < minCost) {
-                    minCost = tmpCostB;
-                    comeFrom0f[k] = new ComeFrom(comeFrom1f[k + dk1], Direction.FROM_LEFT);
+                // a. 内側の点の差分コストを一括して計算する。
+                int[] diffCosts = diffCostsBuffers[t];
+                for (int k = innerStart; k < innerEnd; k++) {
+                    diffCosts[k - kStart] = diffEvaluator.applyAsInt(listA.get(aBase - k), listB.get(bBase + k));
                 }
                 
-                // 上から遷移した場合（つまりリストAの要素が余剰である場合）のコストを求めて比較する。
-                long tmpCostA = accCosts1f[k + dk1 + 1] + gapCostsA[a];
-                if (tmpCostA < minCost) {
-                    minCost = tmpCostA;
-                    comeFrom0f[k] = new ComeFrom(comeFrom1f[k + dk1 + 1], Direction.FROM_UPPER);
+                // b. 各点の最小到達コストと最適遷移方向を計算する。
+                long word = 0;
+                for (int k = kStart; k < kEnd; k++) {
+                    int direction;
+                    
+                    if (k < innerStart || innerEnd <= k) {
+                        // スライスの端点は、エディットグラフの上端または左端の点（もしくはダミー）である。
+                        if (k == 0 && nf < sizeA) {
+                            accCosts0f[k] = accCosts1f[0] + gapCostsA[nf];
+                            direction = CODE_FROM_UPPER;
+                        } else if (k == sliceLen - 1 && nf < sizeB) {
+                            accCosts0f[k] = accCosts1f[prevLast] + gapCostsB[nf];
+                            direction = CODE_FROM_LEFT;
+                        } else {
+                            direction = CODE_FROM_UPPER_LEFT;
+                        }
+                        
+                    } else {
+                        // 左上からの遷移（つまりリストA, リストBの要素が対応する場合）が最適であると仮置きし、
+                        // 左から遷移した場合（つまりリストBの要素が余剰である場合）、
+                        // 上から遷移した場合（つまりリストAの要素が余剰である場合）と順に比較する。
+                        long minCost = accCosts2f[k + dk2] + diffCosts[k - kStart];
+                        direction = CODE_FROM_UPPER_LEFT;
+                        
+                        long tmpCostB = accCosts1f[k + dk1] + gapCostsB[bBase + k];
+                        if (tmpCostB < minCost) {
+                            minCost = tmpCostB;
+                            direction = CODE_FROM_LEFT;
+                        }
+                        
+                        long tmpCostA = accCosts1f[k + dk1 + 1] + gapCostsA[aBase - k];
+                        if (tmpCostA < minCost) {
+                            minCost = tmpCostA;
+                            direction = CODE_FROM_UPPER;
+                        }
+                        
+                        accCosts0f[k] = minCost;
+                    }
+                    
+                    word |= (long) direction << ((k % SLOTS_PER_WORD) * 2);
+                    if (k % SLOTS_PER_WORD == SLOTS_PER_WORD - 1 || k == kEnd - 1) {
+                        words[firstWord + k / SLOTS_PER_WORD] = word;
+                        word = 0;
+                    }
                 }
-                
-                accCosts0f[k] = minCost;
             });
             
+            long[] tmp = accCosts2;
             accCosts2 = accCosts1;
             accCosts1 = accCosts0;
-            comeFrom2 = comeFrom1;
-            comeFrom1 = comeFrom0;
+            accCosts0 = tmp;
+            prevSliceLen = sliceLen;
         }
         
-        return comeFrom0[1];
+        return new DirectionTable(sizeA, offsets, words);
     }
     
-    private List<IntPair> traceBestRoute(
+    private IntPairList traceBestRoute(
             List<? extends T> listA,
             List<? extends T> listB,
-            ComeFrom comeFrom) {
+            DirectionTable directions) {
         
         assert listA != null;
         assert listB != null;
-        assert comeFrom != null;
+        assert directions != null;
         
-        LinkedList<IntPair> bestRoute = new LinkedList<>();
+        // 終点から始点まで遷移方向をたどったうえで、始点から順に組み合わせを出力する。
+        Direction[] bestRoute = new Direction[listA.size() + listB.size()];
+        int n = bestRoute.length;
         int a = listA.size();
         int b = listB.size();
         
-        while (comeFrom != null) {
-            switch (comeFrom.direction) {
+        while (0 < a || 0 < b) {
+            Direction direction = directions.get(a, b);
+            switch (direction) {
             case FROM_UPPER_LEFT:
                 a--;
                 b--;
-                bestRoute.addFirst(IntPair.of(a, b));
                 break;
             case FROM_UPPER:
                 a--;
-                bestRoute.addFirst(IntPair.onlyA(a));
                 break;
             case FROM_LEFT:
                 b--;
-                bestRoute.addFirst(IntPair.onlyB(b));
                 break;
             default:
-                throw new AssertionError(comeFrom.direction);
+                throw new AssertionError(direction);
             }
-            comeFrom = comeFrom.prev;
+            bestRoute[--n] = direction;
         }
         
-        return bestRoute;
+        IntPairList.Builder pairs = IntPairList.builder(bestRoute.length - n);
+        for (; n < bestRoute.length; n++) {
+            switch (bestRoute[n]) {
+            case FROM_UPPER_LEFT:
+                pairs.addPair(a++, b++);
+                break;
+            case FROM_UPPER:
+                pairs.addOnlyA(a++);
+                break;
+            case FROM_LEFT:
+                pairs.addOnlyB(b++);
+                break;
+            default:
+                throw new AssertionError(bestRoute[n]);
+            }
+        }
+        return pairs.build();
     }
 }
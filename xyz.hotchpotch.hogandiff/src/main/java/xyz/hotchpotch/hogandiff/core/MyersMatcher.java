@@ -0,0 +1,295 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * Myersの O((A+B)D) アルゴリズムにより2つのリストの等しい要素同士を対応付け、
+ * 等しい要素の間に挟まれた区間についてのみ別のマッチャーで対応付けを行う {@link Matcher} の実装です。<br>
+ * 差分の少ないリスト同士であれば、全ての要素の組み合わせを評価することなく対応付けを行うことができます。<br>
+ * 余剰コスト評価関数とハッシュ値評価関数が指定された場合は、余剰コストがゼロの要素や
+ * いずれかのリストに複数回現れる要素を目印としません。
+ * そのような要素（空の行など）同士を目印とすると、最小コストの対応付けから外れることがあるためです。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class MyersMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 探索を打ち切る編集距離（挿入・削除の数）です。<br>
+     * これを超える差分がある場合は、リスト全体を {@link #gapMatcher} で対応付けます。<br>
+     */
+    private static final int MAX_D = 4096;
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /** 余剰コスト評価関数。{@code null} の場合は、差分コストがゼロとなる全ての要素同士を目印とする。 */
+    private final ToIntFunction<? super T> gapEvaluator;
+    
+    /** ハッシュ値評価関数。{@code null} の場合は、差分コストがゼロとなる全ての要素同士を目印とする。 */
+    private final ToIntFunction<? super T> hashEvaluator;
+    
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    private final Matcher<? super T> gapMatcher;
+    
+    /*package*/ MyersMatcher(
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        assert diffEvaluator != null;
+        assert gapMatcher != null;
+        
+        this.gapEvaluator = null;
+        this.hashEvaluator = null;
+        this.diffEvaluator = diffEvaluator;
+        this.gapMatcher = gapMatcher;
+    }
+    
+    /*package*/ MyersMatcher(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntFunction<? super T> hashEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        assert gapEvaluator != null;
+        assert hashEvaluator != null;
+        assert diffEvaluator != null;
+        assert gapMatcher != null;
+        
+        this.gapEvaluator = gapEvaluator;
+        this.hashEvaluator = hashEvaluator;
+        this.diffEvaluator = diffEvaluator;
+        this.gapMatcher = gapMatcher;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、差分コストがゼロとなる目印となり得る要素同士を最も多く対応付ける組み合わせを求め、
+     * それらに挟まれた区間の要素同士の対応付けを、コンストラクタで指定されたマッチャーに委ねます。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        List<int[]> trace = calcTrace(listA, listB, anchorables(listA, listB));
+        if (trace == null) {
+            // 差分が大きすぎる場合は、リスト全体の対応付けを委ねる。
+            return gapMatcher.makePairs(listA, listB);
+        }
+        
+        int[] equalPairs = traceBack(listA.size(), listB.size(), trace);
+        
+        // 等しい要素同士の組み合わせの間に挟まれた区間を、それぞれ対応付ける。
+        IntPairList.Builder pairs = IntPairList.builder(listA.size() + listB.size());
+        int a = 0;
+        int b = 0;
+        for (int n = 0; n <= equalPairs.length; n += 2) {
+            int nextA = n < equalPairs.length ? equalPairs[n] : listA.size();
+            int nextB = n < equalPairs.length ? equalPairs[n + 1] : listB.size();
+            
+            addGapPairs(listA, listB, a, nextA, b, nextB, pairs);
+            if (n < equalPairs.length) {
+                pairs.addPair(nextA, nextB);
+            }
+            a = nextA + 1;
+            b = nextB + 1;
+        }
+        
+        return pairs.build();
+    }
+    
+    private void addGapPairs(
+            List<? extends T> listA,
+            List<? extends T> listB,
+            int startA,
+            int endA,
+            int startB,
+            int endB,
+            IntPairList.Builder pairs) {
+        
+        if (startA == endA) {
+            IntStream.range(startB, endB).forEach(pairs::addOnlyB);
+        
+        } else if (startB == endB) {
+            IntStream.range(startA, endA).forEach(pairs::addOnlyA);
+        
+        } else {
+            pairs.addAll(
+                    gapMatcher.makePairs(listA.subList(startA, endA), listB.subList(startB, endB)),
+                    startA,
+                    startB);
+        }
+    }
+    
+    /**
+     * リストAの要素ごとに、目印となり得るかを返します。<br>
+     * 余剰コストがゼロの要素と、いずれかのリストに複数回現れる要素は、目印となり得ません。<br>
+     * 
+     * @return リストAの要素ごとに目印となり得るかを格納した配列。全ての要素が目印となり得る場合は {@code null}
+     */
+    private boolean[] anchorables(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        if (gapEvaluator == null) {
+            return null;
+        }
+        
+        int[] hashesA = listA.stream().mapToInt(hashEvaluator::applyAsInt).toArray();
+        
+        // ハッシュ値ごとに、リストA, Bにおける出現回数を数える。
+        Map<Integer, int[]> occurrences = new HashMap<>();
+        for (int hash : hashesA) {
+            occurrences.computeIfAbsent(hash, k -> new int[2])[0]++;
+        }
+        for (T elemB : listB) {
+            int[] occurrence = occurrences.get(hashEvaluator.applyAsInt(elemB));
+            if (occurrence != null) {
+                occurrence[1]++;
+            }
+        }
+        
+        boolean[] anchorables = new boolean[listA.size()];
+        for (int a = 0; a < anchorables.length; a++) {
+            int[] occurrence = occurrences.get(hashesA[a]);
+            anchorables[a] = occurrence[0] == 1 && occurrence[1] == 1
+                    && 0 < gapEvaluator.applyAsInt(listA.get(a));
+        }
+        return anchorables;
+    }
+    
+    /**
+     * Myersの貪欲法により、エディットグラフ上で到達可能な最遠点を編集距離ごとに求めます。<br>
+     * 
+     * @param anchorables リストAの要素ごとに目印となり得るかを格納した配列（全ての要素が目印となり得る場合は {@code null}）
+     * @return 編集距離 {@code d} ごとの、対角線 {@code k (-d <= k <= d)} 上の最遠点のx座標の配列のリスト。
+     *         編集距離が {@link #MAX_D} を超える場合は {@code null}
+     */
+    private List<int[]> calcTrace(
+            List<? extends T> listA,
+            List<? extends T> listB,
+            boolean[] anchorables) {
+        
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        int maxD = Math.min(sizeA + sizeB, MAX_D);
+        
+        List<int[]> trace = new ArrayList<>();
+        int[] prev = new int[] { 0 };
+        
+        for (int d = 0; d <= maxD; d++) {
+            int[] curr = new int[2 * d + 1];
+            
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && prev[k - 1 + d - 1] < prev[k + 1 + d - 1])) {
+                    // 対角線 k+1 から、リストBの要素を余剰として遷移する。
+                    x = d == 0 ? 0 : prev[k + 1 + d - 1];
+                } else {
+                    // 対角線 k-1 から、リストAの要素を余剰として遷移する。
+                    x = prev[k - 1 + d - 1] + 1;
+                }
+                int y = x - k;
+                
+                while (x < sizeA && y < sizeB
+                        && (anchorables == null || anchorables[x])
+                        && diffEvaluator.applyAsInt(listA.get(x), listB.get(y)) == 0) {
+                    x++;
+                    y++;
+                }
+                curr[k + d] = x;
+                
+                if (sizeA <= x && sizeB <= y) {
+                    trace.add(curr);
+                    return trace;
+                }
+            }
+            
+            trace.add(curr);
+            prev = curr;
+        }
+        return null;
+    }
+    
+    /**
+     * 最遠点の履歴から最短経路をたどり、等しい要素同士の組み合わせを求めます。<br>
+     * 
+     * @return 等しい要素同士のインデックスを {@code a0, b0, a1, b1, ...} の順に、先頭から並べた配列
+     */
+    private int[] traceBack(
+            int sizeA,
+            int sizeB,
+            List<int[]> trace) {
+        
+        int[] equalPairs = new int[2 * Math.min(sizeA, sizeB)];
+        int n = equalPairs.length;
+        int x = sizeA;
+        int y = sizeB;
+        
+        for (int d = trace.size() - 1; 0 <= d; d--) {
+            int k = x - y;
+            int prevX;
+            int prevY;
+            
+            if (d == 0) {
+                prevX = 0;
+                prevY = 0;
+            } else {
+                int[] prev = trace.get(d - 1);
+                int prevK = (k == -d || (k != d && prev[k - 1 + d - 1] < prev[k + 1 + d - 1]))
+                        ? k + 1
+                        : k - 1;
+                prevX = prev[prevK + d - 1];
+                prevY = prevX - prevK;
+            }
+            
+            // 直前の点からの遷移の後に続く、等しい要素の連続（スネーク）を記録する。
+            int snakeStartX = d == 0 ? 0 : (prevX - prevY < k ? prevX + 1 : prevX);
+            while (snakeStartX < x) {
+                x--;
+                y--;
+                equalPairs[--n] = y;
+                equalPairs[--n] = x;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        
+        return Arrays.copyOfRange(equalPairs, n, equalPairs.length);
+    }
+}
@@ -1,14 +1,13 @@
 package xyz.hotchpotch.hogandiff.core;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.ToIntBiFunction;
 import java.util.function.ToIntFunction;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import xyz.hotchpotch.hogandiff.util.IntPair;
 
@@ -24,81 +23,134 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
     // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
     /**
-     * 要素同士の差分コストもしくは要素単独の余剰コストを保持する内部計算用の不変クラスです。<br>
+     * 内部処理用のクラスです。<br>
+     * 要素同士の組み合わせもしくは要素単独を、コストが同じ候補同士の優先順位を表す
+     * 符号なし32ビットの順位値に変換します。順位値の小さい候補ほど優先されます。<br>
+     * 優先順位は次のとおりです。<br>
+     * <ol>
+     *   <li>ペアリング済みの候補を、単独の候補よりも優先する。</li>
+     *   <li>ペアリング済みの候補同士では、ペア間の距離 {@code |a - b|} が近い方を優先する。</li>
+     *   <li>ペア間の距離が同じ場合は、原点からの距離の和 {@code a + b} が近い方を優先する。</li>
+     *   <li>原点からの距離の和も同じ場合は、A座標が原点に近い方を優先する。</li>
+     *   <li>単独の候補同士では、リストAの要素をリストBの要素よりも優先し、
+     *       その中では原点に近い方を優先する。</li>
+     * </ol>
      * 
      * @author nmby
      */
-    // java16で正式導入されたRecordを使ってみる。
-    private static record Cost(IntPair idxs, int cost)
-            implements Comparable<Cost> {
+    private static class RankCoder {
         
         // [static members] ----------------------------------------------------
         
         // [instance members] --------------------------------------------------
         
-        private Cost {
-            assert idxs != null;
-        }
+        private final int sizeA;
+        private final int minSize;
+        private final long gapBase;
         
-        @Override
-        public int compareTo(Cost other) {
-            Objects.requireNonNull(other, "other");
+        private RankCoder(int sizeA, int sizeB) {
+            assert 0 <= sizeA;
+            assert 0 <= sizeB;
+            
+            this.sizeA = sizeA;
+            this.minSize = Math.min(sizeA, sizeB);
+            this.gapBase = 2L * minSize * Math.max(sizeA, sizeB);
             
-            if (cost != other.cost) {
-                // コストそのものが異なる場合は、それに基づいて比較する。
-                return cost < other.cost ? -1 : 1;
+            // 順位値はコストとともに1つの long 値に詰めるため、符号なし32ビットに収まる必要がある。
+            if (0xFFFFFFFFL < gapBase + sizeA + sizeB) {
+                throw new IllegalArgumentException(
+                        "too many combinations to rank: sizeA=%d, sizeB=%d".formatted(sizeA, sizeB));
             }
-            if (idxs.isPaired() && other.idxs.isPaired()) {
-                // コストが同じでともにペアリング済みの場合
-                
-                int iA = idxs.a();
-                int iB = idxs.b();
-                int oA = other.idxs.a();
-                int oB = other.idxs.b();
-                
-                if (Math.abs(iA - iB) != Math.abs(oA - oB)) {
-                    // ペア間の距離が異なる場合は、近い方を「小さい」と判断する。
-                    return Math.abs(iA - iB) < Math.abs(oA - oB) ? -1 : 1;
-                }
-                if (iA + iB != oA + oB) {
-                    // 原点からの距離の和が異なる場合は、原点に近い方を「小さい」と判断する。
-                    return iA + iB < oA + oB ? -1 : 1;
-                }
-                if (iA != oA) {
-                    // ここまでで差異が無い場合は、A座標が原点に近い方を「小さい」と判断する。
-                    return iA < oA ? -1 : 1;
-                }
-                // ここまで到達しないはず
-                throw new AssertionError("this:%s, other:%s".formatted(this, other));
-                
-            } else if (idxs.isPaired() != other.idxs.isPaired()) {
-                // コストが同じで片方のみペアリング済みの場合は、ペアリング済みの方を「小さい」と判断する。
-                return idxs.isPaired() ? -1 : 1;
-                
-            } else {
-                // コストが同じでともに単独の場合
-                
-                if (idxs.hasA() != other.idxs.hasA()) {
-                    // idxAが存在する方を「小さい」と判断する。
-                    return idxs.hasA() ? -1 : 1;
-                }
-                
-                int i = idxs.hasA() ? idxs.a() : idxs.b();
-                int o = other.idxs.hasA() ? other.idxs.a() : other.idxs.b();
-                if (i != o) {
-                    // 存在する方の原点からの距離が異なる場合は、原点に近い方を「小さい」と判断する。
-                    return i < o ? -1 : 1;
-                }
-                // ここまで到達しないはず
-                throw new AssertionError("this:%s, other:%s".formatted(this, other));
+        }
+        
+        /**
+         * 要素同士の組み合わせの順位値を返します。<br>
+         * ペア間の距離 {@code d} ごとに、{@code t = min(a, b)} の昇順に並べ、
+         * {@code t} が同じ場合は {@code a < b} の方を先に並べます。<br>
+         */
+        private long paired(int a, int b) {
+            int d = Math.abs(a - b);
+            int t = Math.min(a, b);
+            return (long) d * 2 * minSize + 2 * t + (b < a ? 1 : 0);
+        }
+        
+        private long onlyA(int a) {
+            return gapBase + a;
+        }
+        
+        private long onlyB(int b) {
+            return gapBase + sizeA + b;
+        }
+        
+        private IntPair decode(long rank) {
+            if (rank < gapBase) {
+                int d = (int) (rank / (2 * minSize));
+                int rem = (int) (rank % (2 * minSize));
+                int t = rem / 2;
+                return rem % 2 == 0
+                        ? IntPair.of(t, t + d)
+                        : IntPair.of(t + d, t);
             }
+            return rank < gapBase + sizeA
+                    ? IntPair.onlyA((int) (rank - gapBase))
+                    : IntPair.onlyB((int) (rank - gapBase - sizeA));
         }
     }
     
+    /**
+     * コストと順位値を、{@code long} 値の大小関係が優先順位と一致するよう1つの {@code long} 値に詰めます。<br>
+     */
+    private static long pack(int cost, long rank) {
+        return ((long) cost << 32) | rank;
+    }
+    
+    /**
+     * 上限値を超えることが確定した時点で評価を打ち切る差分コスト評価関数を用いる、新しいマッチャーを返します。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 差分コスト評価関数
+     * @return 新しいマッチャー
+     */
+    /*package*/ static <T> NerutonMatcher<T> of(
+            ToIntFunction<? super T> gapEvaluator,
+            BoundedDiffEvaluator<? super T> diffEvaluator) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        
+        return new NerutonMatcher<>(gapEvaluator, diffEvaluator, null);
+    }
+    
+    /**
+     * 上限値を超えることが確定した時点で評価を打ち切る差分コスト評価関数を用い、
+     * 指定された関数で絞り込んだ組み合わせのみを評価する、新しいマッチャーを返します。<br>
+     * 
+     * @param <T> リストの要素の型
+     * @param gapEvaluator 余剰コスト評価関数
+     * @param diffEvaluator 差分コスト評価関数
+     * @param candidateFilter 差分コストを評価する組み合わせを絞り込む関数
+     * @return 新しいマッチャー
+     */
+    /*package*/ static <T> NerutonMatcher<T> of(
+            ToIntFunction<? super T> gapEvaluator,
+            BoundedDiffEvaluator<? super T> diffEvaluator,
+            CandidateFilter<? super T> candidateFilter) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        assert candidateFilter != null;
+        
+        return new NerutonMatcher<>(gapEvaluator, diffEvaluator, candidateFilter);
+    }
+    
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
     private final ToIntFunction<? super T> gapEvaluator;
-    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    private final BoundedDiffEvaluator<? super T> diffEvaluator;
+    
+    /** 差分コストを評価する組み合わせを絞り込む関数。{@code null} の場合は全ての組み合わせを評価する。 */
+    private final CandidateFilter<? super T> candidateFilter;
     
     /*package*/ NerutonMatcher(
             ToIntFunction<? super T> gapEvaluator,
@@ -107,8 +159,22 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
         assert gapEvaluator != null;
         assert diffEvaluator != null;
         
+        this.gapEvaluator = gapEvaluator;
+        this.diffEvaluator = BoundedDiffEvaluator.from(diffEvaluator);
+        this.candidateFilter = null;
+    }
+    
+    private NerutonMatcher(
+            ToIntFunction<? super T> gapEvaluator,
+            BoundedDiffEvaluator<? super T> diffEvaluator,
+            CandidateFilter<? super T> candidateFilter) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        
         this.gapEvaluator = gapEvaluator;
         this.diffEvaluator = diffEvaluator;
+        this.candidateFilter = candidateFilter;
     }
     
     /**
@@ -118,6 +184,7 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
      * 最も一致度の高いペアから対応付けを確定していきます。<br>
      * 
      * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     * @throws IllegalArgumentException 要素同士の組み合わせが多すぎて優先順位を表現できない場合
      */
     @Override
     public List<IntPair> makePairs(
@@ -142,36 +209,130 @@ import xyz.hotchpotch.hogandiff.util.IntPair;
             return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
         }
         
-        // まず、全ての組み合わせのコストを計算する。
-        Stream<Cost> gapCostsA = IntStream.range(0, listA.size()).parallel()
-                .mapToObj(i -> new Cost(IntPair.onlyA(i), gapEvaluator.applyAsInt(listA.get(i))));
-        Stream<Cost> gapCostsB = IntStream.range(0, listB.size()).parallel()
-                .mapToObj(j -> new Cost(IntPair.onlyB(j), gapEvaluator.applyAsInt(listB.get(j))));
-        Stream<Cost> diffCosts = IntStream.range(0, listA.size()).parallel()
-                .boxed()
-                .flatMap(i -> IntStream.range(0, listB.size()).parallel()
-                        .mapToObj(j -> new Cost(
-                                IntPair.of(i, j),
-                                diffEvaluator.applyAsInt(listA.get(i), listB.get(j)))));
-        
-        // これらを結合し、小さい順にソートする。
-        LinkedList<Cost> costs = Stream.concat(Stream.concat(gapCostsA, gapCostsB), diffCosts)
-                .sorted()
-                .collect(Collectors.toCollection(LinkedList::new));
-        
-        List<IntPair> pairs = new ArrayList<>();
-        while (0 < costs.size()) {
-            
-            // 小さいものから結果として採用する。
-            Cost cost = costs.removeFirst();
-            pairs.add(cost.idxs);
-            
-            // 結果として採用された要素を含む候補を除去する。
-            if (cost.idxs.hasA()) {
-                costs.removeIf(c -> c.idxs.hasA() && c.idxs.a() == cost.idxs.a());
+        // 先頭の差分コストがゼロとなる要素同士は、他のどの組み合わせよりも先に対応付けが確定するため、
+        // 全ての組み合わせのコストを計算することなくそのまま対応付ける。
+        // 両リストの長さが等しい場合は、末尾の差分コストがゼロとなる要素同士も同様である。
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        int minSize = Math.min(sizeA, sizeB);
+        int prefix = 0;
+        while (prefix < minSize
+                && diffEvaluator.applyAsInt(listA.get(prefix), listB.get(prefix), 0) == 0) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (sizeA == sizeB && suffix < minSize - prefix
+                && diffEvaluator.applyAsInt(listA.get(sizeA - 1 - suffix), listB.get(sizeB - 1 - suffix), 0) == 0) {
+            suffix++;
+        }
+        if (prefix == 0 && suffix == 0) {
+            return makeMiddlePairs(listA, listB);
+        }
+        
+        int offset = prefix;
+        List<IntPair> middlePairs = makeMiddlePairs(
+                listA.subList(prefix, sizeA - suffix),
+                listB.subList(prefix, sizeB - suffix));
+        
+        // 確定の順序を保つため、同じ位置にある差分コストがゼロの組み合わせの後に末尾の組み合わせを置く。
+        int m = 0;
+        while (m < middlePairs.size()
+                && middlePairs.get(m).isPaired()
+                && middlePairs.get(m).a() == middlePairs.get(m).b()
+                && diffEvaluator.applyAsInt(
+                        listA.get(middlePairs.get(m).a() + offset),
+                        listB.get(middlePairs.get(m).b() + offset),
+                        0) == 0) {
+            m++;
+        }
+        
+        List<IntPair> pairs = new ArrayList<>(sizeA + sizeB - prefix - suffix);
+        for (int n = 0; n < prefix; n++) {
+            pairs.add(IntPair.of(n, n));
+        }
+        middlePairs.subList(0, m).forEach(p -> pairs.add(p.map(n -> n + offset)));
+        for (int n = suffix; 0 < n; n--) {
+            pairs.add(IntPair.of(sizeA - n, sizeB - n));
+        }
+        middlePairs.subList(m, middlePairs.size()).forEach(p -> pairs.add(p.map(n -> n + offset)));
+        
+        return pairs;
+    }
+    
+    private List<IntPair> makeMiddlePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        assert listA != null;
+        assert listB != null;
+        
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        
+        // まず、全ての組み合わせのコストを計算し、順位値とともに long 値に詰める。
+        // 差分コストが一方の要素の余剰コストを上回る組み合わせは、その要素単独の候補が必ず先に採用されるため、
+        // 結果として採用されることはない。そのような組み合わせは、差分コストの評価を打ち切って候補から除外する。
+        // 絞り込み関数が指定されている場合は、それが返す組み合わせのみを評価する。
+        RankCoder coder = new RankCoder(sizeA, sizeB);
+        int[][] candidates = candidateFilter == null
+                ? null
+                : candidateFilter.candidates(listA, listB);
+        int[] gapCostsA = listA.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        int[] gapCostsB = listB.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+        long[][] diffCosts = new long[sizeA][];
+        IntStream.range(0, sizeA).parallel().forEach(i -> {
+            T elemA = listA.get(i);
+            int[] candidatesB = candidates == null ? null : candidates[i];
+            int count = candidatesB == null ? sizeB : candidatesB.length;
+            long[] row = new long[count];
+            int len = 0;
+            for (int n = 0; n < count; n++) {
+                int j = candidatesB == null ? n : candidatesB[n];
+                int limit = Math.min(gapCostsA[i], gapCostsB[j]);
+                int cost = diffEvaluator.applyAsInt(elemA, listB.get(j), limit);
+                if (cost <= limit) {
+                    row[len++] = pack(cost, coder.paired(i, j));
+                }
+            }
+            diffCosts[i] = len == count ? row : Arrays.copyOf(row, len);
+        });
+        
+        long[] costs = new long[Arrays.stream(diffCosts).mapToInt(row -> row.length).sum() + sizeA + sizeB];
+        int len = 0;
+        for (long[] row : diffCosts) {
+            System.arraycopy(row, 0, costs, len, row.length);
+            len += row.length;
+        }
+        for (int i = 0; i < sizeA; i++) {
+            costs[len++] = pack(gapCostsA[i], coder.onlyA(i));
+        }
+        for (int j = 0; j < sizeB; j++) {
+            costs[len++] = pack(gapCostsB[j], coder.onlyB(j));
+        }
+        
+        // これらを小さい順にソートする。
+        Arrays.parallelSort(costs);
+        
+        // 小さいものから、まだ採用されていない要素だけからなるものを結果として採用する。
+        BitSet takenA = new BitSet(sizeA);
+        BitSet takenB = new BitSet(sizeB);
+        int restA = sizeA;
+        int restB = sizeB;
+        List<IntPair> pairs = new ArrayList<>(sizeA + sizeB);
+        
+        for (int n = 0; n < costs.length && (0 < restA || 0 < restB); n++) {
+            IntPair pair = coder.decode(costs[n] & 0xFFFFFFFFL);
+            if (pair.hasA() && takenA.get(pair.a()) || pair.hasB() && takenB.get(pair.b())) {
+                continue;
+            }
+            pairs.add(pair);
+            if (pair.hasA()) {
+                takenA.set(pair.a());
+                restA--;
             }
-            if (cost.idxs.hasB()) {
-                costs.removeIf(c -> c.idxs.hasB() && c.idxs.b() == cost.idxs.b());
+            if (pair.hasB()) {
+                takenB.set(pair.b());
+                restB--;
             }
         }
         return pairs;
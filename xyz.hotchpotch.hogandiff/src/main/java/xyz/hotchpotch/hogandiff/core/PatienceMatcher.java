@@ -0,0 +1,224 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * 2つのリストのそれぞれにおいて一度しか現れない等しい要素同士を目印として対応付け（patience diff）、
+ * 目印の間に挟まれた区間の要素同士の対応付けを別のマッチャーに委ねる {@link Matcher} の実装です。<br>
+ * 目印の間の区間はそれぞれ独立に、並列に処理されます。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class PatienceMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /**
+     * 目印の間の区間について目印の探索を繰り返す最大の深さです。<br>
+     * これを超える区間は、目印を探さずに {@link #gapMatcher} で対応付けます。<br>
+     */
+    private static final int MAX_DEPTH = 8;
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private final ToIntFunction<? super T> hashEvaluator;
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    private final Matcher<? super T> gapMatcher;
+    
+    /*package*/ PatienceMatcher(
+            ToIntFunction<? super T> hashEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            Matcher<? super T> gapMatcher) {
+        
+        assert hashEvaluator != null;
+        assert diffEvaluator != null;
+        assert gapMatcher != null;
+        
+        this.hashEvaluator = hashEvaluator;
+        this.diffEvaluator = diffEvaluator;
+        this.gapMatcher = gapMatcher;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、それぞれのリストにおいて一度しか現れず差分コストがゼロとなる要素同士のうち、
+     * 順序を保って対応付けられる最大の組み合わせを目印として確定し、
+     * それらに挟まれた区間の要素同士の対応付けを、コンストラクタで指定されたマッチャーに委ねます。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        
+        int[] hashesA = listA.parallelStream().mapToInt(hashEvaluator::applyAsInt).toArray();
+        int[] hashesB = listB.parallelStream().mapToInt(hashEvaluator::applyAsInt).toArray();
+        
+        return makePairs(listA, listB, hashesA, hashesB, 0, listA.size(), 0, listB.size(), 0);
+    }
+    
+    /**
+     * リストAの区間 {@code [startA, endA)} とリストBの区間 {@code [startB, endB)} の要素同士を対応付けます。<br>
+     * 
+     * @return 要素同士の組み合わせ（インデックスはリスト全体におけるもの）
+     */
+    private List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB,
+            int[] hashesA,
+            int[] hashesB,
+            int startA,
+            int endA,
+            int startB,
+            int endB,
+            int depth) {
+        
+        if (startA == endA) {
+            return IntStream.range(startB, endB).mapToObj(IntPair::onlyB).toList();
+        }
+        if (startB == endB) {
+            return IntStream.range(startA, endA).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        int[] anchors = depth < MAX_DEPTH
+                ? findAnchors(listA, listB, hashesA, hashesB, startA, endA, startB, endB)
+                : new int[0];
+        
+        if (anchors.length == 0) {
+            return IntPairList.builder((endA - startA) + (endB - startB))
+                    .addAll(
+                            gapMatcher.makePairs(listA.subList(startA, endA), listB.subList(startB, endB)),
+                            startA,
+                            startB)
+                    .build();
+        }
+        
+        // 目印の間に挟まれた区間を、それぞれ並列に対応付ける。
+        int gaps = anchors.length / 2 + 1;
+        List<List<IntPair>> gapPairs = IntStream.range(0, gaps).parallel()
+                .mapToObj(n -> makePairs(
+                        listA,
+                        listB,
+                        hashesA,
+                        hashesB,
+                        n == 0 ? startA : anchors[2 * n - 2] + 1,
+                        n == gaps - 1 ? endA : anchors[2 * n],
+                        n == 0 ? startB : anchors[2 * n - 1] + 1,
+                        n == gaps - 1 ? endB : anchors[2 * n + 1],
+                        depth + 1))
+                .toList();
+        
+        IntPairList.Builder pairs = IntPairList.builder((endA - startA) + (endB - startB));
+        for (int n = 0; n < gaps; n++) {
+            pairs.addAll(gapPairs.get(n), 0, 0);
+            if (n < gaps - 1) {
+                pairs.addPair(anchors[2 * n], anchors[2 * n + 1]);
+            }
+        }
+        return pairs.build();
+    }
+    
+    /**
+     * 区間内でそれぞれ一度しか現れない等しい要素同士の組み合わせのうち、
+     * 順序を保って対応付けられる最大の組み合わせを求めます。<br>
+     * 
+     * @return 目印となる要素同士のインデックスを {@code a0, b0, a1, b1, ...} の順に、先頭から並べた配列
+     */
+    private int[] findAnchors(
+            List<? extends T> listA,
+            List<? extends T> listB,
+            int[] hashesA,
+            int[] hashesB,
+            int startA,
+            int endA,
+            int startB,
+            int endB) {
+        
+        // ハッシュ値ごとに、リストA, Bにおける出現回数と出現位置を数える。
+        // 要素は {リストAでの出現回数, リストAでの出現位置, リストBでの出現回数, リストBでの出現位置}
+        Map<Integer, int[]> occurrences = new HashMap<>();
+        for (int a = startA; a < endA; a++) {
+            int[] occurrence = occurrences.computeIfAbsent(hashesA[a], k -> new int[4]);
+            occurrence[0]++;
+            occurrence[1] = a;
+        }
+        for (int b = startB; b < endB; b++) {
+            int[] occurrence = occurrences.get(hashesB[b]);
+            if (occurrence != null) {
+                occurrence[2]++;
+                occurrence[3] = b;
+            }
+        }
+        
+        // 候補をリストAでの出現順に並べ、リストBでの出現位置の最長増加部分列を求める。
+        int[] candidatesA = new int[endA - startA];
+        int[] candidatesB = new int[endA - startA];
+        int candidates = 0;
+        for (int a = startA; a < endA; a++) {
+            int[] occurrence = occurrences.get(hashesA[a]);
+            if (occurrence[0] == 1 && occurrence[2] == 1
+                    && diffEvaluator.applyAsInt(listA.get(a), listB.get(occurrence[3])) == 0) {
+                
+                candidatesA[candidates] = a;
+                candidatesB[candidates] = occurrence[3];
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return new int[0];
+        }
+        
+        // tails[len] : 長さ len + 1 の増加部分列の末尾となる候補のうち、リストBでの出現位置が最小のもの
+        int[] tails = new int[candidates];
+        int[] predecessors = new int[candidates];
+        int len = 0;
+        for (int n = 0; n < candidates; n++) {
+            int lo = 0;
+            int hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (candidatesB[tails[mid]] < candidatesB[n]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            predecessors[n] = 0 < lo ? tails[lo - 1] : -1;
+            tails[lo] = n;
+            if (lo == len) {
+                len++;
+            }
+        }
+        
+        int[] anchors = new int[2 * len];
+        for (int n = tails[len - 1], m = len - 1; 0 <= m; n = predecessors[n], m--) {
+            anchors[2 * m] = candidatesA[n];
+            anchors[2 * m + 1] = candidatesB[n];
+        }
+        return anchors;
+    }
+}
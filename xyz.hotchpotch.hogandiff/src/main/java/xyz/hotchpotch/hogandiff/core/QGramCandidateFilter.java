@@ -0,0 +1,200 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * 文字列に含まれる3文字ずつの並び（trigram）の転置インデックスを用いて、
+ * 対応付けの候補となる文字列同士の組み合わせを絞り込む {@link CandidateFilter} の実装です。<br>
+ * 各文字列について、共通する trigram の多い相手文字列を一定数まで候補とします。<br>
+ * 
+ * @author nmby
+ */
+/*package*/ class QGramCandidateFilter implements CandidateFilter<String> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /** 並びの文字数 */
+    private static final int Q = 3;
+    
+    /** 文字列の前後を埋めるための、どのコードポイントとも異なる値 */
+    private static final int PADDING = Character.MAX_CODE_POINT + 1;
+    
+    /** 各文字列について候補とする相手文字列の最大数 */
+    private static final int MAX_CANDIDATES = 8;
+    
+    /** 組み合わせの総数がこれ以下の場合は、絞り込みを行わずに全ての組み合わせを候補とします。 */
+    private static final long ALL_PAIRS_THRESHOLD = 1L << 16;
+    
+    /**
+     * 文字列の前後を {@code Q - 1} 文字ずつ埋めたうえで、重複を除いた trigram の昇順配列を返します。<br>
+     */
+    private static long[] grams(String str) {
+        int[] codes = str.codePoints().toArray();
+        int[] padded = new int[codes.length + 2 * (Q - 1)];
+        Arrays.fill(padded, PADDING);
+        System.arraycopy(codes, 0, padded, Q - 1, codes.length);
+        
+        long[] grams = new long[padded.length - Q + 1];
+        for (int i = 0; i < grams.length; i++) {
+            long gram = 0;
+            for (int k = 0; k < Q; k++) {
+                gram = gram * (PADDING + 1) + padded[i + k];
+            }
+            grams[i] = gram;
+        }
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+    
+    /**
+     * trigram ごとに、それを含む文字列のインデックスの昇順配列を保持する転置インデックスを返します。<br>
+     */
+    private static Map<Long, int[]> index(long[][] grams) {
+        Map<Long, int[]> counts = new HashMap<>();
+        for (long[] gs : grams) {
+            for (long g : gs) {
+                counts.computeIfAbsent(g, k -> new int[1])[0]++;
+            }
+        }
+        Map<Long, int[]> index = new HashMap<>(counts.size() * 2);
+        counts.forEach((g, c) -> index.put(g, new int[c[0]]));
+        for (int n = 0; n < grams.length; n++) {
+            for (long g : grams[n]) {
+                int[] postings = index.get(g);
+                int[] count = counts.get(g);
+                postings[postings.length - count[0]--] = n;
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * {@code gramsFrom} の各文字列について、共通する trigram の多い順に
+     * 最大 {@link #MAX_CANDIDATES} 個の相手文字列を求めます。<br>
+     */
+    private static int[][] topCandidates(
+            long[][] gramsFrom,
+            Map<Long, int[]> indexTo,
+            int sizeTo) {
+        
+        int[][] candidates = new int[gramsFrom.length][];
+        int[] counts = new int[sizeTo];
+        int[] touched = new int[sizeTo];
+        
+        for (int i = 0; i < gramsFrom.length; i++) {
+            int touchedLen = 0;
+            int maxCount = 0;
+            for (long g : gramsFrom[i]) {
+                int[] postings = indexTo.get(g);
+                if (postings == null) {
+                    continue;
+                }
+                for (int j : postings) {
+                    if (counts[j]++ == 0) {
+                        touched[touchedLen++] = j;
+                    }
+                    maxCount = Math.max(maxCount, counts[j]);
+                }
+            }
+            
+            // 共通する trigram の数ごとに相手文字列を数え、上位 MAX_CANDIDATES 個に入る最小の数を求める。
+            int threshold = 1;
+            if (MAX_CANDIDATES < touchedLen) {
+                int[] histogram = new int[maxCount + 1];
+                for (int n = 0; n < touchedLen; n++) {
+                    histogram[counts[touched[n]]]++;
+                }
+                int acc = 0;
+                threshold = maxCount;
+                while (acc + histogram[threshold] < MAX_CANDIDATES) {
+                    acc += histogram[threshold];
+                    threshold--;
+                }
+            }
+            
+            Arrays.sort(touched, 0, touchedLen);
+            int[] selected = new int[Math.min(touchedLen, MAX_CANDIDATES)];
+            int len = 0;
+            // 閾値を超えるものは全て採り、閾値ちょうどのものはインデックスの小さい順に残りを埋める。
+            for (int n = 0; n < touchedLen; n++) {
+                if (threshold < counts[touched[n]]) {
+                    selected[len++] = touched[n];
+                }
+            }
+            for (int n = 0; n < touchedLen && len < selected.length; n++) {
+                if (counts[touched[n]] == threshold) {
+                    selected[len++] = touched[n];
+                }
+            }
+            Arrays.sort(selected, 0, len);
+            candidates[i] = Arrays.copyOf(selected, len);
+            
+            for (int n = 0; n < touchedLen; n++) {
+                counts[touched[n]] = 0;
+            }
+        }
+        return candidates;
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /*package*/ QGramCandidateFilter() {
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、リストAの各文字列から見て共通する trigram の多いリストBの文字列と、
+     * リストBの各文字列から見て共通する trigram の多いリストAの文字列を、それぞれ候補とします。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public int[][] candidates(
+            List<? extends String> listA,
+            List<? extends String> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        int sizeA = listA.size();
+        int sizeB = listB.size();
+        
+        if ((long) sizeA * sizeB <= ALL_PAIRS_THRESHOLD) {
+            int[] all = IntStream.range(0, sizeB).toArray();
+            return IntStream.range(0, sizeA).mapToObj(i -> all).toArray(int[][]::new);
+        }
+        
+        long[][] gramsA = listA.parallelStream().map(QGramCandidateFilter::grams).toArray(long[][]::new);
+        long[][] gramsB = listB.parallelStream().map(QGramCandidateFilter::grams).toArray(long[][]::new);
+        
+        int[][] forward = topCandidates(gramsA, index(gramsB), sizeB);
+        int[][] backward = topCandidates(gramsB, index(gramsA), sizeA);
+        
+        // リストB側から見た候補を、リストA側から見た候補に合流させる。
+        int[] extra = new int[sizeA];
+        for (int[] cs : backward) {
+            for (int i : cs) {
+                extra[i]++;
+            }
+        }
+        int[][] merged = new int[sizeA][];
+        for (int i = 0; i < sizeA; i++) {
+            merged[i] = Arrays.copyOf(forward[i], forward[i].length + extra[i]);
+            extra[i] = forward[i].length;
+        }
+        for (int j = 0; j < sizeB; j++) {
+            for (int i : backward[j]) {
+                merged[i][extra[i]++] = j;
+            }
+        }
+        for (int i = 0; i < sizeA; i++) {
+            merged[i] = Arrays.stream(merged[i]).sorted().distinct().toArray();
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,111 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+/**
+ * 昇順に並んだ2つのリストの等しい要素同士を、マージにより対応付ける {@link Matcher} の実装です。<br>
+ * {@link IdentityMatcher} と同じ組み合わせを同じ順序で返しますが、
+ * ハッシュ表を用いずに O(A+B) で対応付けを行います。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class SortedIdentityMatcher<T> implements Matcher<T> {
+    
+    // [static members] ********************************************************
+    
+    // [instance members] ******************************************************
+    
+    private final Comparator<? super T> comparator;
+    
+    /*package*/ SortedIdentityMatcher(Comparator<? super T> comparator) {
+        assert comparator != null;
+        
+        this.comparator = comparator;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、コンストラクタで指定されたコンパレータの順序で昇順に並んだ
+     * 2つのリストの等しい要素同士を対応付けます。<br>
+     * 等しいか否かは、コンパレータが {@code 0} を返すか否かにより判断されます。<br>
+     * <br>
+     * <strong>注意：</strong>
+     * この実装は、昇順に並んでいないリストや重複要素を持つリストを受け付けません。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     * @throws IllegalArgumentException {@code listA}, {@code listB} のいずれかが
+     *              昇順に並んでいない場合、または重複要素が含まれる場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        checkStrictlyAscending(listA);
+        checkStrictlyAscending(listB);
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        List<IntPair> paired = new ArrayList<>();
+        List<IntPair> onlyA = new ArrayList<>();
+        List<IntPair> onlyB = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        
+        while (i < listA.size() && j < listB.size()) {
+            int cmp = comparator.compare(listA.get(i), listB.get(j));
+            if (cmp == 0) {
+                paired.add(IntPair.of(i++, j++));
+            } else if (cmp < 0) {
+                onlyA.add(IntPair.onlyA(i++));
+            } else {
+                onlyB.add(IntPair.onlyB(j++));
+            }
+        }
+        for (; i < listA.size(); i++) {
+            onlyA.add(IntPair.onlyA(i));
+        }
+        for (; j < listB.size(); j++) {
+            onlyB.add(IntPair.onlyB(j));
+        }
+        
+        // IdentityMatcher と同様に、対応付けられた組み合わせ、リストAの余剰要素、リストBの余剰要素の順に並べる。
+        List<IntPair> result = new ArrayList<>(paired.size() + onlyA.size() + onlyB.size());
+        result.addAll(paired);
+        result.addAll(onlyA);
+        result.addAll(onlyB);
+        return result;
+    }
+    
+    private void checkStrictlyAscending(List<? extends T> list) {
+        for (int n = 1; n < list.size(); n++) {
+            if (0 <= comparator.compare(list.get(n - 1), list.get(n))) {
+                throw new IllegalArgumentException("list is not strictly ascending.");
+            }
+        }
+    }
+}
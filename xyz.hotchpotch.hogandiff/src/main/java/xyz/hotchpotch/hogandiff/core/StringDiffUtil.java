@@ -1,20 +1,10 @@
 package xyz.hotchpotch.hogandiff.core;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.function.Predicate;
-
-import xyz.hotchpotch.hogandiff.util.IntPair;
 
 /**
  * 文字列同士のdiffに関する機能を提供するユーティリティクラスです。<br>
- * <br>
- * 注意：
- * 本クラスが提供する機能は {@link Matcher} の実装を利用しています。
- * {@link Matcher} およびその実装は様々な評価関数を利用し様々な要素型のリストを処理できるように
- * 汎用的に設計されています。
- * 必ずしも文字列同士の比較に特化したものではないため、低速です。
- * パフォーマンスが重視される場合は、文字列比較専用のライブラリを利用することをお勧めします。<br>
  * 
  * @author nmby
  */
@@ -22,10 +12,6 @@ public class StringDiffUtil {
     
     // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
-    private static final Matcher<Integer> codeMatcher = new MinimumEditDistanceMatcher2<>(
-            x -> 1,
-            (x, y) -> x.equals(y) ? 0 : 3);
-    
     /**
      * 2つの文字列間のレーベンシュタイン距離を返します。<br>
      * 一文字の挿入と削除はそれぞれ距離1と評価します。
@@ -40,26 +26,136 @@ public class StringDiffUtil {
         Objects.requireNonNull(str1, "str1");
         Objects.requireNonNull(str2, "str2");
         
+        return levenshteinDistance(str1, str2, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 2つの文字列間のレーベンシュタイン距離を返します。<br>
+     * 距離の評価方法は {@link #levenshteinDistance(String, String)} と同じですが、
+     * 距離が {@code limit} を超えることが確定した時点で評価を打ち切り、{@code limit + 1} を返します。<br>
+     * 
+     * @param str1 文字列1
+     * @param str2 文字列2
+     * @param limit 距離の上限値
+     * @return 2つの文字列間のレーベンシュタイン距離。{@code limit} を超える場合は {@code limit + 1}
+     * @throws NullPointerException {@code str1}, {@code str2} のいずれかが {@code null} の場合
+     * @throws IllegalArgumentException {@code limit} が負の場合
+     */
+    public static int levenshteinDistance(String str1, String str2, int limit) {
+        Objects.requireNonNull(str1, "str1");
+        Objects.requireNonNull(str2, "str2");
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit: " + limit);
+        }
+        
         // 特殊ケースのためのショートカットたち
         if (str1 == str2 || str1.equals(str2)) {
             return 0;
         }
-        if (str1.length() == 0) {
-            return str2.length();
+        
+        // サロゲートペアの扱いは、・・・まぁ、これで良いでしょ
+        int[] codes1 = str1.codePoints().toArray();
+        int[] codes2 = str2.codePoints().toArray();
+        
+        // 短い方を pattern、長い方を text とする。
+        int[] pattern = codes1.length <= codes2.length ? codes1 : codes2;
+        int[] text = codes1.length <= codes2.length ? codes2 : codes1;
+        
+        if (limit < text.length - pattern.length) {
+            return limit + 1;
         }
-        if (str2.length() == 0) {
-            return str1.length();
+        if (pattern.length == 0) {
+            return text.length;
         }
         
-        // 一般ケース
-        // サロゲートペアの扱いは、・・・まぁ、これで良いでしょ
-        List<Integer> codePoints1 = str1.codePoints().boxed().toList();
-        List<Integer> codePoints2 = str2.codePoints().boxed().toList();
-        List<IntPair> pairs = codeMatcher.makePairs(codePoints1, codePoints2);
+        // 置換を削除＋挿入とみなすため、距離は両文字列の長さの和から最長共通部分列の長さの2倍を引いたものとなる。
+        int lcs = pattern.length <= Long.SIZE
+                ? lcsBitParallel(pattern, text, limit)
+                : lcsDynamic(pattern, text, limit);
+        if (lcs < 0) {
+            return limit + 1;
+        }
+        int distance = pattern.length + text.length - 2 * lcs;
+        return distance <= limit ? distance : limit + 1;
+    }
+    
+    /**
+     * text の先頭 {@code k} 文字までの最長共通部分列の長さが {@code lcs} であるとき、
+     * 最終的な距離が {@code limit} を超えることが確定したかを返します。<br>
+     */
+    private static boolean exceeds(int[] pattern, int[] text, int k, int lcs, int limit) {
+        long maxLcs = Math.min(pattern.length, (long) lcs + text.length - k);
+        return limit < pattern.length + text.length - 2 * maxLcs;
+    }
+    
+    /**
+     * 64文字以下の pattern について、ビット並列アルゴリズム（Hyyrö）により
+     * 最長共通部分列の長さを求めます。<br>
+     * 
+     * @return 最長共通部分列の長さ。距離が {@code limit} を超えることが確定した場合は {@code -1}
+     */
+    private static int lcsBitParallel(int[] pattern, int[] text, int limit) {
+        assert pattern.length <= Long.SIZE;
         
-        return (int) pairs.stream()
-                .filter(Predicate.not(IntPair::isPaired))
-                .count();
+        // 文字ごとの、pattern 内の出現位置を表すビットマスクを、オープンアドレス法のハッシュ表に格納する。
+        int capacity = Integer.highestOneBit(pattern.length * 2 - 1) << 1;
+        int[] keys = new int[capacity];
+        long[] masks = new long[capacity];
+        Arrays.fill(keys, -1);
+        for (int i = 0; i < pattern.length; i++) {
+            int slot = slot(keys, pattern[i]);
+            keys[slot] = pattern[i];
+            masks[slot] |= 1L << i;
+        }
+        
+        long all = pattern.length == Long.SIZE ? -1L : (1L << pattern.length) - 1;
+        long v = all;
+        for (int k = 0; k < text.length; k++) {
+            int slot = slot(keys, text[k]);
+            long u = v & (keys[slot] == text[k] ? masks[slot] : 0L);
+            v = ((v + u) | (v - u)) & all;
+            
+            if (exceeds(pattern, text, k + 1, pattern.length - Long.bitCount(v), limit)) {
+                return -1;
+            }
+        }
+        return pattern.length - Long.bitCount(v);
+    }
+    
+    private static int slot(int[] keys, int code) {
+        int mask = keys.length - 1;
+        int slot = (code * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != -1 && keys[slot] != code) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    /**
+     * 2行分の作業領域を用いた動的計画法により、最長共通部分列の長さを求めます。<br>
+     * 
+     * @return 最長共通部分列の長さ。距離が {@code limit} を超えることが確定した場合は {@code -1}
+     */
+    private static int lcsDynamic(int[] pattern, int[] text, int limit) {
+        int[] prev = new int[pattern.length + 1];
+        int[] curr = new int[pattern.length + 1];
+        
+        for (int k = 0; k < text.length; k++) {
+            int code = text[k];
+            for (int i = 1; i <= pattern.length; i++) {
+                curr[i] = pattern[i - 1] == code
+                        ? prev[i - 1] + 1
+                        : Math.max(prev[i], curr[i - 1]);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+            
+            if (exceeds(pattern, text, k + 1, prev[pattern.length], limit)) {
+                return -1;
+            }
+        }
+        return prev[pattern.length];
     }
     
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
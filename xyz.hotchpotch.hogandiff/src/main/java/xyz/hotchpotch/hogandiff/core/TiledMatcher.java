@@ -0,0 +1,378 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+
+/**
+ * 2つのリスト間の編集距離が最小となるように要素同士を対応付ける {@link Matcher} の実装です。<br>
+ * エディットグラフを一定の大きさのタイルに分割し、依存関係の解決したタイルから順に並列処理します。<br>
+ * 斜めのスライスごとに全スレッドの同期を取る必要がないため、広いエディットグラフほど並列処理が効果を発揮します。<br>
+ * 最小到達コストが等しい経路の選び方は {@link MinimumEditDistanceMatcher2} と同じです。
+ * ただし、先頭と末尾の共通部分の切り出しは行いません。<br>
+ * 
+ * @param <T> リストの要素の型
+ * @author nmby
+ */
+/*package*/ class TiledMatcher<T> implements Matcher<T> {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /** タイルの一辺の長さ（{@link #SLOTS_PER_WORD} の倍数） */
+    /*package*/ static final int TILE = 256;
+    
+    /** 遷移方向表の1ワード（{@code long}）に格納する点の数 */
+    private static final int SLOTS_PER_WORD = Long.SIZE / 2;
+    
+    private static final int FROM_UPPER_LEFT = 0;
+    private static final int FROM_UPPER = 1;
+    private static final int FROM_LEFT = 2;
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private final ToIntFunction<? super T> gapEvaluator;
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    
+    /*package*/ TiledMatcher(
+            ToIntFunction<? super T> gapEvaluator,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator) {
+        
+        assert gapEvaluator != null;
+        assert diffEvaluator != null;
+        
+        this.gapEvaluator = gapEvaluator;
+        this.diffEvaluator = diffEvaluator;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、2つのリスト間の編集距離が最小となるような要素同士の組み合わせを返します。<br>
+     * 
+     * @throws NullPointerException {@code listA}, {@code listB} のいずれかが {@code null} の場合
+     */
+    @Override
+    public List<IntPair> makePairs(
+            List<? extends T> listA,
+            List<? extends T> listB) {
+        
+        Objects.requireNonNull(listA, "listA");
+        Objects.requireNonNull(listB, "listB");
+        
+        if (listA.isEmpty() && listB.isEmpty()) {
+            return List.of();
+        }
+        if (listA == listB) {
+            return IntStream.range(0, listA.size())
+                    .mapToObj(n -> IntPair.of(n, n))
+                    .toList();
+        }
+        if (listA.isEmpty()) {
+            return IntStream.range(0, listB.size()).mapToObj(IntPair::onlyB).toList();
+        }
+        if (listB.isEmpty()) {
+            return IntStream.range(0, listA.size()).mapToObj(IntPair::onlyA).toList();
+        }
+        
+        Grid grid = new Grid(listA, listB);
+        if (Integer.MAX_VALUE - 8 < (long) grid.tilesA * grid.tilesB) {
+            // タイルの数を配列で管理しきれないほどエディットグラフが広い場合は、
+            // 遷移方向表を必要としない線形空間版のマッチャーに処理を委ねる。
+            return new HirschbergMatcher<T>(gapEvaluator, diffEvaluator).makePairs(listA, listB);
+        }
+        
+        ForkJoinPool.commonPool().invoke(new RootTask(grid));
+        return grid.traceBack();
+    }
+    
+    /**
+     * 内部処理用のクラスです。<br>
+     * エディットグラフ上の点 {@code (i, j)} の最小到達コストを {@code C(i, j)} とし、
+     * 各タイルの下端の行と右端の列の最小到達コスト、および各タイル内の各点の最適遷移方向を保持します。<br>
+     * タイル {@code (I, J)} は点 {@code (i, j)}（{@code I*TILE < i <= (I+1)*TILE},
+     * {@code J*TILE < j <= (J+1)*TILE}）を受け持ちます。<br>
+     * 
+     * @author nmby
+     */
+    private class Grid {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private final List<? extends T> listA;
+        private final List<? extends T> listB;
+        private final int[] gapCostsA;
+        private final int[] gapCostsB;
+        private final int sizeA;
+        private final int sizeB;
+        private final int tilesA;
+        private final int tilesB;
+        
+        /** {@code bottoms[I][j]} は、タイル行 {@code I} の下端の行 {@code i} における {@code C(i, j)} */
+        private final long[][] bottoms;
+        
+        /** {@code rights[J][i]} は、タイル列 {@code J} の右端の列 {@code j} における {@code C(i, j)} */
+        private final long[][] rights;
+        
+        /** {@code C(0, j)} */
+        private final long[] top;
+        
+        /** {@code C(i, 0)} */
+        private final long[] left;
+        
+        /** タイルごとの、各点の最適遷移方向を1点あたり2ビットに詰めた表 */
+        private final long[][] directions;
+        
+        /** タイルごとの、未完了の依存先タイルの数 */
+        private final AtomicIntegerArray pendings;
+        
+        private Grid(List<? extends T> listA, List<? extends T> listB) {
+            assert listA != null;
+            assert listB != null;
+            
+            this.listA = listA;
+            this.listB = listB;
+            this.gapCostsA = listA.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+            this.gapCostsB = listB.parallelStream().mapToInt(gapEvaluator::applyAsInt).toArray();
+            this.sizeA = listA.size();
+            this.sizeB = listB.size();
+            this.tilesA = (sizeA + TILE - 1) / TILE;
+            this.tilesB = (sizeB + TILE - 1) / TILE;
+            
+            this.top = new long[sizeB + 1];
+            this.left = new long[sizeA + 1];
+            for (int j = 1; j <= sizeB; j++) {
+                top[j] = top[j - 1] + gapCostsB[j - 1];
+            }
+            for (int i = 1; i <= sizeA; i++) {
+                left[i] = left[i - 1] + gapCostsA[i - 1];
+            }
+            
+            // 同じタイル行（タイル列）のタイルは互いに異なる範囲に書き込むため、排他制御は不要である。
+            this.bottoms = new long[tilesA][sizeB + 1];
+            this.rights = new long[tilesB][sizeA + 1];
+            for (int I = 0; I < tilesA; I++) {
+                bottoms[I][0] = left[Math.min(I * TILE + TILE, sizeA)];
+            }
+            for (int J = 0; J < tilesB; J++) {
+                rights[J][0] = top[Math.min(J * TILE + TILE, sizeB)];
+            }
+            
+            this.directions = new long[tilesA * tilesB][];
+            this.pendings = new AtomicIntegerArray(tilesA * tilesB);
+            for (int I = 0; I < tilesA; I++) {
+                for (int J = 0; J < tilesB; J++) {
+                    pendings.set(I * tilesB + J, (0 < I ? 1 : 0) + (0 < J ? 1 : 0));
+                }
+            }
+        }
+        
+        /**
+         * 指定されたタイル内の各点の最小到達コストと最適遷移方向を計算します。<br>
+         * 上と左のタイルの計算が完了している必要があります。<br>
+         */
+        private void solveTile(int tile) {
+            int I = tile / tilesB;
+            int J = tile % tilesB;
+            int i0 = I * TILE;
+            int i1 = Math.min(i0 + TILE, sizeA);
+            int j0 = J * TILE;
+            int j1 = Math.min(j0 + TILE, sizeB);
+            int width = j1 - j0;
+            
+            long[] upper = I == 0 ? top : bottoms[I - 1];
+            long[] lefter = J == 0 ? left : rights[J - 1];
+            long[] bottom = bottoms[I];
+            long[] right = rights[J];
+            
+            long[] words = new long[((i1 - i0) * width + SLOTS_PER_WORD - 1) / SLOTS_PER_WORD];
+            long[] costs = new long[width + 1];
+            System.arraycopy(upper, j0, costs, 0, width + 1);
+            
+            int slot = 0;
+            for (int i = i0 + 1; i <= i1; i++) {
+                T elemA = listA.get(i - 1);
+                int gapA = gapCostsA[i - 1];
+                long upperLeft = costs[0];
+                costs[0] = lefter[i];
+                
+                for (int j = j0 + 1; j <= j1; j++) {
+                    int k = j - j0;
+                    long upperCost = costs[k];
+                    
+                    // 左上からの遷移を最適と仮置きし、左から、上からの遷移と順に比較する。
+                    long minCost = upperLeft + diffEvaluator.applyAsInt(elemA, listB.get(j - 1));
+                    int direction = FROM_UPPER_LEFT;
+                    long tmpCost = costs[k - 1] + gapCostsB[j - 1];
+                    if (tmpCost < minCost) {
+                        minCost = tmpCost;
+                        direction = FROM_LEFT;
+                    }
+                    tmpCost = upperCost + gapA;
+                    if (tmpCost < minCost) {
+                        minCost = tmpCost;
+                        direction = FROM_UPPER;
+                    }
+                    
+                    costs[k] = minCost;
+                    words[slot / SLOTS_PER_WORD] |= (long) direction << ((slot % SLOTS_PER_WORD) * 2);
+                    slot++;
+                    upperLeft = upperCost;
+                }
+                right[i] = costs[width];
+            }
+            System.arraycopy(costs, 1, bottom, j0 + 1, width);
+            directions[tile] = words;
+        }
+        
+        /**
+         * エディットグラフ上の点 {@code (i, j)}（{@code 0 < i}, {@code 0 < j}）の最適遷移方向を返します。<br>
+         */
+        private int direction(int i, int j) {
+            int I = (i - 1) / TILE;
+            int J = (j - 1) / TILE;
+            int width = Math.min(J * TILE + TILE, sizeB) - J * TILE;
+            int slot = (i - 1 - I * TILE) * width + (j - 1 - J * TILE);
+            long[] words = directions[I * tilesB + J];
+            return (int) (words[slot / SLOTS_PER_WORD] >>> ((slot % SLOTS_PER_WORD) * 2)) & 0b11;
+        }
+        
+        /**
+         * 終点から始点まで最適遷移方向をたどり、要素同士の組み合わせを求めます。<br>
+         */
+        private IntPairList traceBack() {
+            byte[] route = new byte[sizeA + sizeB];
+            int n = route.length;
+            int i = sizeA;
+            int j = sizeB;
+            
+            while (0 < i || 0 < j) {
+                int direction = i == 0
+                        ? FROM_LEFT
+                        : j == 0
+                                ? FROM_UPPER
+                                : direction(i, j);
+                switch (direction) {
+                case FROM_UPPER_LEFT:
+                    i--;
+                    j--;
+                    break;
+                case FROM_UPPER:
+                    i--;
+                    break;
+                case FROM_LEFT:
+                    j--;
+                    break;
+                default:
+                    throw new AssertionError(direction);
+                }
+                route[--n] = (byte) direction;
+            }
+            
+            IntPairList.Builder pairs = IntPairList.builder(route.length - n);
+            for (; n < route.length; n++) {
+                switch (route[n]) {
+                case FROM_UPPER_LEFT:
+                    pairs.addPair(i++, j++);
+                    break;
+                case FROM_UPPER:
+                    pairs.addOnlyA(i++);
+                    break;
+                case FROM_LEFT:
+                    pairs.addOnlyB(j++);
+                    break;
+                default:
+                    throw new AssertionError(route[n]);
+                }
+            }
+            return pairs.build();
+        }
+    }
+    
+    /**
+     * 内部処理用のクラスです。<br>
+     * 全てのタイルの計算が完了したときに完了するタスクです。<br>
+     * 
+     * @author nmby
+     */
+    private class RootTask extends CountedCompleter<Void> {
+        
+        // [static members] ----------------------------------------------------
+        
+        private static final long serialVersionUID = 1L;
+        
+        // [instance members] --------------------------------------------------
+        
+        private final transient Grid grid;
+        
+        private RootTask(Grid grid) {
+            // 最後のタイルの完了によってこのタスクが完了するよう、タイルの数 - 1 を未完了数とする。
+            super(null, grid.tilesA * grid.tilesB - 1);
+            this.grid = grid;
+        }
+        
+        @Override
+        public void compute() {
+            new TileTask(this, grid, 0).fork();
+        }
+    }
+    
+    /**
+     * 内部処理用のクラスです。<br>
+     * 1つのタイルを計算し、それによって依存関係の解決した右と下のタイルのタスクを起動します。<br>
+     * 
+     * @author nmby
+     */
+    private class TileTask extends CountedCompleter<Void> {
+        
+        // [static members] ----------------------------------------------------
+        
+        private static final long serialVersionUID = 1L;
+        
+        // [instance members] --------------------------------------------------
+        
+        private final transient RootTask root;
+        private final transient Grid grid;
+        private final int tile;
+        
+        private TileTask(RootTask root, Grid grid, int tile) {
+            super(root);
+            this.root = root;
+            this.grid = grid;
+            this.tile = tile;
+        }
+        
+        @Override
+        public void compute() {
+            grid.solveTile(tile);
+            
+            int I = tile / grid.tilesB;
+            int J = tile % grid.tilesB;
+            TileTask next = null;
+            if (J + 1 < grid.tilesB && grid.pendings.decrementAndGet(tile + 1) == 0) {
+                next = new TileTask(root, grid, tile + 1);
+            }
+            if (I + 1 < grid.tilesA && grid.pendings.decrementAndGet(tile + grid.tilesB) == 0) {
+                TileTask below = new TileTask(root, grid, tile + grid.tilesB);
+                if (next == null) {
+                    next = below;
+                } else {
+                    below.fork();
+                }
+            }
+            if (next != null) {
+                next.fork();
+            }
+            tryComplete();
+        }
+    }
+}
@@ -2,8 +2,6 @@ package xyz.hotchpotch.hogandiff.excel;
 
 import java.util.Objects;
 
-import xyz.hotchpotch.hogandiff.util.IntPair;
-
 /**
  * Excelシート上のセルを表します。<br>
  *
@@ -19,7 +17,8 @@ public interface CellData {
      * @param row 行インデックス（0開始）
      * @param column 列インデックス（0開始）
      * @param content セル内容
-     * @param saveMemory 省メモリモードの場合は {@code true}
+     * @param saveMemory 省メモリモードの場合は {@code true}。
+     *              省メモリモードの場合は {@code content} から {@link String} オブジェクトを生成せずにハッシュ値を求めます。
      * @return 新たなセルデータ
      * @throws NullPointerException {@code content} が {@code null} の場合
      * @throws IndexOutOfBoundsException {@code row}, {@code column} のいずれかが 0 未満の場合
@@ -27,7 +26,7 @@ public interface CellData {
     public static CellData of(
             int row,
             int column,
-            String content,
+            CharSequence content,
             boolean saveMemory) {
         
         Objects.requireNonNull(content, "content");
@@ -36,8 +35,8 @@ public interface CellData {
         }
         
         return saveMemory
-                ? new CellHashData(row, column, content.hashCode(), 0)
-                : new CellStringData(row, column, content, null);
+                ? new CellHashData(row, column, TextHasher.hash(content), 0)
+                : new CellStringData(row, column, content.toString(), null);
     }
     
     /**
@@ -51,13 +50,17 @@ public interface CellData {
      */
     public static CellData of(
             String address,
-            String content,
+            CharSequence content,
             boolean saveMemory) {
         
         Objects.requireNonNull(address, "address");
         
-        IntPair idx = CellsUtil.addressToIdx(address);
-        return CellData.of(idx.a(), idx.b(), content, saveMemory);
+        long position = CellsUtil.parseAddress(address);
+        return CellData.of(
+                CellsUtil.unpackRow(position),
+                CellsUtil.unpackColumn(position),
+                content,
+                saveMemory);
     }
     
     /**
@@ -158,6 +161,23 @@ public interface CellData {
         return contentEquals(cell) && commentEquals(cell);
     }
     
+    /**
+     * このセルデータのデータ内容（セル内容とセルコメント）のハッシュ値を返します。<br>
+     * {@link #dataEquals(CellData)} が {@code true} となるセルデータ同士は、同じハッシュ値を返します。<br>
+     * 
+     * @return データ内容のハッシュ値
+     */
+    int dataHashCode();
+    
+    /**
+     * このセルデータのデータ内容の64ビットのハッシュ値を返します。<br>
+     * セル内容とセルコメントの双方から求まる値であり、{@link #dataHashCode()} よりも衝突が起こりにくい値です。<br>
+     * {@link #dataEquals(CellData)} が {@code true} となるセルデータ同士は、同じハッシュ値を返します。<br>
+     * 
+     * @return データ内容の64ビットのハッシュ値
+     */
+    long dataHashCode64();
+    
     /**
      * このセルデータと指定されたセルデータのデータ内容（セル内容とセルコメント）の大小関係を返します。<br>
      * 
@@ -5,15 +5,16 @@ import java.util.Objects;
 import xyz.hotchpotch.hogandiff.AppMain;
 
 /**
- * セルデータ（セル内容、セルコメント）をハッシュ値で持つ {@link CellData} の実装です。<br>
+ * セルデータ（セル内容、セルコメント）を64ビットのハッシュ値で持つ {@link CellData} の実装です。<br>
+ * ハッシュ値は {@link TextHasher} で求めた値であり、セルコメントを持たない場合は 0 とします。<br>
  *
  * @author nmby
  */
 /*package*/ record CellHashData(
         int row,
         int column,
-        int contentHash,
-        int commentHash)
+        long contentHash,
+        long commentHash)
         implements CellData {
     
     // [static members] ********************************************************
@@ -53,7 +54,7 @@ import xyz.hotchpotch.hogandiff.AppMain;
             throw new IllegalStateException();
         }
         
-        return new CellHashData(row, column, contentHash, comment.hashCode());
+        return new CellHashData(row, column, contentHash, TextHasher.hash(comment));
     }
     
     @Override
@@ -72,6 +73,16 @@ import xyz.hotchpotch.hogandiff.AppMain;
         return false;
     }
     
+    @Override
+    public int dataHashCode() {
+        return Long.hashCode(dataHashCode64());
+    }
+    
+    @Override
+    public long dataHashCode64() {
+        return Long.rotateLeft(contentHash, 32) ^ commentHash;
+    }
+    
     /**
      * {@inheritDoc}
      * 
@@ -81,8 +92,8 @@ import xyz.hotchpotch.hogandiff.AppMain;
     public int dataCompareTo(CellData cell) {
         if (cell instanceof CellHashData cd) {
             return contentHash != cd.contentHash
-                    ? Integer.compare(contentHash, cd.contentHash)
-                    : Integer.compare(commentHash, cd.commentHash);
+                    ? Long.compare(contentHash, cd.contentHash)
+                    : Long.compare(commentHash, cd.commentHash);
         }
         throw new IllegalArgumentException();
     }
@@ -65,6 +65,18 @@ import java.util.Objects;
         return false;
     }
     
+    @Override
+    public int dataHashCode() {
+        return 31 * content.hashCode() + Objects.hashCode(comment);
+    }
+    
+    @Override
+    public long dataHashCode64() {
+        // 省メモリモードのセルデータと同じ値となるよう、CellHashData と同じ方法で求める。
+        return Long.rotateLeft(TextHasher.hash(content), 32)
+                ^ (comment == null ? 0 : TextHasher.hash(comment));
+    }
+    
     /**
      * {@inheritDoc}
      * 
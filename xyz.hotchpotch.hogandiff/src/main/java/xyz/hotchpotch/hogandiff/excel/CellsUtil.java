@@ -2,8 +2,6 @@ package xyz.hotchpotch.hogandiff.excel;
 
 import java.util.Objects;
 
-import org.apache.poi.ss.util.CellReference;
-
 import xyz.hotchpotch.hogandiff.util.IntPair;
 
 /**
@@ -15,6 +13,181 @@ public class CellsUtil {
     
     // [static members] ********************************************************
     
+    /** 列の記号に用いる文字の数 */
+    private static final int RADIX = 26;
+    
+    /**
+     * 行・列のインデックスを1つの {@code long} 値にまとめます。<br>
+     * 上位32ビットが行インデックス、下位32ビットが列インデックスとなるため、
+     * まとめた値の大小関係は行インデックス、列インデックスの順の大小関係と一致します。<br>
+     * 
+     * @param row 行インデックス（0 開始）
+     * @param column 列インデックス（0 開始）
+     * @return 行・列のインデックスをまとめた値
+     * @throws IndexOutOfBoundsException {@code row}, {@code column} のいずれかが 0 未満の場合
+     */
+    public static long pack(int row, int column) {
+        if (row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("row:%d, column:%d".formatted(row, column));
+        }
+        return ((long) row << 32) | column;
+    }
+    
+    /**
+     * {@link #pack(int, int)} でまとめた値から行インデックスを取り出します。<br>
+     * 
+     * @param packed 行・列のインデックスをまとめた値
+     * @return 行インデックス（0 開始）
+     */
+    public static int unpackRow(long packed) {
+        return (int) (packed >>> 32);
+    }
+    
+    /**
+     * {@link #pack(int, int)} でまとめた値から列インデックスを取り出します。<br>
+     * 
+     * @param packed 行・列のインデックスをまとめた値
+     * @return 列インデックス（0 開始）
+     */
+    public static int unpackColumn(long packed) {
+        return (int) packed;
+    }
+    
+    /**
+     * セルアドレス（{@code "A1"} 形式）を解析し、
+     * 行・列のインデックスを {@link #pack(int, int)} の形式でまとめた値を返します。<br>
+     * 解析の途中でオブジェクトを生成しません。<br>
+     * 
+     * @param address セルアドレス（{@code "A1"} 形式）
+     * @return 行・列のインデックスをまとめた値
+     * @throws NullPointerException {@code address} が {@code null} の場合
+     * @throws IllegalArgumentException {@code address} がセルアドレスの形式でない場合
+     */
+    public static long parseAddress(CharSequence address) {
+        Objects.requireNonNull(address, "address");
+        
+        return parseAddress(address, 0, address.length());
+    }
+    
+    /**
+     * 文字の並びの指定された範囲をセルアドレス（{@code "A1"} 形式）として解析し、
+     * 行・列のインデックスを {@link #pack(int, int)} の形式でまとめた値を返します。<br>
+     * 解析の途中でオブジェクトを生成しません。<br>
+     * 
+     * @param chars 文字の並び
+     * @param start 範囲の開始位置（この位置を含む）
+     * @param end 範囲の終了位置（この位置を含まない）
+     * @return 行・列のインデックスをまとめた値
+     * @throws NullPointerException {@code chars} が {@code null} の場合
+     * @throws IndexOutOfBoundsException 範囲が文字の並びに収まらない場合
+     * @throws IllegalArgumentException 範囲の文字がセルアドレスの形式でない場合
+     */
+    public static long parseAddress(CharSequence chars, int start, int end) {
+        Objects.requireNonNull(chars, "chars");
+        Objects.checkFromToIndex(start, end, chars.length());
+        
+        // 列の記号は 'A' を 1 とする26進数であるため、列インデックスの最大値 + 1 まで取り得る。
+        int i = start;
+        long column = 0;
+        for (; i < end; i++) {
+            int digit = letterToDigit(chars.charAt(i));
+            if (digit < 0) {
+                break;
+            }
+            column = column * RADIX + digit;
+            if (Integer.MAX_VALUE + 1L < column) {
+                throw invalidAddress(chars, start, end);
+            }
+        }
+        if (i == start || i == end) {
+            throw invalidAddress(chars, start, end);
+        }
+        
+        int row = 0;
+        for (; i < end; i++) {
+            int digit = chars.charAt(i) - '0';
+            if (digit < 0 || 9 < digit || (Integer.MAX_VALUE - digit) / 10 < row) {
+                throw invalidAddress(chars, start, end);
+            }
+            row = row * 10 + digit;
+        }
+        if (row == 0) {
+            throw invalidAddress(chars, start, end);
+        }
+        
+        return pack(row - 1, (int) (column - 1));
+    }
+    
+    /**
+     * 列の記号の1文字を、{@code 'A'} を 1 とする値に変換します。<br>
+     * 
+     * @param c 文字
+     * @return 変換した値。列の記号に用いる文字でない場合は -1
+     */
+    private static int letterToDigit(char c) {
+        if ('A' <= c && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if ('a' <= c && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        return -1;
+    }
+    
+    private static IllegalArgumentException invalidAddress(CharSequence chars, int start, int end) {
+        return new IllegalArgumentException(chars.subSequence(start, end).toString());
+    }
+    
+    /**
+     * 行・列のインデックスからセルアドレス（{@code "A1"} 形式）を作成し、
+     * 指定された {@link StringBuilder} に追加します。<br>
+     * 同じ {@link StringBuilder} を繰り返し用いることにより、オブジェクトを生成せずに済みます。<br>
+     * 
+     * @param dst 追加先
+     * @param row 行インデックス（0 開始）
+     * @param column 列インデックス（0 開始）
+     * @return {@code dst}
+     * @throws NullPointerException {@code dst} が {@code null} の場合
+     * @throws IndexOutOfBoundsException {@code row}, {@code column} のいずれかが 0 未満の場合
+     */
+    public static StringBuilder appendAddress(StringBuilder dst, int row, int column) {
+        Objects.requireNonNull(dst, "dst");
+        if (row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("row:%d, column:%d".formatted(row, column));
+        }
+        
+        return appendColumnStr(dst, column).append(row + 1L);
+    }
+    
+    /**
+     * 列のインデックス（{@code 0} など）を記号（{@code "A"} など）に変換し、
+     * 指定された {@link StringBuilder} に追加します。<br>
+     * 
+     * @param dst 追加先
+     * @param column 列インデックス（0 開始）
+     * @return {@code dst}
+     * @throws NullPointerException {@code dst} が {@code null} の場合
+     * @throws IndexOutOfBoundsException {@code column} が 0 未満の場合
+     */
+    public static StringBuilder appendColumnStr(StringBuilder dst, int column) {
+        Objects.requireNonNull(dst, "dst");
+        if (column < 0) {
+            throw new IndexOutOfBoundsException("column:%d".formatted(column));
+        }
+        
+        // 列の記号は下位の桁から求まるため、先に桁数を数えて領域を確保し、後ろから埋める。
+        int length = 1;
+        for (int n = column; RADIX <= n; n = n / RADIX - 1) {
+            length++;
+        }
+        int offset = dst.length();
+        dst.setLength(offset + length);
+        for (int i = offset + length - 1, n = column; offset <= i; i--, n = n / RADIX - 1) {
+            dst.setCharAt(i, (char) ('A' + n % RADIX));
+        }
+        return dst;
+    }
+    
     /**
      * 行・列のインデックス（{@code (0, 0)} 形式）を
      * セルアドレス（{@code "A1"} 形式）に変換します。<br>
@@ -28,7 +201,7 @@ public class CellsUtil {
         if (row < 0 || column < 0) {
             throw new IndexOutOfBoundsException("row:%d, column:%d".formatted(row, column));
         }
-        return "%S%d".formatted(columnIdxToStr(column), row + 1);
+        return appendAddress(new StringBuilder(8), row, column).toString();
     }
     
     /**
@@ -38,26 +211,13 @@ public class CellsUtil {
      * @param address セルアドレス（{@code "A1"} 形式）
      * @return 行・列のインデックスのペア
      * @throws NullPointerException {@code address} が {@code null} の場合
+     * @throws IllegalArgumentException {@code address} がセルアドレスの形式でない場合
      */
     public static IntPair addressToIdx(String address) {
         Objects.requireNonNull(address, "address");
         
-        int i = 0;
-        for (; i < address.length(); i++) {
-            if (Character.isDigit(address.charAt(i))) {
-                break;
-            }
-        }
-        if (i == 0 || address.length() <= i) {
-            throw new IllegalArgumentException(address);
-        }
-        
-        String colStr = address.substring(0, i);
-        String rowStr = address.substring(i);
-        
-        return IntPair.of(
-                Integer.parseInt(rowStr) - 1,
-                CellReference.convertColStringToIndex(colStr));
+        long packed = parseAddress(address);
+        return IntPair.of(unpackRow(packed), unpackColumn(packed));
     }
     
     /**
@@ -72,7 +232,7 @@ public class CellsUtil {
             throw new IndexOutOfBoundsException("column:%d".formatted(column));
         }
         
-        return CellReference.convertNumToColString(column);
+        return appendColumnStr(new StringBuilder(4), column).toString();
     }
     
     /**
@@ -81,11 +241,26 @@ public class CellsUtil {
      * @param columnStr 列の記号（{@code "A"} など）
      * @return 列インデックス（0 開始）
      * @throws NullPointerException {@code columnStr} が {@code null} の場合
+     * @throws IllegalArgumentException {@code columnStr} が列の記号の形式でない場合
      */
     public static int columnStrToIdx(String columnStr) {
         Objects.requireNonNull(columnStr, "columnStr");
         
-        return CellReference.convertColStringToIndex(columnStr);
+        long column = 0;
+        for (int i = 0; i < columnStr.length(); i++) {
+            int digit = letterToDigit(columnStr.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException(columnStr);
+            }
+            column = column * RADIX + digit;
+            if (Integer.MAX_VALUE + 1L < column) {
+                throw new IllegalArgumentException(columnStr);
+            }
+        }
+        if (column == 0) {
+            throw new IllegalArgumentException(columnStr);
+        }
+        return (int) (column - 1);
     }
     
     // [instance members] ******************************************************
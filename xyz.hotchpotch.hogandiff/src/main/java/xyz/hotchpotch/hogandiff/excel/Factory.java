@@ -1,6 +1,7 @@
 package xyz.hotchpotch.hogandiff.excel;
 
 import java.awt.Color;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -10,6 +11,7 @@ import java.util.function.Function;
 import org.apache.poi.ss.usermodel.Cell;
 
 import xyz.hotchpotch.hogandiff.SettingKeys;
+import xyz.hotchpotch.hogandiff.core.CandidateFilter;
 import xyz.hotchpotch.hogandiff.core.Matcher;
 import xyz.hotchpotch.hogandiff.core.StringDiffUtil;
 import xyz.hotchpotch.hogandiff.excel.common.CombinedBookLoader;
@@ -91,19 +93,26 @@ public class Factory {
     
     /**
      * Excelシートからセルデータを抽出するローダーを返します。<br>
+     * 比較対象の2つのExcelブックのローダーに同じ文字列表を指定することにより、
+     * 両方のExcelブックの内容の等しい文字列を1つのインスタンスにまとめることができます。
+     * 文字列表は比較するExcelブックの組ごとに生成し、比較を終えたら破棄してください。
+     * 組をまたいで使い回すと、比較済みのExcelブックの文字列が解放されずに残り続けます。<br>
      * 
      * @param settings 設定
      * @param bookInfo Excelブックの情報
+     * @param stringPool セル内容とセルコメントの文字列を保持する文字列表
      * @return Excelシートからセルデータを抽出するローダー
      * @throws ExcelHandlingException 処理に失敗した場合
      * @throws NullPointerException
-     *              {@code settings}, {@code bookInfo} のいずれかが {@code null} の場合
+     *              {@code settings}, {@code bookInfo}, {@code stringPool} のいずれかが {@code null} の場合
      * @throws UnsupportedOperationException
      *              {@code bookInfo} がサポート対象外の形式の場合
      */
-    public SheetLoader sheetLoader(Settings settings, BookInfo bookInfo) throws ExcelHandlingException {
+    public SheetLoader sheetLoader(Settings settings, BookInfo bookInfo, StringPool stringPool)
+            throws ExcelHandlingException {
         Objects.requireNonNull(settings, "settings");
         Objects.requireNonNull(bookInfo, "bookInfo");
+        Objects.requireNonNull(stringPool, "stringPool");
         
         // 設計メモ：
         // Settings を扱うのは Factory の層までとし、これ以下の各機能へは
@@ -129,13 +138,16 @@ public class Factory {
                     ? CombinedSheetLoader.of(List.of(
                             () -> HSSFSheetLoaderWithPoiEventApi.of(
                                     useCachedValue,
-                                    saveMemory),
+                                    saveMemory,
+                                    stringPool),
                             () -> SheetLoaderWithPoiUserApi.of(
                                     saveMemory,
-                                    converter)))
+                                    converter,
+                                    stringPool)))
                     : SheetLoaderWithPoiUserApi.of(
                             saveMemory,
-                            converter);
+                            converter,
+                            stringPool);
         
         case XLSX:
         case XLSM:
@@ -144,13 +156,16 @@ public class Factory {
                             () -> XSSFSheetLoaderWithSax.of(
                                     useCachedValue,
                                     saveMemory,
-                                    bookInfo),
+                                    bookInfo,
+                                    stringPool),
                             () -> SheetLoaderWithPoiUserApi.of(
                                     saveMemory,
-                                    converter)))
+                                    converter,
+                                    stringPool)))
                     : SheetLoaderWithPoiUserApi.of(
                             saveMemory,
-                            converter);
+                            converter,
+                            stringPool);
         
         case XLSB:
             // FIXME: [No.2 .xlsbのサポート]
@@ -182,9 +197,10 @@ public class Factory {
         
         return settings.getOrDefault(SettingKeys.MATCH_NAMES_STRICTLY)
                 ? Matcher.identityMatcher()
-                : Matcher.nerutonMatcherOf(
+                : Matcher.boundedNerutonMatcherOf(
                         String::length,
-                        StringDiffUtil::levenshteinDistance);
+                        StringDiffUtil::levenshteinDistance,
+                        CandidateFilter.qGramFilter());
     }
     
     /**
@@ -199,11 +215,13 @@ public class Factory {
         
         //TODO: Excelブック名だけでなく内包するシートも加味したマッチャーに改善可能
         
+        // DirLoader はExcelブック名を昇順に並べて返すため、完全一致の場合はマージにより対応付ける。
         return settings.getOrDefault(SettingKeys.MATCH_NAMES_STRICTLY)
-                ? Matcher.identityMatcher()
-                : Matcher.nerutonMatcherOf(
+                ? Matcher.sortedIdentityMatcherOf(Comparator.<String> naturalOrder())
+                : Matcher.boundedNerutonMatcherOf(
                         String::length,
-                        StringDiffUtil::levenshteinDistance);
+                        StringDiffUtil::levenshteinDistance,
+                        CandidateFilter.qGramFilter());
     }
     
     /**
@@ -219,11 +237,17 @@ public class Factory {
         boolean considerRowGaps = settings.getOrDefault(SettingKeys.CONSIDER_ROW_GAPS);
         boolean considerColumnGaps = settings.getOrDefault(SettingKeys.CONSIDER_COLUMN_GAPS);
         boolean saveMemory = settings.getOrDefault(SettingKeys.SAVE_MEMORY);
+        long linearSpaceThreshold = settings.getOrDefault(SettingKeys.LINEAR_SPACE_MATCHING_THRESHOLD);
+        boolean approximateDiffCosts = settings.getOrDefault(SettingKeys.APPROXIMATE_DIFF_COSTS);
+        boolean alignColumnsFirst = settings.getOrDefault(SettingKeys.ALIGN_COLUMNS_FIRST);
         
         return SComparatorImpl.of(
                 considerRowGaps,
                 considerColumnGaps,
-                saveMemory);
+                saveMemory,
+                linearSpaceThreshold,
+                approximateDiffCosts,
+                alignColumnsFirst);
     }
     
     /**
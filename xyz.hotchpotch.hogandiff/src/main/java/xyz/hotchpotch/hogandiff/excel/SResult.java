@@ -309,9 +309,16 @@ public record SResult(
         if (0 < redundantColumns.a().length || 0 < redundantColumns.b().length) {
             str.append("Column Gaps :").append(BR);
             
-            Function<int[], String> columnsToStr = columns -> Arrays.stream(columns)
-                    .mapToObj(CellsUtil::columnIdxToStr)
-                    .collect(Collectors.joining(", "));
+            Function<int[], String> columnsToStr = columns -> {
+                StringBuilder joined = new StringBuilder();
+                for (int i = 0; i < columns.length; i++) {
+                    if (0 < i) {
+                        joined.append(", ");
+                    }
+                    CellsUtil.appendColumnStr(joined, columns[i]);
+                }
+                return joined.toString();
+            };
             
             if (0 < redundantColumns.a().length) {
                 str.append("- ").append(columnsToStr.apply(redundantColumns.a())).append(BR);
@@ -0,0 +1,600 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+/**
+ * Excelシートに含まれるセルの不変セットです。<br>
+ * セルを1つずつオブジェクトとして保持するのではなく、行インデックス、列インデックス、
+ * セル内容、セルコメントをそれぞれ配列に分けて保持することにより、記憶領域を節約します。
+ * セル内容とセルコメントの文字列は、重複を除いた文字列表（{@link StringPool}）を介して保持します。
+ * 文字列表は比較対象の両方のシートで共有することもできます。<br>
+ * 要素は行インデックス、列インデックスの昇順に並びます。
+ * 要素の {@link CellData} オブジェクトは、走査のたびに新たに生成されます。
+ * 要素の位置やデータ内容だけが必要な場合は、{@link CellData} オブジェクトを生成することなく
+ * 要素のインデックス（0 から {@link #size()} - 1）を指定して参照することができます。<br>
+ * 
+ * @author nmby
+ */
+// 実装メモ：
+// 通常モードの場合は、contents, comments に文字列表 pool のIDを保持する（コメントが無い場合は -1）。
+// 省メモリモードの場合は pool, contents, comments を null とし、
+// contentHashes, commentHashes に64ビットのハッシュ値をそのまま保持する（コメントが無い場合は 0）。
+public final class SheetCells extends AbstractSet<CellData> {
+    
+    // [static members] ********************************************************
+    
+    private static final int NO_COMMENT = -1;
+    
+    /**
+     * {@link SheetCells} のビルダーです。<br>
+     * セルを1つずつオブジェクトとして生成することなく、セル内容とセルコメントを
+     * 行インデックス、列インデックスとともに直接追加することができます。
+     * セル内容とセルコメントは {@link CharSequence} のまま受け取り、
+     * 省メモリモードの場合はハッシュ値だけを、通常モードの場合は文字列表のIDだけを保持します。<br>
+     * 
+     * @author nmby
+     */
+    // 実装メモ：
+    // セルとセルコメントは追加された順にそれぞれ配列に保持し、
+    // build() の際に位置の順に並べて突き合わせる。
+    // contents, comments には、通常モードの場合は文字列表のIDを、省メモリモードの場合はハッシュ値を保持する。
+    public static class Builder {
+        
+        // [static members] ----------------------------------------------------
+        
+        /**
+         * 位置の昇順に要素を並べたときの、要素のインデックスの並びを返します。<br>
+         * 
+         * @throws IllegalArgumentException 同じ位置の要素が複数含まれる場合
+         */
+        private static int[] order(long[] positions, int size, String target) {
+            assert positions != null;
+            assert 0 <= size && size <= positions.length;
+            
+            int[] order;
+            if (isSorted(positions, size)) {
+                // ワークシートのセルは通常位置の順に現れるため、並べ替えを省ける。
+                order = IntStream.range(0, size).toArray();
+            } else {
+                order = IntStream.range(0, size).boxed()
+                        .sorted(Comparator.comparingLong(i -> positions[i]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+            for (int i = 1; i < size; i++) {
+                if (positions[order[i - 1]] == positions[order[i]]) {
+                    long position = positions[order[i]];
+                    throw new IllegalArgumentException("duplicate %s: %s".formatted(
+                            target,
+                            CellsUtil.idxToAddress(
+                                    CellsUtil.unpackRow(position),
+                                    CellsUtil.unpackColumn(position))));
+                }
+            }
+            return order;
+        }
+        
+        private static boolean isSorted(long[] positions, int size) {
+            for (int i = 1; i < size; i++) {
+                if (positions[i] < positions[i - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // [instance members] --------------------------------------------------
+        
+        private final StringPool pool;
+        
+        private long[] positions = new long[64];
+        private long[] contents = new long[64];
+        private int size;
+        
+        private long[] commentPositions = new long[8];
+        private long[] comments = new long[8];
+        private int commentSize;
+        
+        private Builder(StringPool pool) {
+            this.pool = pool;
+        }
+        
+        private long encode(CharSequence str) {
+            return pool == null
+                    ? TextHasher.hash(str)
+                    : pool.idOf(str);
+        }
+        
+        /**
+         * セルを追加します。<br>
+         * 
+         * @param row 行インデックス（0開始）
+         * @param column 列インデックス（0開始）
+         * @param content セル内容
+         * @return このビルダー
+         * @throws NullPointerException {@code content} が {@code null} の場合
+         * @throws IndexOutOfBoundsException {@code row}, {@code column} のいずれかが 0 未満の場合
+         */
+        public Builder add(int row, int column, CharSequence content) {
+            Objects.requireNonNull(content, "content");
+            long position = CellsUtil.pack(row, column);
+            
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                contents = Arrays.copyOf(contents, size * 2);
+            }
+            positions[size] = position;
+            contents[size] = encode(content);
+            size++;
+            return this;
+        }
+        
+        /**
+         * セルコメントを追加します。<br>
+         * 同じ位置のセルが追加されていない場合は、空のセル内容のセルとして扱います。<br>
+         * 
+         * @param row 行インデックス（0開始）
+         * @param column 列インデックス（0開始）
+         * @param comment セルコメント
+         * @return このビルダー
+         * @throws NullPointerException {@code comment} が {@code null} の場合
+         * @throws IndexOutOfBoundsException {@code row}, {@code column} のいずれかが 0 未満の場合
+         */
+        public Builder addComment(int row, int column, CharSequence comment) {
+            Objects.requireNonNull(comment, "comment");
+            long position = CellsUtil.pack(row, column);
+            
+            if (commentSize == commentPositions.length) {
+                commentPositions = Arrays.copyOf(commentPositions, commentSize * 2);
+                comments = Arrays.copyOf(comments, commentSize * 2);
+            }
+            commentPositions[commentSize] = position;
+            comments[commentSize] = encode(comment);
+            commentSize++;
+            return this;
+        }
+        
+        /**
+         * このビルダーで {@link SheetCells} オブジェクトを生成します。<br>
+         * 
+         * @return 新しい {@link SheetCells} オブジェクト
+         * @throws IllegalArgumentException 同じ位置のセルまたはセルコメントが複数追加された場合
+         */
+        public SheetCells build() {
+            int[] cellOrder = order(positions, size, "cell");
+            int[] commentOrder = order(commentPositions, commentSize, "comment");
+            
+            int capacity = size + commentSize;
+            int[] rows = new int[capacity];
+            int[] columns = new int[capacity];
+            long[] newContents = new long[capacity];
+            long[] newComments = new long[capacity];
+            long emptyContent = 0 < commentSize ? encode("") : 0;
+            long noComment = pool == null ? 0 : NO_COMMENT;
+            
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < commentSize) {
+                long p = i < size ? positions[cellOrder[i]] : Long.MAX_VALUE;
+                long q = j < commentSize ? commentPositions[commentOrder[j]] : Long.MAX_VALUE;
+                long position = Math.min(p, q);
+                
+                rows[n] = CellsUtil.unpackRow(position);
+                columns[n] = CellsUtil.unpackColumn(position);
+                newContents[n] = p == position ? contents[cellOrder[i++]] : emptyContent;
+                newComments[n] = q == position ? comments[commentOrder[j++]] : noComment;
+                n++;
+            }
+            
+            if (n < capacity) {
+                rows = Arrays.copyOf(rows, n);
+                columns = Arrays.copyOf(columns, n);
+            }
+            if (pool == null) {
+                return new SheetCells(
+                        rows,
+                        columns,
+                        null,
+                        null,
+                        Arrays.copyOf(newContents, n),
+                        Arrays.copyOf(newComments, n),
+                        null);
+            }
+            return new SheetCells(
+                    rows,
+                    columns,
+                    Arrays.stream(newContents, 0, n).mapToInt(id -> (int) id).toArray(),
+                    Arrays.stream(newComments, 0, n).mapToInt(id -> (int) id).toArray(),
+                    null,
+                    null,
+                    pool);
+        }
+    }
+    
+    /**
+     * このクラスのビルダーを返します。<br>
+     * セル内容とセルコメントの文字列は、生成するセット専用の文字列表で保持します。<br>
+     * 
+     * @param saveMemory 省メモリモードの場合は {@code true}
+     * @return 新しいビルダー
+     */
+    public static Builder builder(boolean saveMemory) {
+        return new Builder(saveMemory ? null : new StringPool());
+    }
+    
+    /**
+     * 通常モードのこのクラスのビルダーを、指定された文字列表を用いて返します。<br>
+     * 同じ文字列表を用いて生成したセット同士は、文字列表を共有します。<br>
+     * 
+     * @param pool セル内容とセルコメントの文字列を保持する文字列表
+     * @return 新しいビルダー
+     * @throws NullPointerException {@code pool} が {@code null} の場合
+     */
+    public static Builder builder(StringPool pool) {
+        Objects.requireNonNull(pool, "pool");
+        
+        return new Builder(pool);
+    }
+    
+    /**
+     * 指定されたセルを保持するセットを返します。<br>
+     * セル内容とセルコメントの文字列は、このセット専用の文字列表で保持します。<br>
+     * 
+     * @param cells セルのコレクション
+     * @return 指定されたセルを保持するセット
+     * @throws NullPointerException {@code cells} が {@code null} の場合、または {@code null} 要素を含む場合
+     * @throws IllegalArgumentException {@code cells} が同じ位置のセルを複数含む場合、
+     *              または通常モードのセルと省メモリモードのセルが混在する場合
+     */
+    public static SheetCells copyOf(Collection<? extends CellData> cells) {
+        Objects.requireNonNull(cells, "cells");
+        
+        return cells instanceof SheetCells sheetCells
+                ? sheetCells
+                : copyOf(cells, new StringPool());
+    }
+    
+    /**
+     * 指定されたセルを保持するセットを、指定された文字列表を用いて返します。<br>
+     * 
+     * @param cells セルのコレクション
+     * @param pool セル内容とセルコメントの文字列を保持する文字列表
+     * @return 指定されたセルを保持するセット
+     * @throws NullPointerException {@code cells}, {@code pool} のいずれかが {@code null} の場合、
+     *              または {@code cells} が {@code null} 要素を含む場合
+     * @throws IllegalArgumentException {@code cells} が同じ位置のセルを複数含む場合、
+     *              または通常モードのセルと省メモリモードのセルが混在する場合
+     */
+    public static SheetCells copyOf(Collection<? extends CellData> cells, StringPool pool) {
+        Objects.requireNonNull(cells, "cells");
+        Objects.requireNonNull(pool, "pool");
+        
+        if (cells instanceof SheetCells sheetCells) {
+            return sheetCells.pool == null || sheetCells.pool == pool
+                    ? sheetCells
+                    : sheetCells.reencode(pool);
+        }
+        CellData[] sorted = cells.toArray(CellData[]::new);
+        for (CellData cell : sorted) {
+            Objects.requireNonNull(cell, "cell");
+        }
+        Arrays.parallelSort(sorted, Comparator
+                .comparingInt(CellData::row)
+                .thenComparingInt(CellData::column));
+        
+        int size = sorted.length;
+        int[] rows = new int[size];
+        int[] columns = new int[size];
+        boolean saveMemory = 0 < size && sorted[0] instanceof CellHashData;
+        int[] contents = saveMemory ? null : new int[size];
+        int[] comments = saveMemory ? null : new int[size];
+        long[] contentHashes = saveMemory ? new long[size] : null;
+        long[] commentHashes = saveMemory ? new long[size] : null;
+        
+        for (int i = 0; i < size; i++) {
+            CellData cell = sorted[i];
+            rows[i] = cell.row();
+            columns[i] = cell.column();
+            if (0 < i && rows[i] == rows[i - 1] && columns[i] == columns[i - 1]) {
+                throw new IllegalArgumentException("duplicate cell: " + cell.address());
+            }
+            
+            if (!saveMemory && cell instanceof CellStringData cd) {
+                contents[i] = pool.idOf(cd.content());
+                comments[i] = cd.comment() == null
+                        ? NO_COMMENT
+                        : pool.idOf(cd.comment());
+            } else if (saveMemory && cell instanceof CellHashData cd) {
+                contentHashes[i] = cd.contentHash();
+                commentHashes[i] = cd.commentHash();
+            } else {
+                throw new IllegalArgumentException("unexpected cell type: " + cell.getClass());
+            }
+        }
+        return saveMemory
+                ? new SheetCells(rows, columns, null, null, contentHashes, commentHashes, null)
+                : new SheetCells(rows, columns, contents, comments, null, null, pool);
+    }
+    
+    // [instance members] ******************************************************
+    
+    private final int[] rows;
+    private final int[] columns;
+    private final int[] contents;
+    private final int[] comments;
+    private final long[] contentHashes;
+    private final long[] commentHashes;
+    private final StringPool pool;
+    
+    private SheetCells(
+            int[] rows,
+            int[] columns,
+            int[] contents,
+            int[] comments,
+            long[] contentHashes,
+            long[] commentHashes,
+            StringPool pool) {
+        
+        assert rows != null;
+        assert columns != null && columns.length == rows.length;
+        assert pool == null
+                ? contentHashes != null && contentHashes.length == rows.length
+                        && commentHashes != null && commentHashes.length == rows.length
+                        && contents == null && comments == null
+                : contents != null && contents.length == rows.length
+                        && comments != null && comments.length == rows.length
+                        && contentHashes == null && commentHashes == null;
+        
+        this.rows = rows;
+        this.columns = columns;
+        this.contents = contents;
+        this.comments = comments;
+        this.contentHashes = contentHashes;
+        this.commentHashes = commentHashes;
+        this.pool = pool;
+    }
+    
+    /**
+     * このセットと同じセルを、指定された文字列表を用いて保持するセットを返します。<br>
+     * 行インデックスと列インデックスの配列は、このセットと共有します。<br>
+     */
+    private SheetCells reencode(StringPool newPool) {
+        assert pool != null;
+        assert newPool != null;
+        
+        // 元の文字列表のIDごとに新たな文字列表のIDを求めておき、セルごとの変換は配列の参照で済ませる。
+        int[] newIds = new int[pool.size()];
+        Arrays.fill(newIds, -1);
+        int[] newContents = new int[contents.length];
+        int[] newComments = new int[comments.length];
+        for (int i = 0; i < contents.length; i++) {
+            newContents[i] = reencode(contents[i], newIds, newPool);
+            newComments[i] = comments[i] == NO_COMMENT
+                    ? NO_COMMENT
+                    : reencode(comments[i], newIds, newPool);
+        }
+        return new SheetCells(rows, columns, newContents, newComments, null, null, newPool);
+    }
+    
+    private int reencode(int id, int[] newIds, StringPool newPool) {
+        if (newIds[id] < 0) {
+            newIds[id] = newPool.idOf(pool.get(id));
+        }
+        return newIds[id];
+    }
+    
+    @Override
+    public int size() {
+        return rows.length;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、行インデックスと列インデックスによる二分探索で要素を探します。<br>
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof CellData cell) {
+            int i = indexOf(cell.row(), cell.column());
+            return 0 <= i && cellAt(i).equals(cell);
+        }
+        return false;
+    }
+    
+    @Override
+    public Iterator<CellData> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+            
+            @Override
+            public boolean hasNext() {
+                return next < rows.length;
+            }
+            
+            @Override
+            public CellData next() {
+                if (rows.length <= next) {
+                    throw new NoSuchElementException();
+                }
+                return cellAt(next++);
+            }
+        };
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * この実装は、要素のインデックスの範囲で分割可能なスプリッテレータを返します。<br>
+     */
+    @Override
+    public Spliterator<CellData> spliterator() {
+        return IntStream.range(0, rows.length).mapToObj(this::cellAt).spliterator();
+    }
+    
+    /**
+     * 指定されたインデックスの要素を返します。<br>
+     * 
+     * @param i 要素のインデックス
+     * @return 要素
+     * @throws IndexOutOfBoundsException {@code i} が範囲外の場合
+     */
+    public CellData get(int i) {
+        Objects.checkIndex(i, rows.length);
+        return cellAt(i);
+    }
+    
+    /**
+     * 指定されたインデックスの要素の行インデックスを返します。<br>
+     * 
+     * @param i 要素のインデックス
+     * @return 行インデックス
+     * @throws IndexOutOfBoundsException {@code i} が範囲外の場合
+     */
+    public int rowAt(int i) {
+        return rows[i];
+    }
+    
+    /**
+     * 指定されたインデックスの要素の列インデックスを返します。<br>
+     * 
+     * @param i 要素のインデックス
+     * @return 列インデックス
+     * @throws IndexOutOfBoundsException {@code i} が範囲外の場合
+     */
+    public int columnAt(int i) {
+        return columns[i];
+    }
+    
+    /**
+     * 指定されたインデックスの要素の、データ内容の64ビットのハッシュ値を返します。<br>
+     * {@link CellData#dataHashCode64()} と同じ値です。<br>
+     * 
+     * @param i 要素のインデックス
+     * @return データ内容の64ビットのハッシュ値
+     * @throws IndexOutOfBoundsException {@code i} が範囲外の場合
+     */
+    public long dataHashCode64At(int i) {
+        if (pool == null) {
+            return Long.rotateLeft(contentHashes[i], 32) ^ commentHashes[i];
+        }
+        return Long.rotateLeft(TextHasher.hash(pool.get(contents[i])), 32)
+                ^ (comments[i] == NO_COMMENT ? 0 : TextHasher.hash(pool.get(comments[i])));
+    }
+    
+    /**
+     * このセットの指定されたインデックスの要素と、他のセットの指定されたインデックスの要素の
+     * データ内容が等価か否かを返します。<br>
+     * {@link CellData#dataEquals(CellData)} と同じ結果を返します。<br>
+     * 
+     * @param i このセットの要素のインデックス
+     * @param other 他のセット
+     * @param j 他のセットの要素のインデックス
+     * @return データ内容が等価な場合は {@code true}
+     * @throws NullPointerException {@code other} が {@code null} の場合
+     * @throws IndexOutOfBoundsException {@code i}, {@code j} のいずれかが範囲外の場合
+     */
+    public boolean dataEquals(int i, SheetCells other, int j) {
+        Objects.requireNonNull(other, "other");
+        
+        if ((pool == null) != (other.pool == null)) {
+            return false;
+        }
+        if (pool == null) {
+            return contentHashes[i] == other.contentHashes[j]
+                    && commentHashes[i] == other.commentHashes[j];
+        }
+        if (pool == other.pool) {
+            // 同じ文字列表を共有している場合は、IDの比較で済む。
+            return contents[i] == other.contents[j]
+                    && comments[i] == other.comments[j];
+        }
+        return pool.get(contents[i]).equals(other.pool.get(other.contents[j]))
+                && (comments[i] == NO_COMMENT
+                        ? other.comments[j] == NO_COMMENT
+                        : other.comments[j] != NO_COMMENT
+                                && pool.get(comments[i]).equals(other.pool.get(other.comments[j])));
+    }
+    
+    /**
+     * このセットの指定されたインデックスの要素と、他のセットの指定されたインデックスの要素の
+     * データ内容の大小関係を返します。<br>
+     * {@link CellData#dataCompareTo(CellData)} と同じ結果を返します。<br>
+     * 
+     * @param i このセットの要素のインデックス
+     * @param other 他のセット
+     * @param j 他のセットの要素のインデックス
+     * @return この要素のデータ内容が小さい場合は負の整数、等しい場合はゼロ、大きい場合は正の整数
+     * @throws NullPointerException {@code other} が {@code null} の場合
+     * @throws IndexOutOfBoundsException {@code i}, {@code j} のいずれかが範囲外の場合
+     * @throws IllegalArgumentException 省メモリモードのセットと通常モードのセットを比較しようとした場合
+     */
+    public int dataCompare(int i, SheetCells other, int j) {
+        Objects.requireNonNull(other, "other");
+        
+        if ((pool == null) != (other.pool == null)) {
+            throw new IllegalArgumentException();
+        }
+        if (pool == null) {
+            return contentHashes[i] != other.contentHashes[j]
+                    ? Long.compare(contentHashes[i], other.contentHashes[j])
+                    : Long.compare(commentHashes[i], other.commentHashes[j]);
+        }
+        if (pool == other.pool && contents[i] == other.contents[j] && comments[i] == other.comments[j]) {
+            return 0;
+        }
+        int comp = pool.get(contents[i]).compareTo(other.pool.get(other.contents[j]));
+        if (comp != 0) {
+            return comp;
+        }
+        if (comments[i] == NO_COMMENT || other.comments[j] == NO_COMMENT) {
+            return Boolean.compare(comments[i] != NO_COMMENT, other.comments[j] != NO_COMMENT);
+        }
+        return pool.get(comments[i]).compareTo(other.pool.get(other.comments[j]));
+    }
+    
+    /**
+     * 指定された位置の要素のインデックスを返します。<br>
+     * 
+     * @param row 行インデックス
+     * @param column 列インデックス
+     * @return 要素のインデックス。存在しない場合は負の値
+     */
+    private int indexOf(int row, int column) {
+        int low = 0;
+        int high = rows.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comp = rows[mid] != row
+                    ? Integer.compare(rows[mid], row)
+                    : Integer.compare(columns[mid], column);
+            if (comp < 0) {
+                low = mid + 1;
+            } else if (0 < comp) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    private CellData cellAt(int i) {
+        return pool == null
+                ? new CellHashData(rows[i], columns[i], contentHashes[i], commentHashes[i])
+                : new CellStringData(
+                        rows[i],
+                        columns[i],
+                        pool.get(contents[i]),
+                        comments[i] == NO_COMMENT ? null : pool.get(comments[i]));
+    }
+}
@@ -0,0 +1,133 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 文字列に整数IDを割り当て、内容の等しい文字列を1つのインスタンスにまとめて保持する文字列表です。<br>
+ * 比較処理ごとに1つの文字列表を比較対象の両方のExcelブックで共有することにより、
+ * セル内容の記憶領域をセルの数ではなく異なる値の数に比例させることができます。<br>
+ * また、同じ文字列表から取り出した内容の等しい文字列は同一インスタンスとなるため、
+ * 等価判定が参照の比較で済みます。<br>
+ * 文字列は {@link CharSequence} のまま検索でき、登録済みの文字列であれば新たな {@link String} を生成しません。<br>
+ * このクラスはスレッドセーフであり、複数のスレッドから同時に利用することができます。<br>
+ * 
+ * @author nmby
+ */
+public final class StringPool {
+    
+    // [static members] ********************************************************
+    
+    /**
+     * 文字の並びのハッシュ値を返します。<br>
+     * {@link String#hashCode()} と同じ値を撹拌したものであり、
+     * {@link String} の場合はキャッシュされたハッシュ値を利用します。<br>
+     */
+    private static int hash(CharSequence str) {
+        int h;
+        if (str instanceof String s) {
+            h = s.hashCode();
+        } else {
+            h = 0;
+            for (int i = 0; i < str.length(); i++) {
+                h = 31 * h + str.charAt(i);
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+    
+    // [instance members] ******************************************************
+    
+    // 実装メモ：
+    // 文字列を CharSequence のまま検索できるよう、HashMap を用いずに自前のハッシュ表で管理する。
+    // slots は線形探索法のハッシュ表であり、ID + 1 を保持する（空きは 0）。
+    private int[] slots = new int[32];
+    private int[] hashes = new int[16];
+    private volatile String[] strings = new String[16];
+    private int size;
+    
+    /**
+     * 新しい空の文字列表を生成します。<br>
+     */
+    public StringPool() {
+    }
+    
+    /**
+     * 指定された文字列のIDを返します。<br>
+     * 文字列表に未登録の文字列の場合は、新たなIDを割り当てて登録します。<br>
+     * 
+     * @param str 文字列
+     * @return 文字列のID（0 以上）
+     * @throws NullPointerException {@code str} が {@code null} の場合
+     */
+    public synchronized int idOf(CharSequence str) {
+        Objects.requireNonNull(str, "str");
+        
+        int hash = hash(str);
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            int id = slots[i] - 1;
+            if (hashes[id] == hash && strings[id].contentEquals(str)) {
+                return id;
+            }
+        }
+        
+        String[] current = strings;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        current[size] = str.toString();
+        hashes[size] = hash;
+        strings = current;
+        slots[i] = size + 1;
+        size++;
+        
+        // 負荷率が 1/2 を超えたらハッシュ表を拡張する。
+        if (slots.length < size * 2) {
+            rehash(slots.length * 2);
+        }
+        return size - 1;
+    }
+    
+    private void rehash(int capacity) {
+        assert Integer.bitCount(capacity) == 1;
+        
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int i = hashes[id] & mask;
+            while (newSlots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            newSlots[i] = id + 1;
+        }
+        slots = newSlots;
+    }
+    
+    /**
+     * 指定されたIDの文字列を返します。<br>
+     * 
+     * @param id 文字列のID
+     * @return 文字列
+     * @throws IndexOutOfBoundsException {@code id} が割り当て済みのIDでない場合
+     */
+    public String get(int id) {
+        String[] current = strings;
+        String str = current[Objects.checkIndex(id, current.length)];
+        if (str == null) {
+            throw new IndexOutOfBoundsException("id: " + id);
+        }
+        return str;
+    }
+    
+    /**
+     * 登録されている文字列の数を返します。<br>
+     * 
+     * @return 登録されている文字列の数
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
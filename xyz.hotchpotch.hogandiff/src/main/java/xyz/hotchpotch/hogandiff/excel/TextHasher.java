@@ -0,0 +1,138 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import java.util.Objects;
+
+/**
+ * 文字の並びから64ビットのハッシュ値を逐次的に求めるハッシュ関数です。<br>
+ * パーサーの文字バッファ等から文字を少しずつ与えることができ、
+ * ハッシュ値を求めるために {@link String} オブジェクトを生成する必要がありません。
+ * 文字の与え方（分割の仕方）に依らず、同じ文字の並びからは同じハッシュ値が求まります。<br>
+ * 求まるハッシュ値は常に 0 以外の値となります。<br>
+ * このクラスはスレッドセーフではありません。<br>
+ * 
+ * @author nmby
+ */
+// 実装メモ：
+// MurmurHash3 の64ビット版に倣い、4文字（64ビット）ずつブロックとして撹拌する。
+// 0 は省メモリモードにおいて「セルコメント無し」を表すため、ハッシュ値としては用いない。
+public final class TextHasher {
+    
+    // [static members] ********************************************************
+    
+    private static final long C1 = 0x87C3_7B91_1142_53D5L;
+    private static final long C2 = 0x4CF5_AD43_2745_937FL;
+    private static final long SEED = 0x9E37_79B9_7F4A_7C15L;
+    
+    /** ハッシュ値が 0 となった場合に代わりに用いる値 */
+    private static final long NON_ZERO = 0xD6E8_FEB8_6659_FD93L;
+    
+    /**
+     * 指定された文字の並びのハッシュ値を返します。<br>
+     * 
+     * @param text 文字の並び
+     * @return ハッシュ値（0 以外）
+     * @throws NullPointerException {@code text} が {@code null} の場合
+     */
+    public static long hash(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        
+        return new TextHasher().update(text).finish();
+    }
+    
+    private static long mixBlock(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        k *= C2;
+        return k;
+    }
+    
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51_AFD7_ED55_8CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CE_B9FE_1A85_EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    // [instance members] ******************************************************
+    
+    private long h = SEED;
+    private long block;
+    private int blockLength;
+    private long length;
+    
+    /**
+     * 新たなハッシュ関数を生成します。<br>
+     */
+    public TextHasher() {
+    }
+    
+    private void append(char c) {
+        block |= (long) c << (Character.SIZE * blockLength);
+        if (++blockLength == 4) {
+            h ^= mixBlock(block);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DC_E729L;
+            block = 0;
+            blockLength = 0;
+        }
+    }
+    
+    /**
+     * 指定された文字配列の範囲の文字を与えます。<br>
+     * 
+     * @param chars 文字配列
+     * @param start 範囲の開始位置
+     * @param length 範囲の長さ
+     * @return このハッシュ関数
+     * @throws NullPointerException {@code chars} が {@code null} の場合
+     * @throws IndexOutOfBoundsException 範囲が文字配列に収まらない場合
+     */
+    public TextHasher update(char[] chars, int start, int length) {
+        Objects.requireNonNull(chars, "chars");
+        Objects.checkFromIndexSize(start, length, chars.length);
+        
+        for (int i = start; i < start + length; i++) {
+            append(chars[i]);
+        }
+        this.length += length;
+        return this;
+    }
+    
+    /**
+     * 指定された文字の並びを与えます。<br>
+     * 
+     * @param text 文字の並び
+     * @return このハッシュ関数
+     * @throws NullPointerException {@code text} が {@code null} の場合
+     */
+    public TextHasher update(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+        length += text.length();
+        return this;
+    }
+    
+    /**
+     * これまでに与えられた文字の並びのハッシュ値を返し、このハッシュ関数を初期状態に戻します。<br>
+     * 
+     * @return ハッシュ値（0 以外）
+     */
+    public long finish() {
+        long result = h;
+        if (0 < blockLength) {
+            result ^= mixBlock(block);
+        }
+        result = fmix64(result ^ length);
+        
+        h = SEED;
+        block = 0;
+        blockLength = 0;
+        length = 0;
+        
+        return result != 0 ? result : NON_ZERO;
+    }
+}
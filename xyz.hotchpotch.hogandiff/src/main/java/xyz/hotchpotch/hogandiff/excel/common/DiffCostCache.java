@@ -0,0 +1,113 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 要素同士の差分コストの評価結果を記憶し、同じ組み合わせの再評価を省略する評価関数です。<br>
+ * 各要素には、内容の等しい要素同士で等しくなる整数IDが割り当てられていること、
+ * また、差分コストが要素の順序に依らないことを前提とします。<br>
+ * IDの等しい要素同士の差分コストはゼロとし、
+ * IDの異なる組み合わせの差分コストは一定数まで記憶します。<br>
+ * 記憶領域は固定長であり、衝突した組み合わせは上書きされます（再評価の際に改めて計算します）。<br>
+ * このクラスはスレッドセーフであり、複数のスレッドから同時に利用することができます。<br>
+ * 
+ * @param <T> 要素の型
+ * @author nmby
+ */
+/*package*/ class DiffCostCache<T> implements ToIntBiFunction<T, T> {
+    
+    // [static members] ********************************************************
+    
+    /** 記憶する組み合わせの数の上限 */
+    private static final int MAX_CAPACITY = 1 << 20;
+    
+    /** 記憶する組み合わせの数の下限 */
+    private static final int MIN_CAPACITY = 1 << 10;
+    
+    /** 0 以上 {@code n} 未満の値を表すのに必要なビット数を返します。 */
+    private static int bitsFor(long n) {
+        return Long.SIZE - Long.numberOfLeadingZeros(Math.max(n - 1, 1));
+    }
+    
+    // [instance members] ******************************************************
+    
+    private final ToIntFunction<? super T> idExtractor;
+    private final ToIntBiFunction<? super T, ? super T> diffEvaluator;
+    private final int numIds;
+    
+    /**
+     * 組み合わせとコストを1つの {@code long} 値に詰めた表。空きスロットは 0。
+     * 組み合わせとコストを詰めきれない場合は {@code null}
+     */
+    private final AtomicLongArray table;
+    private final int mask;
+    private final int costBits;
+    
+    /**
+     * コンストラクタ<br>
+     * 
+     * @param idExtractor 要素のIDを返す関数
+     * @param diffEvaluator 差分コストの評価関数
+     * @param numIds IDの数（IDは 0 以上 {@code numIds} 未満）
+     * @param maxCost 差分コストの最大値
+     */
+    /*package*/ DiffCostCache(
+            ToIntFunction<? super T> idExtractor,
+            ToIntBiFunction<? super T, ? super T> diffEvaluator,
+            int numIds,
+            int maxCost) {
+        
+        assert idExtractor != null;
+        assert diffEvaluator != null;
+        assert 0 <= numIds;
+        assert 0 <= maxCost;
+        
+        this.idExtractor = idExtractor;
+        this.diffEvaluator = diffEvaluator;
+        this.numIds = numIds;
+        
+        // 組み合わせ（に 1 を加えた値）を上位ビットに、差分コストを下位ビットに詰める。
+        int keyBits = bitsFor((long) numIds * numIds + 1);
+        this.costBits = bitsFor(maxCost + 1L);
+        
+        if (Long.SIZE < keyBits + costBits) {
+            this.table = null;
+            this.mask = 0;
+        } else {
+            int capacity = Integer.highestOneBit((int) Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, 4L * numIds)));
+            this.table = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+    
+    @Override
+    public int applyAsInt(T t1, T t2) {
+        int id1 = idExtractor.applyAsInt(t1);
+        int id2 = idExtractor.applyAsInt(t2);
+        assert 0 <= id1 && id1 < numIds;
+        assert 0 <= id2 && id2 < numIds;
+        
+        if (id1 == id2) {
+            return 0;
+        }
+        if (table == null) {
+            return diffEvaluator.applyAsInt(t1, t2);
+        }
+        
+        // 差分コストは要素の順序に依らないため、IDの小さい方を先にした組み合わせで記憶する。
+        long key = (long) Math.min(id1, id2) * numIds + Math.max(id1, id2) + 1;
+        int slot = (int) ((key * 0x9E37_79B9_7F4A_7C15L) >>> 32) & mask;
+        
+        long entry = table.getOpaque(slot);
+        if (entry >>> costBits == key) {
+            return (int) (entry & ((1L << costBits) - 1));
+        }
+        
+        int cost = diffEvaluator.applyAsInt(t1, t2);
+        assert 0 <= cost && cost < (1L << costBits);
+        table.setOpaque(slot, (key << costBits) | cost);
+        return cost;
+    }
+}
@@ -0,0 +1,136 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import java.util.Arrays;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 要素同士の差分コストを、要素ごとに一度だけ作成する MinHash シグネチャから推定する評価関数です。<br>
+ * 各要素は、内容の等しい要素同士で等しくなる整数IDと、
+ * 要素を構成する項目のハッシュ値の集合で表されるものとし、
+ * 差分コストは一方にだけ含まれる項目の数（対称差の大きさ）であることを前提とします。<br>
+ * 推定に要する時間は要素の大きさに依らず一定です。
+ * ただし、項目の数の少ない要素同士については、推定を行わずに正確な差分コストを評価します。<br>
+ * このクラスはスレッドセーフであり、複数のスレッドから同時に利用することができます。<br>
+ * 
+ * @param <T> 要素の型
+ * @author nmby
+ */
+// 実装メモ：
+// シグネチャの作成には one permutation hashing を用いる。
+// 各項目のハッシュ値を一度だけ計算し、上位ビットで決まるビンごとに残りのビットの最小値を保持する。
+// Jaccard 係数 J は「値の一致するビンの数 ÷ いずれかが空でないビンの数」で推定でき、
+// 対称差の大きさは (|A| + |B|)(1 - J) / (1 + J) で求められる。
+/*package*/ class MinHashDiffEstimator<T> implements ToIntBiFunction<T, T> {
+    
+    // [static members] ********************************************************
+    
+    /** ビンの数を表すビット数 */
+    private static final int BIN_BITS = 6;
+    
+    /** シグネチャあたりのビンの数 */
+    private static final int BINS = 1 << BIN_BITS;
+    
+    /** 空のビンを表す値。ビンに保持するどの値よりも大きな値 */
+    private static final int EMPTY = Integer.MAX_VALUE;
+    
+    /** 項目の数の合計がこれ以下の組み合わせは、推定を行わずに正確な差分コストを評価します。 */
+    private static final int EXACT_THRESHOLD = 2 * BINS;
+    
+    /** 項目のハッシュ値をシグネチャ作成用に撹拌します。 */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51_AFD7_ED55_8CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CE_B9FE_1A85_EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+    
+    /** 項目のハッシュ値の集合から、シグネチャを作成して指定された位置に格納します。 */
+    private static void sketch(long[] items, int[] signatures, int offset) {
+        Arrays.fill(signatures, offset, offset + BINS, EMPTY);
+        for (long item : items) {
+            long h = mix(item);
+            int bin = offset + (int) (h >>> (Long.SIZE - BIN_BITS));
+            // 上位ビットはビンの選択に用いたため、続く30ビットを値とする。
+            int value = (int) ((h << BIN_BITS) >>> (Long.SIZE - 30));
+            if (value < signatures[bin]) {
+                signatures[bin] = value;
+            }
+        }
+    }
+    
+    // [instance members] ******************************************************
+    
+    private final ToIntFunction<? super T> idExtractor;
+    private final ToIntBiFunction<? super T, ? super T> exactEvaluator;
+    private final int[] sizes;
+    private final int[] signatures;
+    
+    /**
+     * コンストラクタ<br>
+     * 
+     * @param idExtractor 要素のIDを返す関数
+     * @param exactEvaluator 正確な差分コストの評価関数
+     * @param items IDごとの、要素を構成する項目のハッシュ値の集合（重複を含まないこと）
+     */
+    /*package*/ MinHashDiffEstimator(
+            ToIntFunction<? super T> idExtractor,
+            ToIntBiFunction<? super T, ? super T> exactEvaluator,
+            long[][] items) {
+        
+        assert idExtractor != null;
+        assert exactEvaluator != null;
+        assert items != null;
+        
+        this.idExtractor = idExtractor;
+        this.exactEvaluator = exactEvaluator;
+        this.sizes = Arrays.stream(items).mapToInt(is -> is.length).toArray();
+        this.signatures = new int[items.length * BINS];
+        
+        IntStream.range(0, items.length).parallel()
+                .forEach(id -> sketch(items[id], signatures, id * BINS));
+    }
+    
+    @Override
+    public int applyAsInt(T t1, T t2) {
+        int id1 = idExtractor.applyAsInt(t1);
+        int id2 = idExtractor.applyAsInt(t2);
+        assert 0 <= id1 && id1 < sizes.length;
+        assert 0 <= id2 && id2 < sizes.length;
+        
+        if (id1 == id2) {
+            return 0;
+        }
+        int total = sizes[id1] + sizes[id2];
+        if (total <= EXACT_THRESHOLD) {
+            return exactEvaluator.applyAsInt(t1, t2);
+        }
+        
+        int offset1 = id1 * BINS;
+        int offset2 = id2 * BINS;
+        int matches = 0;
+        int nonEmpties = 0;
+        for (int i = 0; i < BINS; i++) {
+            int v1 = signatures[offset1 + i];
+            int v2 = signatures[offset2 + i];
+            if (v1 != EMPTY || v2 != EMPTY) {
+                nonEmpties++;
+                if (v1 == v2) {
+                    matches++;
+                }
+            }
+        }
+        assert 0 < nonEmpties;
+        
+        double jaccard = (double) matches / nonEmpties;
+        int estimate = (int) Math.round(total * (1 - jaccard) / (1 + jaccard));
+        
+        // 対称差の大きさは、要素の大きさの差以上、合計以下となる。
+        // また、IDの異なる要素同士の対称差は空でなく、大きさが等しい場合は2以上となる。
+        int lowerBound = sizes[id1] == sizes[id2] ? 2 : Math.abs(sizes[id1] - sizes[id2]);
+        return Math.max(lowerBound, Math.min(total, estimate));
+    }
+}
@@ -1,17 +1,21 @@
 package xyz.hotchpotch.hogandiff.excel.common;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
 
 import xyz.hotchpotch.hogandiff.excel.CellData;
-import xyz.hotchpotch.hogandiff.excel.CellsUtil;
 import xyz.hotchpotch.hogandiff.excel.SComparator;
 import xyz.hotchpotch.hogandiff.excel.SResult;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
 import xyz.hotchpotch.hogandiff.util.Pair;
 
 /**
@@ -25,9 +29,80 @@ public abstract class SComparatorBase implements SComparator {
     
     private static final int[] EMPTY_INT_ARRAY = new int[] {};
     
+    /**
+     * 行（列）のインデックスから、その行（列）の対応の順番を引く表を返します。<br>
+     * 
+     * @param pairs 対応付けられた行同士（列同士）のペアのリスト
+     * @param sideA 値aの側の表を返す場合は {@code true}、値bの側の表を返す場合は {@code false}
+     * @return インデックスごとの対応の順番の表（対応付けられていない場合は -1）
+     */
+    private static int[] orders(IntPairList pairs, boolean sideA) {
+        assert pairs != null;
+        
+        int max = -1;
+        for (int n = 0; n < pairs.size(); n++) {
+            max = Math.max(max, sideA ? pairs.a(n) : pairs.b(n));
+        }
+        int[] orders = new int[max + 1];
+        Arrays.fill(orders, -1);
+        for (int n = 0; n < pairs.size(); n++) {
+            orders[sideA ? pairs.a(n) : pairs.b(n)] = n;
+        }
+        return orders;
+    }
+    
+    /**
+     * セルの位置の行・列の対応の順番を、行の対応の順、列の対応の順に並ぶ {@code long} 値として返します。<br>
+     * 対応付けられていない位置の場合は負の値を返します。<br>
+     */
+    private static long position(SheetCells cells, int i, int[] rowOrders, int[] columnOrders) {
+        int row = cells.rowAt(i);
+        int column = cells.columnAt(i);
+        int r = row < rowOrders.length ? rowOrders[row] : -1;
+        int c = column < columnOrders.length ? columnOrders[column] : -1;
+        return r < 0 || c < 0 ? -1L : ((long) r << 32) | c;
+    }
+    
+    /**
+     * 対応付けられた位置のセルだけを抽出し、行の対応の順、列の対応の順に並べて、
+     * セルセットにおける要素のインデックスの配列として返します。<br>
+     * 
+     * @param cells セルセット
+     * @param rowOrders 行インデックスごとの行の対応の順番
+     * @param columnOrders 列インデックスごとの列の対応の順番
+     * @return 抽出したセルの要素のインデックスの配列
+     */
+    private static int[] sortByPosition(
+            SheetCells cells,
+            int[] rowOrders,
+            int[] columnOrders) {
+        
+        assert cells != null;
+        assert rowOrders != null;
+        assert columnOrders != null;
+        
+        int[] sorted = IntStream.range(0, cells.size()).parallel()
+                .filter(i -> 0 <= position(cells, i, rowOrders, columnOrders))
+                .toArray();
+        
+        // セルセットの要素は行、列の順に並んでおり、行同士・列同士の対応関係も通常は
+        // インデックスの順に並ぶため、多くの場合は並べ替えを省ける。
+        for (int n = 1; n < sorted.length; n++) {
+            if (position(cells, sorted[n], rowOrders, columnOrders)
+                    < position(cells, sorted[n - 1], rowOrders, columnOrders)) {
+                
+                return Arrays.stream(sorted).boxed().parallel()
+                        .sorted(Comparator.comparingLong(i -> position(cells, i, rowOrders, columnOrders)))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+        return sorted;
+    }
+    
     /**
      * 行同士または列同士の対応関係を決定するマッパーを表します。<br>
-     * これは、{@link #makePairs(Set, Set)} を関数メソッドに持つ関数型インタフェースです。<br>
+     * これは、{@link #makePairs(SheetCells, SheetCells)} を関数メソッドに持つ関数型インタフェースです。<br>
      *
      * @author nmby
      */
@@ -47,8 +122,8 @@ public abstract class SComparatorBase implements SComparator {
          * @return 行同士または列同士の対応関係
          */
         List<IntPair> makePairs(
-                Set<CellData> cells1,
-                Set<CellData> cells2);
+                SheetCells cells1,
+                SheetCells cells2);
     }
     
     // [instance members] ******************************************************
@@ -93,6 +168,52 @@ public abstract class SComparatorBase implements SComparator {
      */
     abstract protected Mapper columnsMapper();
     
+    /**
+     * 行同士および列同士の対応関係を決定します。<br>
+     * この実装は、{@link #rowsMapper()} と {@link #columnsMapper()} により、
+     * 行同士と列同士の対応関係をそれぞれ独立に、並行して決定します。<br>
+     * 一方の対応関係を踏まえて他方の対応関係を決定する場合は、サブクラスでオーバーライドしてください。<br>
+     * 
+     * @param cells1 セルセット1
+     * @param cells2 セルセット2
+     * @return 行同士の対応関係と列同士の対応関係のペア
+     */
+    protected Pair<List<IntPair>> mapRowsAndColumns(
+            SheetCells cells1,
+            SheetCells cells2) {
+        
+        assert cells1 != null;
+        assert cells2 != null;
+        assert cells1 != cells2;
+        
+        // 行同士と列同士の対応付けは互いに独立しているため、
+        // 列同士の対応付けを別スレッドで行いながら、行同士の対応付けを行う。
+        Mapper columnsMapper = columnsMapper();
+        CompletableFuture<List<IntPair>> columnPairs = CompletableFuture.supplyAsync(
+                () -> columnsMapper.makePairs(cells1, cells2));
+        List<IntPair> rowPairs;
+        try {
+            rowPairs = rowsMapper().makePairs(cells1, cells2);
+        } catch (RuntimeException | Error e) {
+            // 行同士の対応付けに失敗した場合は、列同士の対応付けの結果は不要となる。
+            // まだ開始されていなければ、取り消すことで共通プールを無駄に占有しないようにする。
+            columnPairs.cancel(false);
+            throw e;
+        }
+        
+        try {
+            return Pair.of(rowPairs, columnPairs.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
     /**
      * {@inheritDoc}
      * 
@@ -122,24 +243,25 @@ public abstract class SComparatorBase implements SComparator {
             }
         }
         
-        List<IntPair> rowPairs = rowsMapper().makePairs(cells1, cells2);
-        List<IntPair> columnPairs = columnsMapper().makePairs(cells1, cells2);
+        // 以降の処理では、セルオブジェクトを生成することなく要素のインデックスでセルを参照する。
+        SheetCells sheetCells1 = SheetCells.copyOf(cells1);
+        SheetCells sheetCells2 = SheetCells.copyOf(cells2);
+        
+        Pair<List<IntPair>> pairs = mapRowsAndColumns(sheetCells1, sheetCells2);
+        IntPairList rowPairs = IntPairList.copyOf(pairs.a());
+        IntPairList columnPairs = IntPairList.copyOf(pairs.b());
         
         // 余剰行の収集
-        int[] redundantRows1 = rowPairs.stream()
-                .filter(IntPair::isOnlyA).mapToInt(IntPair::a).toArray();
-        int[] redundantRows2 = rowPairs.stream()
-                .filter(IntPair::isOnlyB).mapToInt(IntPair::b).toArray();
+        int[] redundantRows1 = rowPairs.onlyAValues();
+        int[] redundantRows2 = rowPairs.onlyBValues();
         
         // 余剰列の収集
-        int[] redundantColumns1 = columnPairs.stream()
-                .filter(IntPair::isOnlyA).mapToInt(IntPair::a).toArray();
-        int[] redundantColumns2 = columnPairs.stream()
-                .filter(IntPair::isOnlyB).mapToInt(IntPair::b).toArray();
+        int[] redundantColumns1 = columnPairs.onlyAValues();
+        int[] redundantColumns2 = columnPairs.onlyBValues();
         
         // 差分セルの収集
         List<Pair<CellData>> diffCells = extractDiffs(
-                cells1, cells2, rowPairs, columnPairs);
+                sheetCells1, sheetCells2, rowPairs.paired(), columnPairs.paired());
         
         return new SResult(
                 considerRowGaps,
@@ -149,11 +271,23 @@ public abstract class SComparatorBase implements SComparator {
                 diffCells);
     }
     
+    /**
+     * 対応付けられた行同士・列同士の交点のうち、少なくとも一方のシートにセルが存在する位置について、
+     * 内容の異なるセルのペアを抽出します。<br>
+     * 差分セルは、行の対応の順、列の対応の順に並べて返します。<br>
+     * セルオブジェクトは、差分セルについてのみ生成します。<br>
+     * 
+     * @param cells1 セルセット1
+     * @param cells2 セルセット2
+     * @param rowPairs 対応付けられた行同士のペアのリスト
+     * @param columnPairs 対応付けられた列同士のペアのリスト
+     * @return 差分セルのペアのリスト
+     */
     private List<Pair<CellData>> extractDiffs(
-            Set<CellData> cells1,
-            Set<CellData> cells2,
-            List<IntPair> rowPairs,
-            List<IntPair> columnPairs) {
+            SheetCells cells1,
+            SheetCells cells2,
+            IntPairList rowPairs,
+            IntPairList columnPairs) {
         
         assert cells1 != null;
         assert cells2 != null;
@@ -161,31 +295,52 @@ public abstract class SComparatorBase implements SComparator {
         assert rowPairs != null;
         assert columnPairs != null;
         
-        Map<String, CellData> map1 = cells1.stream()
-                .collect(Collectors.toMap(CellData::address, Function.identity()));
-        Map<String, CellData> map2 = cells2.stream()
-                .collect(Collectors.toMap(CellData::address, Function.identity()));
+        // 行・列のインデックスから、その行・列の対応の順番を引く表（対応付けられていない場合は -1）。
+        int[] rowOrders1 = orders(rowPairs, true);
+        int[] rowOrders2 = orders(rowPairs, false);
+        int[] columnOrders1 = orders(columnPairs, true);
+        int[] columnOrders2 = orders(columnPairs, false);
         
-        List<IntPair> columnPairsFiltered = columnPairs.stream().filter(IntPair::isPaired).toList();
+        // 両シートのセルを対応の順に並べ、突き合わせながら走査する。
+        // 処理量は行数×列数ではなく、実際に存在するセルの数に比例する。
+        int[] sorted1 = sortByPosition(cells1, rowOrders1, columnOrders1);
+        int[] sorted2 = sortByPosition(cells2, rowOrders2, columnOrders2);
+        long[] positions1 = Arrays.stream(sorted1)
+                .mapToLong(idx -> position(cells1, idx, rowOrders1, columnOrders1)).toArray();
+        long[] positions2 = Arrays.stream(sorted2)
+                .mapToLong(idx -> position(cells2, idx, rowOrders2, columnOrders2)).toArray();
         
-        return rowPairs.parallelStream().filter(IntPair::isPaired).flatMap(rp -> {
-            int row1 = rp.a();
-            int row2 = rp.b();
+        List<Pair<CellData>> diffs = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < sorted1.length || j < sorted2.length) {
+            long position1 = i < sorted1.length ? positions1[i] : Long.MAX_VALUE;
+            long position2 = j < sorted2.length ? positions2[j] : Long.MAX_VALUE;
             
-            return columnPairsFiltered.stream().map(cp -> {
-                int column1 = cp.a();
-                int column2 = cp.b();
-                String address1 = CellsUtil.idxToAddress(row1, column1);
-                String address2 = CellsUtil.idxToAddress(row2, column2);
-                CellData cell1 = map1.get(address1);
-                CellData cell2 = map2.get(address2);
+            if (position1 == position2) {
+                if (!cells1.dataEquals(sorted1[i], cells2, sorted2[j])) {
+                    diffs.add(Pair.of(cells1.get(sorted1[i]), cells2.get(sorted2[j])));
+                }
+                i++;
+                j++;
+                
+            } else if (position1 < position2) {
+                int r = (int) (position1 >>> 32);
+                int c = (int) position1;
+                diffs.add(Pair.of(
+                        cells1.get(sorted1[i]),
+                        CellData.empty(rowPairs.b(r), columnPairs.b(c), saveMemory)));
+                i++;
                 
-                return (cell1 == null ? cell2 == null : cell1.dataEquals(cell2))
-                        ? null
-                        : Pair.<CellData> of(
-                                cell1 != null ? cell1 : CellData.empty(row1, column1, saveMemory),
-                                cell2 != null ? cell2 : CellData.empty(row2, column2, saveMemory));
-            }).filter(Objects::nonNull);
-        }).toList();
+            } else {
+                int r = (int) (position2 >>> 32);
+                int c = (int) position2;
+                diffs.add(Pair.of(
+                        CellData.empty(rowPairs.a(r), columnPairs.a(c), saveMemory),
+                        cells2.get(sorted2[j])));
+                j++;
+            }
+        }
+        return List.copyOf(diffs);
     }
 }
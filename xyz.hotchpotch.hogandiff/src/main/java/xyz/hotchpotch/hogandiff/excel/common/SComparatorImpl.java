@@ -1,28 +1,137 @@
 package xyz.hotchpotch.hogandiff.excel.common;
 
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.ToIntFunction;
-import java.util.stream.Collectors;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import xyz.hotchpotch.hogandiff.core.Matcher;
-import xyz.hotchpotch.hogandiff.excel.CellData;
 import xyz.hotchpotch.hogandiff.excel.SComparator;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.IntPairList;
+import xyz.hotchpotch.hogandiff.util.Pair;
 
 /**
  * {@link SComparator} の標準的な実装です。<br>
- *
+ * 
  * @author nmby
  */
+// 実装メモ：
+// セルはセルオブジェクトとしてではなく、セルセット（SheetCells）における要素のインデックスで扱い、
+// 座標やデータ内容はセルセットから直接参照する。
 public class SComparatorImpl extends SComparatorBase {
     
     // [static members] ********************************************************
     
+    /** 列同士・行同士の対応付けを交互に行い直す回数の上限 */
+    private static final int MAX_ALIGNMENT_PASSES = 2;
+    
+    /** 列同士を大まかに対応付ける際に用いる、シートの先頭から数えた空でない行の数 */
+    private static final int HEADER_ROWS = 10;
+    
+    /**
+     * セルセットの要素のインデックスから、そのセルの座標を抽出する関数です。<br>
+     * 横方向の座標を抽出する関数として用いる場合は、負の値を返すセルは比較の対象から除かれます。<br>
+     * 
+     * @author nmby
+     */
+    @FunctionalInterface
+    private static interface Axis {
+        
+        // [static members] ----------------------------------------------------
+        
+        /** 行インデックスを抽出する関数 */
+        Axis ROW = SheetCells::rowAt;
+        
+        /** 列インデックスを抽出する関数 */
+        Axis COLUMN = SheetCells::columnAt;
+        
+        /** 横方向の座標を比較に用いない場合の、常にゼロを返す関数 */
+        Axis NONE = (cells, i) -> 0;
+        
+        // [instance members] --------------------------------------------------
+        
+        /**
+         * セルの座標を返します。<br>
+         * 
+         * @param cells セルセット
+         * @param i 要素のインデックス
+         * @return セルの座標
+         */
+        int applyAsInt(SheetCells cells, int i);
+    }
+    
+    /**
+     * 2つの行（列）に含まれるセル同士の、横方向の並び順を決める比較関数です。<br>
+     * 
+     * @author nmby
+     */
+    @FunctionalInterface
+    private static interface Order {
+        
+        // [static members] ----------------------------------------------------
+        
+        /** 横方向の座標で比較する関数 */
+        Order BY_KEY = (line1, n1, line2, n2) -> Integer.compare(line1.keyAt(n1), line2.keyAt(n2));
+        
+        /** データ内容で比較する関数（横方向の座標を比較に用いない場合） */
+        Order BY_DATA = (line1, n1, line2, n2) -> line1.sheet().dataCompare(
+                line1.elements()[n1], line2.sheet(), line2.elements()[n2]);
+        
+        // [instance members] --------------------------------------------------
+        
+        /**
+         * 行（列）1の n1 番目のセルと、行（列）2の n2 番目のセルを比較します。<br>
+         * 
+         * @param line1 行（列）1
+         * @param n1 行（列）1におけるセルの位置
+         * @param line2 行（列）2
+         * @param n2 行（列）2におけるセルの位置
+         * @return 比較結果
+         */
+        int compare(Line line1, int n1, Line line2, int n2);
+    }
+    
+    /**
+     * 行（列）に含まれるセルと、内容の等しい行（列）同士で等しくなるIDおよびフィンガープリントの組です。<br>
+     * 行（列）に含まれるセルは、横方向の並び順に並べたセルセットの要素のインデックスで保持します。<br>
+     * 
+     * @param id 行（列）のID
+     * @param fingerprint 行（列）の内容の64ビットのフィンガープリント
+     * @param sheet 行（列）を含むセルセット
+     * @param horizontality 横方向の座標を抽出する関数
+     * @param elements 行（列）に含まれるセルの要素のインデックスの配列
+     * @author nmby
+     */
+    private static record Line(
+            int id,
+            long fingerprint,
+            SheetCells sheet,
+            Axis horizontality,
+            int[] elements) {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private int size() {
+            return elements.length;
+        }
+        
+        private int keyAt(int n) {
+            return horizontality.applyAsInt(sheet, elements[n]);
+        }
+        
+        private boolean dataEquals(int n, Line other, int m) {
+            return sheet.dataEquals(elements[n], other.sheet, other.elements[m]);
+        }
+    }
+    
     /**
      *  縦方向の余剰／欠損を考慮しない場合のマッパーを返します。<br>
      * 
@@ -30,7 +139,7 @@ public class SComparatorImpl extends SComparatorBase {
      * @return 縦方向の要素同士を対応付けるマッパー
      */
     private static Mapper mapper(
-            ToIntFunction<CellData> verticality) {
+            Axis verticality) {
         
         assert verticality != null;
         
@@ -49,145 +158,476 @@ public class SComparatorImpl extends SComparatorBase {
     /**
      * 縦方向の余剰／欠損を考慮する場合のマッパーを返します。<br>
      * 
-     * @param <U> 横方向のソートキーの型
      * @param verticality 縦方向の座標を抽出する関数
-     * @param comparator 横方向のソートキーをソートするための比較関数
+     * @param horizontality 横方向の座標を抽出する関数（横方向の座標を比較に用いない場合は {@link Axis#NONE}）
+     * @param order 横方向の並び順を決める比較関数
+     * @param linearSpaceThreshold 作業領域が線形オーダーのマッチャーを用いるエディットグラフの広さの閾値
+     * @param approximateDiffCosts 縦方向の要素同士の差分コストを MinHash シグネチャで推定する場合は {@code true}
      * @return 縦方向の要素同士を対応付けるマッパー
      */
-    private static <U> Mapper mapper(
-            ToIntFunction<CellData> verticality,
-            Comparator<CellData> comparator) {
+    private static Mapper mapper(
+            Axis verticality,
+            Axis horizontality,
+            Order order,
+            long linearSpaceThreshold,
+            boolean approximateDiffCosts) {
         
         assert verticality != null;
-        assert comparator != null;
+        assert horizontality != null;
+        assert order != null;
         
         return (cells1, cells2) -> {
             assert cells1 != null;
             assert cells2 != null;
             assert cells1 != cells2;
             
-            int start = range(cells1, cells2, verticality).a();
-            List<List<CellData>> cellsList1 = convert(
-                    cells1, start, verticality, comparator);
-            List<List<CellData>> cellsList2 = convert(
-                    cells2, start, verticality, comparator);
-            
-            Matcher<List<CellData>> matcher = Matcher.minimumEditDistanceMatcherOf(
-                    List::size,
-                    (list1, list2) -> evaluateDiff(list1, list2, comparator));
-            
-            return matcher.makePairs(cellsList1, cellsList2).stream()
-                    .map(p -> p.map(i -> i + start))
-                    .toList();
+            return makePairs(
+                    cells1,
+                    cells2,
+                    range(cells1, cells2, verticality).a(),
+                    range(cells1, verticality).b(),
+                    range(cells2, verticality).b(),
+                    verticality,
+                    horizontality,
+                    horizontality,
+                    order,
+                    linearSpaceThreshold,
+                    approximateDiffCosts);
         };
     }
     
-    private static <U> int evaluateDiff(
-            List<CellData> list1,
-            List<CellData> list2,
-            Comparator<CellData> comparator) {
+    /**
+     * 縦方向の余剰／欠損を考慮して、縦方向の要素同士を対応付けます。<br>
+     * 
+     * @param cells1 セルセット1
+     * @param cells2 セルセット2
+     * @param start 対応付けの対象とする縦方向の最小インデックス値
+     * @param end1 セルセット1の対応付けの対象とする縦方向の最大インデックス値
+     * @param end2 セルセット2の対応付けの対象とする縦方向の最大インデックス値
+     * @param verticality 縦方向の座標を抽出する関数
+     * @param horizontality1 セルセット1の横方向の座標を抽出する関数
+     * @param horizontality2 セルセット2の横方向の座標を抽出する関数
+     * @param order 横方向の並び順を決める比較関数
+     * @param linearSpaceThreshold 作業領域が線形オーダーのマッチャーを用いるエディットグラフの広さの閾値
+     * @param approximateDiffCosts 縦方向の要素同士の差分コストを MinHash シグネチャで推定する場合は {@code true}
+     * @return 縦方向の要素同士の対応関係
+     */
+    private static IntPairList makePairs(
+            SheetCells cells1,
+            SheetCells cells2,
+            int start,
+            int end1,
+            int end2,
+            Axis verticality,
+            Axis horizontality1,
+            Axis horizontality2,
+            Order order,
+            long linearSpaceThreshold,
+            boolean approximateDiffCosts) {
+        
+        assert cells1 != null;
+        assert cells2 != null;
+        assert cells1 != cells2;
+        assert verticality != null;
+        assert horizontality1 != null;
+        assert horizontality2 != null;
+        assert order != null;
+        
+        List<int[]> elementsList1 = convert(
+                cells1, start, end1, verticality, horizontality1);
+        List<int[]> elementsList2 = convert(
+                cells2, start, end2, verticality, horizontality2);
+        
+        // 各行（列）の内容のフィンガープリントを基に、内容の等しい行（列）に等しいIDを割り当て、
+        // 以降の等価判定を整数の比較で済ませるとともに、IDの等しい行（列）同士の差分コストの評価を省略する。
+        // IDの異なる行（列）同士の差分コストも、同じ組み合わせが繰り返し現れることが多いため記憶しておく。
+        List<Line> lines1 = new ArrayList<>(elementsList1.size());
+        List<Line> lines2 = new ArrayList<>(elementsList2.size());
+        int numIds = assignIds(
+                cells1, elementsList1, horizontality1, lines1,
+                cells2, elementsList2, horizontality2, lines2,
+                order);
+        int maxCost = 2 * Stream.concat(elementsList1.stream(), elementsList2.stream())
+                .mapToInt(elements -> elements.length).max().orElse(0);
+        
+        // 推定する場合は、各行（列）のシグネチャを一度だけ作成し、以降は列（行）の数に依らない時間で評価する。
+        // 正確な差分は、対応付けの決まった行（列）同士についてのみ後続の処理で抽出される。
+        ToIntBiFunction<Line, Line> exactEvaluator = (line1, line2) -> evaluateDiff(line1, line2, order);
+        ToIntBiFunction<Line, Line> diffEvaluator = new DiffCostCache<>(
+                Line::id,
+                approximateDiffCosts
+                        ? new MinHashDiffEstimator<>(
+                                Line::id,
+                                exactEvaluator,
+                                items(lines1, lines2, numIds))
+                        : exactEvaluator,
+                numIds,
+                maxCost);
+        Matcher<Line> bandedMatcher = Matcher.bandedMatcherOf(
+                Line::size,
+                diffEvaluator);
+        Matcher<Line> hirschbergMatcher = Matcher.hirschbergMatcherOf(
+                Line::size,
+                diffEvaluator);
+        
+        // まずシート内で一意な内容の行（列）同士を目印として対応付け、
+        // 目印の間の区間ごとに並列に、内容の等しい行（列）同士を対応付ける。
+        // ただし、空の行（列）や区間内に繰り返し現れる行（列）同士は、最小コストの対応付けを歪めるため目印としない。
+        // さらにその間に挟まれた区間についてのみ、編集距離が最小となる対応付けを行う。
+        // 余剰行（列）は少ないことが多いため、エディットグラフの対角線の近傍から探索する。
+        // エディットグラフが広い場合は、処理時間よりもメモリ使用量の抑制を優先する。
+        // 先頭と末尾の内容の等しい行（列）同士は、以降のマッチャーに渡さずにそのまま対応付ける。
+        Matcher<Line> matcher = Matcher.affixTrimmingMatcherOf(
+                diffEvaluator,
+                Matcher.patienceMatcherOf(
+                        Line::id,
+                        diffEvaluator,
+                        Matcher.myersMatcherOf(
+                                Line::size,
+                                Line::id,
+                                diffEvaluator,
+                                (list1, list2) -> (long) list1.size() * list2.size() <= linearSpaceThreshold
+                                        ? bandedMatcher.makePairs(list1, list2)
+                                        : hirschbergMatcher.makePairs(list1, list2))));
+        
+        return IntPairList.builder(lines1.size() + lines2.size())
+                .addAll(matcher.makePairs(lines1, lines2), start, start)
+                .build();
+    }
+    
+    /**
+     * 2つの行（列）の内容が等しいか、すなわち
+     * {@link #evaluateDiff(Line, Line, Order)} がゼロとなるかを返します。<br>
+     * 差分コストを数え上げることなく、最初の差異で判定を終えます。<br>
+     * 
+     * @param line1 行（列）1
+     * @param line2 行（列）2
+     * @param order 横方向の並び順を決める比較関数
+     * @return 内容が等しい場合は {@code true}
+     */
+    private static boolean dataEquals(
+            Line line1,
+            Line line2,
+            Order order) {
+        
+        assert line1 != null;
+        assert line2 != null;
+        assert order != null;
+        
+        if (line1.size() != line2.size()) {
+            return false;
+        }
+        for (int n = 0; n < line1.size(); n++) {
+            if (order.compare(line1, n, line2, n) != 0 || !line1.dataEquals(n, line2, n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 行（列）の内容の64ビットのフィンガープリントを返します。<br>
+     * 各セルの横方向の座標、セル内容のハッシュ値、セルコメントのハッシュ値を順に畳み込んだ値です。<br>
+     * {@link #evaluateDiff(Line, Line, Order)} がゼロとなる行（列）同士は、同じフィンガープリントを返します。<br>
+     * 
+     * @param cells セルセット
+     * @param elements 行（列）に含まれるセルの要素のインデックスの配列
+     * @param horizontality 横方向の座標を抽出する関数
+     * @return フィンガープリント
+     */
+    private static long fingerprint(
+            SheetCells cells,
+            int[] elements,
+            Axis horizontality) {
+        
+        assert cells != null;
+        assert elements != null;
+        assert horizontality != null;
+        
+        long hash = elements.length;
+        for (int i : elements) {
+            hash = hash * 0x100_0000_01B3L + horizontality.applyAsInt(cells, i) * 0x9E37_79B9_7F4A_7C15L;
+            hash = hash * 0x100_0000_01B3L + cells.dataHashCode64At(i);
+        }
+        
+        // 下位ビットに偏りが残らないよう、最後に全ビットを撹拌する。
+        hash ^= hash >>> 33;
+        hash *= 0xFF51_AFD7_ED55_8CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CE_B9FE_1A85_EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    /**
+     * 2つのシートの行（列）に、内容の等しいもの同士で等しくなるIDを割り当てます。<br>
+     * 
+     * @param cells1 セルセット1
+     * @param elementsList1 シート1の行（列）ごとのセルの要素のインデックスの配列のリスト
+     * @param horizontality1 セルセット1の横方向の座標を抽出する関数
+     * @param lines1 シート1の行（列）を格納するリスト
+     * @param cells2 セルセット2
+     * @param elementsList2 シート2の行（列）ごとのセルの要素のインデックスの配列のリスト
+     * @param horizontality2 セルセット2の横方向の座標を抽出する関数
+     * @param lines2 シート2の行（列）を格納するリスト
+     * @param order 横方向の並び順を決める比較関数
+     * @return 割り当てたIDの数
+     */
+    private static int assignIds(
+            SheetCells cells1,
+            List<int[]> elementsList1,
+            Axis horizontality1,
+            List<Line> lines1,
+            SheetCells cells2,
+            List<int[]> elementsList2,
+            Axis horizontality2,
+            List<Line> lines2,
+            Order order) {
+        
+        assert cells1 != null;
+        assert elementsList1 != null;
+        assert horizontality1 != null;
+        assert lines1 != null && lines1.isEmpty();
+        assert cells2 != null;
+        assert elementsList2 != null;
+        assert horizontality2 != null;
+        assert lines2 != null && lines2.isEmpty();
+        assert order != null;
+        
+        long[] fingerprints1 = elementsList1.parallelStream()
+                .mapToLong(elements -> fingerprint(cells1, elements, horizontality1)).toArray();
+        long[] fingerprints2 = elementsList2.parallelStream()
+                .mapToLong(elements -> fingerprint(cells2, elements, horizontality2)).toArray();
+        
+        // フィンガープリントごとに、そのフィンガープリントを持つ各IDの最初の行（列）を保持する。
+        // フィンガープリントが衝突する可能性に備えて、内容が等しいことを確かめたうえで同じIDを割り当てる。
+        Map<Long, List<Line>> representatives = new HashMap<>();
+        int numIds = 0;
+        for (int side = 0; side < 2; side++) {
+            SheetCells cells = side == 0 ? cells1 : cells2;
+            List<int[]> elementsList = side == 0 ? elementsList1 : elementsList2;
+            Axis horizontality = side == 0 ? horizontality1 : horizontality2;
+            long[] fingerprints = side == 0 ? fingerprints1 : fingerprints2;
+            List<Line> lines = side == 0 ? lines1 : lines2;
+            
+            for (int i = 0; i < elementsList.size(); i++) {
+                int[] elements = elementsList.get(i);
+                Line unassigned = new Line(-1, fingerprints[i], cells, horizontality, elements);
+                List<Line> candidates = representatives.computeIfAbsent(fingerprints[i], k -> new ArrayList<>(1));
+                Line line = null;
+                for (Line candidate : candidates) {
+                    if (dataEquals(candidate, unassigned, order)) {
+                        line = new Line(candidate.id(), fingerprints[i], cells, horizontality, elements);
+                        break;
+                    }
+                }
+                if (line == null) {
+                    line = new Line(numIds++, fingerprints[i], cells, horizontality, elements);
+                    candidates.add(line);
+                }
+                lines.add(line);
+            }
+        }
+        return numIds;
+    }
+    
+    /**
+     * IDごとに、その行（列）を構成する項目のハッシュ値の集合を返します。<br>
+     * 項目は横方向の座標とデータ内容の組であり、{@link #evaluateDiff(Line, Line, Order)} は
+     * 一方の行（列）にだけ含まれる項目の数に等しくなります。<br>
+     * 
+     * @param lines1 シート1の行（列）のリスト
+     * @param lines2 シート2の行（列）のリスト
+     * @param numIds IDの数
+     * @return IDごとの項目のハッシュ値の集合
+     */
+    private static long[][] items(
+            List<Line> lines1,
+            List<Line> lines2,
+            int numIds) {
+        
+        assert lines1 != null;
+        assert lines2 != null;
+        assert 0 <= numIds;
+        
+        Line[] representatives = new Line[numIds];
+        Stream.concat(lines1.stream(), lines2.stream())
+                .filter(line -> representatives[line.id()] == null)
+                .forEach(line -> representatives[line.id()] = line);
+        
+        return Arrays.stream(representatives).parallel()
+                .map(line -> {
+                    long[] items = new long[line.size()];
+                    long prev = 0;
+                    int occurrence = 0;
+                    for (int n = 0; n < items.length; n++) {
+                        long item = line.keyAt(n) * 0x9E37_79B9_7F4A_7C15L
+                                + line.sheet().dataHashCode64At(line.elements()[n]);
+                        
+                        // 横方向の座標を用いない場合は内容の等しいセルが隣り合い得るため、出現順で区別する。
+                        occurrence = 0 < n && item == prev ? occurrence + 1 : 0;
+                        prev = item;
+                        items[n] = item + occurrence * 0xC2B2_AE3D_27D4_EB4FL;
+                    }
+                    return items;
+                })
+                .toArray(long[][]::new);
+    }
+    
+    private static int evaluateDiff(
+            Line line1,
+            Line line2,
+            Order order) {
         
-        assert list1 != null;
-        assert list2 != null;
-        assert list1 != list2;
-        assert comparator != null;
+        assert line1 != null;
+        assert line2 != null;
+        assert line1 != line2;
+        assert order != null;
         
-        Iterator<CellData> itr1 = list1.iterator();
-        Iterator<CellData> itr2 = list2.iterator();
+        int next1 = 0;
+        int next2 = 0;
         
         int diff = 0;
         int comp = 0;
-        CellData cell1 = null;
-        CellData cell2 = null;
+        int n1 = -1;
+        int n2 = -1;
         
-        while (itr1.hasNext() && itr2.hasNext()) {
+        while (next1 < line1.size() && next2 < line2.size()) {
             if (comp <= 0) {
-                cell1 = itr1.next();
+                n1 = next1++;
             }
             if (0 <= comp) {
-                cell2 = itr2.next();
+                n2 = next2++;
             }
-            comp = comparator.compare(cell1, cell2);
-            if (comp == 0 && !cell1.dataEquals(cell2)) {
+            comp = order.compare(line1, n1, line2, n2);
+            if (comp == 0 && !line1.dataEquals(n1, line2, n2)) {
                 diff += 2;
             } else if (comp != 0) {
                 diff++;
             }
         }
-        while (itr1.hasNext()) {
-            diff++;
-            itr1.next();
-        }
-        while (itr2.hasNext()) {
-            diff++;
-            itr2.next();
-        }
+        diff += line1.size() - next1;
+        diff += line2.size() - next2;
         
         return diff;
     }
     
     /**
-     * セルのセットを、セルのリストのリストに変換します。<br>
-     * 一次元目のリストは verticality でソートしたものであり、
-     * 二次元目のリストは同一 verticality 値のものを
-     * extractor と comparator でソートしたものです。<br>
+     * セルセットを、縦方向の座標ごとのセルの要素のインデックスの配列のリストに変換します。<br>
+     * 一次元目のリストは縦方向の座標の順に並べたものであり、
+     * 二次元目の配列は同一の縦方向の座標を持つセルを横方向の座標の順、データ内容の順に並べたものです。<br>
+     * 横方向の座標が負の値となるセルは含みません。<br>
      * 
-     * @param <U> 横方向のソートキーの型
      * @param cells セルセット
      * @param start セルセットのリスト化を始める最小インデックス値
-     * @param verticality 縦方向の値（行または列）の抽出関数
-     * @param comparator 横方向のソートキーの比較関数
-     * @return セルのリストのリスト
+     * @param end セルセットのリスト化を終える最大インデックス値
+     * @param verticality 縦方向の座標を抽出する関数
+     * @param horizontality 横方向の座標を抽出する関数
+     * @return セルの要素のインデックスの配列のリスト
      */
-    private static <U> List<List<CellData>> convert(
-            Set<CellData> cells,
+    private static List<int[]> convert(
+            SheetCells cells,
             int start,
-            ToIntFunction<CellData> verticality,
-            Comparator<CellData> comparator) {
+            int end,
+            Axis verticality,
+            Axis horizontality) {
         
         assert cells != null;
         assert 0 <= start;
+        assert start <= end;
         assert verticality != null;
-        assert comparator != null;
+        assert horizontality != null;
         
-        Map<Integer, List<CellData>> map = cells.stream()
-                .collect(Collectors.groupingBy(verticality::applyAsInt));
+        // 要素のインデックスを縦方向の座標ごとに振り分ける。
+        int[] offsets = new int[end - start + 2];
+        for (int i = 0; i < cells.size(); i++) {
+            if (0 <= horizontality.applyAsInt(cells, i)) {
+                offsets[verticality.applyAsInt(cells, i) - start + 1]++;
+            }
+        }
+        for (int v = 1; v < offsets.length; v++) {
+            offsets[v] += offsets[v - 1];
+        }
+        int[] grouped = new int[offsets[offsets.length - 1]];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < cells.size(); i++) {
+            if (0 <= horizontality.applyAsInt(cells, i)) {
+                grouped[next[verticality.applyAsInt(cells, i) - start]++] = i;
+            }
+        }
         
-        int end = range(cells, verticality).b();
         return IntStream.rangeClosed(start, end).parallel()
-                .mapToObj(i -> {
-                    if (map.containsKey(i)) {
-                        List<CellData> list = map.get(i);
-                        list.sort(comparator);
-                        return list;
-                    } else {
-                        return List.<CellData> of();
-                    }
-                })
+                .mapToObj(v -> sort(
+                        cells,
+                        Arrays.copyOfRange(grouped, offsets[v - start], offsets[v - start + 1]),
+                        horizontality))
                 .toList();
     }
     
+    /**
+     * 要素のインデックスの配列を、横方向の座標の順、データ内容の順に並べ替えます。<br>
+     * 
+     * @param cells セルセット
+     * @param elements 要素のインデックスの配列
+     * @param horizontality 横方向の座標を抽出する関数
+     * @return 並べ替えた配列
+     */
+    private static int[] sort(
+            SheetCells cells,
+            int[] elements,
+            Axis horizontality) {
+        
+        assert cells != null;
+        assert elements != null;
+        assert horizontality != null;
+        
+        // セルセットの要素は行、列の順に並んでいるため、行ごとに列の順に並べる場合は並べ替えを省ける。
+        for (int n = 1; n < elements.length; n++) {
+            if (0 < compare(cells, elements[n - 1], elements[n], horizontality)) {
+                return Arrays.stream(elements).boxed()
+                        .sorted((i, j) -> compare(cells, i, j, horizontality))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+        return elements;
+    }
+    
+    private static int compare(
+            SheetCells cells,
+            int i,
+            int j,
+            Axis horizontality) {
+        
+        int comp = Integer.compare(horizontality.applyAsInt(cells, i), horizontality.applyAsInt(cells, j));
+        return comp != 0 ? comp : cells.dataCompare(i, cells, j);
+    }
+    
     private static IntPair range(
-            Set<CellData> cells,
-            ToIntFunction<CellData> axis) {
+            SheetCells cells,
+            Axis axis) {
         
         assert cells != null;
         assert axis != null;
         
-        int min = cells.stream()
-                .mapToInt(axis)
-                .min().orElse(0);
-        int max = cells.stream()
-                .mapToInt(axis)
-                .max().orElse(0);
+        if (cells.isEmpty()) {
+            return IntPair.of(0, 0);
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < cells.size(); i++) {
+            int value = axis.applyAsInt(cells, i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
         
         return IntPair.of(min, max);
     }
     
     private static IntPair range(
-            Set<CellData> cells1,
-            Set<CellData> cells2,
-            ToIntFunction<CellData> axis) {
+            SheetCells cells1,
+            SheetCells cells2,
+            Axis axis) {
         
         assert cells1 != null;
         assert cells2 != null;
@@ -208,52 +648,235 @@ public class SComparatorImpl extends SComparatorBase {
      * @param considerRowGaps 比較において行の余剰／欠損を考慮する場合は {@code true}
      * @param considerColumnGaps 比較において列の余剰／欠損を考慮する場合は {@code true}
      * @param saveMemory 省メモリモードの場合は {@code true}
+     * @param linearSpaceThreshold
+     *              行同士・列同士の対応付けに作業領域が線形オーダーのマッチャーを用いる
+     *              エディットグラフの広さ（縦×横）の閾値
+     * @param approximateDiffCosts
+     *              行同士・列同士の差分コストを MinHash シグネチャで推定する場合は {@code true}
+     * @param alignColumnsFirst
+     *              行と列の余剰／欠損をともに考慮する場合に、列同士を先に対応付け、
+     *              対応付けられた列だけを用いて行同士を対応付ける場合は {@code true}
      * @return 新しいコンパレータ
+     * @throws IllegalArgumentException {@code linearSpaceThreshold} が 0 未満の場合
      */
     public static SComparator of(
             boolean considerRowGaps,
             boolean considerColumnGaps,
-            boolean saveMemory) {
+            boolean saveMemory,
+            long linearSpaceThreshold,
+            boolean approximateDiffCosts,
+            boolean alignColumnsFirst) {
+        
+        if (linearSpaceThreshold < 0) {
+            throw new IllegalArgumentException("linearSpaceThreshold: " + linearSpaceThreshold);
+        }
         
         return new SComparatorImpl(
                 considerRowGaps,
                 considerColumnGaps,
-                saveMemory);
+                saveMemory,
+                linearSpaceThreshold,
+                approximateDiffCosts,
+                alignColumnsFirst);
     }
     
     // [instance members] ******************************************************
     
+    private final long linearSpaceThreshold;
+    private final boolean approximateDiffCosts;
+    private final boolean alignColumnsFirst;
+    
     private SComparatorImpl(
             boolean considerRowGaps,
             boolean considerColumnGaps,
-            boolean saveMemory) {
+            boolean saveMemory,
+            long linearSpaceThreshold,
+            boolean approximateDiffCosts,
+            boolean alignColumnsFirst) {
         
         super(considerRowGaps, considerColumnGaps, saveMemory);
+        
+        this.linearSpaceThreshold = linearSpaceThreshold;
+        this.approximateDiffCosts = approximateDiffCosts;
+        this.alignColumnsFirst = alignColumnsFirst;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * 行と列の余剰／欠損をともに考慮し、かつ列同士を先に対応付ける設定の場合は、
+     * まず列同士をシートの先頭の数行（見出し行）のセルだけで大まかに対応付け、
+     * 対応付けられた列のセルだけを用いて行同士を対応付けます。
+     * 続いて対応付けられた行のセルだけを用いて列同士を対応付け直し、
+     * 対応関係が変わらなくなるまで（ただし一定回数まで）これを繰り返します。<br>
+     */
+    @Override
+    protected Pair<List<IntPair>> mapRowsAndColumns(
+            SheetCells cells1,
+            SheetCells cells2) {
+        
+        assert cells1 != null;
+        assert cells2 != null;
+        assert cells1 != cells2;
+        
+        if (!alignColumnsFirst || !considerRowGaps || !considerColumnGaps) {
+            return super.mapRowsAndColumns(cells1, cells2);
+        }
+        
+        // 見出し行は列ごとに異なる内容を持つことが多いため、見出し行だけで列同士を対応付けても
+        // 多くの場合は全ての行を用いた場合と同じ対応関係が得られる。
+        // そうでない場合も、以降の対応付け直しにより補正される。
+        int lastHeaderRow1 = lastHeaderRow(cells1);
+        int lastHeaderRow2 = lastHeaderRow(cells2);
+        IntPairList columnPairs = makePairs(
+                cells1,
+                cells2,
+                range(cells1, cells2, Axis.COLUMN).a(),
+                range(cells1, Axis.COLUMN).b(),
+                range(cells2, Axis.COLUMN).b(),
+                Axis.COLUMN,
+                (cells, i) -> cells.rowAt(i) <= lastHeaderRow1 ? 0 : -1,
+                (cells, i) -> cells.rowAt(i) <= lastHeaderRow2 ? 0 : -1,
+                Order.BY_DATA,
+                linearSpaceThreshold,
+                approximateDiffCosts);
+        IntPairList rowPairs = alignOver(cells1, cells2, Axis.ROW, Axis.COLUMN, columnPairs);
+        
+        for (int pass = 1; pass < MAX_ALIGNMENT_PASSES; pass++) {
+            IntPairList nextColumnPairs = alignOver(cells1, cells2, Axis.COLUMN, Axis.ROW, rowPairs);
+            if (nextColumnPairs.equals(columnPairs)) {
+                break;
+            }
+            columnPairs = nextColumnPairs;
+            rowPairs = alignOver(cells1, cells2, Axis.ROW, Axis.COLUMN, columnPairs);
+        }
+        return Pair.of(rowPairs, columnPairs);
+    }
+    
+    /**
+     * シートの先頭から {@link #HEADER_ROWS} 個目の空でない行の行インデックスを返します。<br>
+     * 空でない行がそれより少ない場合は、最後の空でない行の行インデックスを返します。<br>
+     * 
+     * @param cells セルセット
+     * @return 見出し行とみなす最後の行の行インデックス（セルセットが空の場合は -1）
+     */
+    private static int lastHeaderRow(
+            SheetCells cells) {
+        
+        assert cells != null;
+        
+        // セルセットの要素は行の順に並んでいるため、先頭から走査すれば足りる。
+        int lastRow = -1;
+        int rows = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            if (cells.rowAt(i) != lastRow) {
+                if (rows == HEADER_ROWS) {
+                    break;
+                }
+                lastRow = cells.rowAt(i);
+                rows++;
+            }
+        }
+        return lastRow;
+    }
+    
+    /**
+     * 横方向の要素同士の対応関係を踏まえて、縦方向の要素同士を対応付けます。<br>
+     * 対応付けられた横方向の要素に含まれるセルだけを、その対応の順番を横方向の座標とみなして比較します。<br>
+     * 
+     * @param cells1 セルセット1
+     * @param cells2 セルセット2
+     * @param verticality 縦方向の座標を抽出する関数
+     * @param horizontality 横方向の座標を抽出する関数
+     * @param horizontalPairs 横方向の要素同士の対応関係
+     * @return 縦方向の要素同士の対応関係
+     */
+    private IntPairList alignOver(
+            SheetCells cells1,
+            SheetCells cells2,
+            Axis verticality,
+            Axis horizontality,
+            IntPairList horizontalPairs) {
+        
+        assert cells1 != null;
+        assert cells2 != null;
+        assert cells1 != cells2;
+        assert verticality != null;
+        assert horizontality != null;
+        assert horizontalPairs != null;
+        
+        IntPairList paired = horizontalPairs.paired();
+        int[] orders1 = new int[range(cells1, horizontality).b() + 1];
+        int[] orders2 = new int[range(cells2, horizontality).b() + 1];
+        Arrays.fill(orders1, -1);
+        Arrays.fill(orders2, -1);
+        for (int n = 0; n < paired.size(); n++) {
+            if (paired.a(n) < orders1.length) {
+                orders1[paired.a(n)] = n;
+            }
+            if (paired.b(n) < orders2.length) {
+                orders2[paired.b(n)] = n;
+            }
+        }
+        
+        // 対応付けられていない横方向の要素に含まれるセルは、対応の順番が -1 となり比較の対象から除かれる。
+        return makePairs(
+                cells1,
+                cells2,
+                range(cells1, cells2, verticality).a(),
+                range(cells1, verticality).b(),
+                range(cells2, verticality).b(),
+                verticality,
+                (cells, i) -> orders1[horizontality.applyAsInt(cells, i)],
+                (cells, i) -> orders2[horizontality.applyAsInt(cells, i)],
+                Order.BY_KEY,
+                linearSpaceThreshold,
+                approximateDiffCosts);
     }
     
     @Override
     protected Mapper rowsMapper() {
         if (considerRowGaps && considerColumnGaps) {
-            return mapper(CellData::row, CellData::dataCompareTo);
+            return mapper(
+                    Axis.ROW,
+                    Axis.NONE,
+                    Order.BY_DATA,
+                    linearSpaceThreshold,
+                    approximateDiffCosts);
         } else if (considerRowGaps) {
-            return mapper(CellData::row, Comparator.comparingInt(CellData::column));
+            return mapper(
+                    Axis.ROW,
+                    Axis.COLUMN,
+                    Order.BY_KEY,
+                    linearSpaceThreshold,
+                    approximateDiffCosts);
         } else if (considerColumnGaps) {
-            return mapper(CellData::row);
+            return mapper(Axis.ROW);
         } else {
-            return mapper(CellData::row);
+            return mapper(Axis.ROW);
         }
     }
     
     @Override
     protected Mapper columnsMapper() {
         if (considerRowGaps && considerColumnGaps) {
-            return mapper(CellData::column, CellData::dataCompareTo);
+            return mapper(
+                    Axis.COLUMN,
+                    Axis.NONE,
+                    Order.BY_DATA,
+                    linearSpaceThreshold,
+                    approximateDiffCosts);
         } else if (considerRowGaps) {
-            return mapper(CellData::column);
+            return mapper(Axis.COLUMN);
         } else if (considerColumnGaps) {
-            return mapper(CellData::column, Comparator.comparingInt(CellData::row));
+            return mapper(
+                    Axis.COLUMN,
+                    Axis.ROW,
+                    Order.BY_KEY,
+                    linearSpaceThreshold,
+                    approximateDiffCosts);
         } else {
-            return mapper(CellData::column);
+            return mapper(Axis.COLUMN);
         }
     }
 }
@@ -42,8 +42,10 @@ import xyz.hotchpotch.hogandiff.excel.BookType;
 import xyz.hotchpotch.hogandiff.excel.CellData;
 import xyz.hotchpotch.hogandiff.excel.CellsUtil;
 import xyz.hotchpotch.hogandiff.excel.ExcelHandlingException;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
 import xyz.hotchpotch.hogandiff.excel.SheetType;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.excel.common.BookHandler;
 import xyz.hotchpotch.hogandiff.excel.common.CommonUtil;
 import xyz.hotchpotch.hogandiff.excel.common.SheetHandler;
@@ -100,7 +102,7 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
         private final String sheetName;
         private final boolean extractCachedValue;
         private final boolean saveMemory;
-        private final Map<String, CellData> cells = new HashMap<>();
+        private final Map<Long, CellData> cells = new HashMap<>();
         private final Map<Integer, String> comments = new HashMap<>();
         
         private ProcessingStep step = ProcessingStep.SEARCHING_SHEET_DEFINITION;
@@ -312,7 +314,7 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
                 String calculated = sRec.getString();
                 if (calculated != null && !"".equals(calculated)) {
                     cells.put(
-                            CellsUtil.idxToAddress(
+                            CellsUtil.pack(
                                     prevFormulaRec.getRow(),
                                     prevFormulaRec.getColumn()),
                             CellData.of(
@@ -352,14 +354,19 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
             
             case NoteRecord.sid: // セルコメント抽出用
                 NoteRecord noteRec = (NoteRecord) record;
-                String address = CellsUtil.idxToAddress(noteRec.getRow(), noteRec.getColumn());
+                long position = CellsUtil.pack(noteRec.getRow(), noteRec.getColumn());
                 String comment = comments.remove(noteRec.getShapeId());
                 
-                if (cells.containsKey(address)) {
-                    CellData original = cells.get(address);
-                    cells.put(address, original.withComment(comment));
+                if (cells.containsKey(position)) {
+                    CellData original = cells.get(position);
+                    cells.put(position, original.withComment(comment));
                 } else {
-                    cells.put(address, CellData.of(address, "", saveMemory).withComment(comment));
+                    cells.put(position, CellData.of(
+                            noteRec.getRow(),
+                            noteRec.getColumn(),
+                            "",
+                            saveMemory)
+                            .withComment(comment));
                 }
                 break;
             
@@ -371,7 +378,7 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
             if (value != null && !"".equals(value)) {
                 CellRecord cellRec = (CellRecord) record;
                 cells.put(
-                        CellsUtil.idxToAddress(
+                        CellsUtil.pack(
                                 cellRec.getRow(),
                                 cellRec.getColumn()),
                         CellData.of(
@@ -453,20 +460,49 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
         
         return new HSSFSheetLoaderWithPoiEventApi(
                 extractCachedValue,
-                saveMemory);
+                saveMemory,
+                null);
+    }
+    
+    /**
+     * 新しいローダーを構成します。<br>
+     * 通常モードの場合は、読み込んだセル内容とセルコメントの文字列を指定された文字列表で保持します。<br>
+     * 
+     * @param extractCachedValue
+     *              数式セルからキャッシュされた計算値を抽出する場合は {@code true}、
+     *              数式文字列を抽出する場合は {@code false}
+     * @param saveMemory 省メモリモードの場合は {@code true}
+     * @param stringPool セル内容とセルコメントの文字列を保持する文字列表（省メモリモードの場合は用いられません）
+     * @return 新しいローダー
+     * @throws NullPointerException {@code stringPool} が {@code null} の場合
+     */
+    public static SheetLoader of(
+            boolean extractCachedValue,
+            boolean saveMemory,
+            StringPool stringPool) {
+        
+        Objects.requireNonNull(stringPool, "stringPool");
+        
+        return new HSSFSheetLoaderWithPoiEventApi(
+                extractCachedValue,
+                saveMemory,
+                stringPool);
     }
     
     // [instance members] ******************************************************
     
     private final boolean extractCachedValue;
     private final boolean saveMemory;
+    private final StringPool stringPool;
     
     private HSSFSheetLoaderWithPoiEventApi(
             boolean extractCachedValue,
-            boolean saveMemory) {
+            boolean saveMemory,
+            StringPool stringPool) {
         
         this.extractCachedValue = extractCachedValue;
         this.saveMemory = saveMemory;
+        this.stringPool = stringPool;
     }
     
     /**
@@ -504,7 +540,9 @@ public class HSSFSheetLoaderWithPoiEventApi implements SheetLoader {
             req.addListenerForAllRecords(listener1);
             HSSFEventFactory factory = new HSSFEventFactory();
             factory.abortableProcessWorkbookEvents(req, poifs);
-            return Set.copyOf(listener1.cells.values());
+            return stringPool == null
+                    ? SheetCells.copyOf(listener1.cells.values())
+                    : SheetCells.copyOf(listener1.cells.values(), stringPool);
             
         } catch (Exception e) {
             throw new ExcelHandlingException(
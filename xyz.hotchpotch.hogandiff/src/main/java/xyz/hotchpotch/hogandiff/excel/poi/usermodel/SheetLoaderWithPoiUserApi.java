@@ -19,8 +19,10 @@ import xyz.hotchpotch.hogandiff.excel.BookInfo;
 import xyz.hotchpotch.hogandiff.excel.BookType;
 import xyz.hotchpotch.hogandiff.excel.CellData;
 import xyz.hotchpotch.hogandiff.excel.ExcelHandlingException;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
 import xyz.hotchpotch.hogandiff.excel.SheetType;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.excel.common.BookHandler;
 import xyz.hotchpotch.hogandiff.excel.common.CommonUtil;
 import xyz.hotchpotch.hogandiff.excel.common.SheetHandler;
@@ -57,22 +59,50 @@ public class SheetLoaderWithPoiUserApi implements SheetLoader {
         
         return new SheetLoaderWithPoiUserApi(
                 saveMemory,
-                converter);
+                converter,
+                null);
+    }
+    
+    /**
+     * 新しいローダーを構成します。<br>
+     * 通常モードの場合は、読み込んだセル内容とセルコメントの文字列を指定された文字列表で保持します。<br>
+     * 
+     * @param saveMemory 省メモリモードの場合は {@code true}
+     * @param converter セル変換関数
+     * @param stringPool セル内容とセルコメントの文字列を保持する文字列表（省メモリモードの場合は用いられません）
+     * @return 新しいローダー
+     * @throws NullPointerException {@code converter}, {@code stringPool} のいずれかが {@code null} の場合
+     */
+    public static SheetLoader of(
+            boolean saveMemory,
+            Function<Cell, CellData> converter,
+            StringPool stringPool) {
+        
+        Objects.requireNonNull(converter, "converter");
+        Objects.requireNonNull(stringPool, "stringPool");
+        
+        return new SheetLoaderWithPoiUserApi(
+                saveMemory,
+                converter,
+                stringPool);
     }
     
     // [instance members] ******************************************************
     
     private final boolean saveMemory;
     private final Function<Cell, CellData> converter;
+    private final StringPool stringPool;
     
     private SheetLoaderWithPoiUserApi(
             boolean saveMemory,
-            Function<Cell, CellData> converter) {
+            Function<Cell, CellData> converter,
+            StringPool stringPool) {
         
         assert converter != null;
         
         this.saveMemory = saveMemory;
         this.converter = converter;
+        this.stringPool = stringPool;
     }
     
     /**
@@ -141,7 +171,9 @@ public class SheetLoaderWithPoiUserApi implements SheetLoader {
                 }
             });
             
-            return cells;
+            return stringPool == null
+                    ? SheetCells.copyOf(cells)
+                    : SheetCells.copyOf(cells, stringPool);
             
         } catch (Exception e) {
             throw new ExcelHandlingException(
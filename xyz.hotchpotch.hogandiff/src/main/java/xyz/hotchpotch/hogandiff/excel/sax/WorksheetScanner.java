@@ -0,0 +1,650 @@
+package xyz.hotchpotch.hogandiff.excel.sax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * ワークシートのXML（{@code sheetN.xml}）を、UTF-8 のバイト列のまま読み進める専用のスキャナーです。<br>
+ * c 要素の r, t 属性と、c 要素に含まれる v, f, t 要素のテキストだけを認識し、
+ * c 要素ごとに {@link CellConsumer} に通知します。
+ * テキストは再利用するバッファに復号し、{@link String} オブジェクトを生成しません。<br>
+ * 汎用のXMLパーサーではなく、整形式の検査は最小限にとどめます。
+ * UTF-8 以外の符号化方式の場合や、DOCTYPE 宣言を含む場合は読み込みを行わず、
+ * 汎用のXMLパーサーでの読み込みに委ねます。<br>
+ * 
+ * @author nmby
+ */
+// 実装メモ：
+// SAX ハンドラ（XSSFSheetLoaderWithSax.Handler1）と同じ結果を得るため、
+// c 要素の開始から終了までの間で最も内側の要素が v, f, t であるテキストを、要素名ごとに連結する。
+// 改行文字の正規化（\r\n, \r → \n）や属性値の空白文字の正規化も、XMLパーサーと同様に行う。
+/*package*/ class WorksheetScanner {
+    
+    // [static members] ********************************************************
+    
+    /**
+     * c 要素ごとの内容を受け取るコンシューマーです。<br>
+     * 引数の {@link CharSequence} はスキャナーが再利用するバッファであるため、
+     * 呼び出しの外で参照を保持してはなりません。<br>
+     * 
+     * @author nmby
+     */
+    @FunctionalInterface
+    /*package*/ static interface CellConsumer {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        /**
+         * c 要素の内容を受け取ります。<br>
+         * 
+         * @param address r 属性の値（存在しない場合は {@code null}）
+         * @param type t 属性の値（存在しない場合は {@code null}）
+         * @param vText v 要素のテキスト（存在しない場合は {@code null}）
+         * @param fText f 要素のテキスト（存在しない場合は {@code null}）
+         * @param tText t 要素のテキスト（存在しない場合は {@code null}）
+         */
+        void accept(
+                CharSequence address,
+                CharSequence type,
+                CharSequence vText,
+                CharSequence fText,
+                CharSequence tText);
+    }
+    
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    /** c, v, f, t 以外の要素 */
+    private static final int OTHER = 0;
+    private static final int C = 1;
+    private static final int V = 2;
+    private static final int F = 3;
+    private static final int T = 4;
+    
+    /**
+     * 指定された入力ストリームからワークシートのXMLを読み込み、
+     * c 要素ごとにコンシューマーに通知します。<br>
+     * 
+     * @param source ワークシートのXMLの入力ストリーム
+     * @param consumer c 要素ごとの内容を受け取るコンシューマー
+     * @return 読み込みを行った場合は {@code true}、
+     *         このスキャナーでは読み込めない形式のため読み込みを行わなかった場合は {@code false}
+     * @throws NullPointerException {@code source}, {@code consumer} のいずれかが {@code null} の場合
+     * @throws IOException 入力ストリームの読み込みに失敗した場合、またはXMLの形式が不正な場合
+     */
+    public static boolean scan(InputStream source, CellConsumer consumer) throws IOException {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(consumer, "consumer");
+        
+        return new WorksheetScanner(source, consumer).scan();
+    }
+    
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+    
+    // [instance members] ******************************************************
+    
+    private final InputStream source;
+    private final CellConsumer consumer;
+    
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long consumed;
+    
+    private final byte[] name = new byte[16];
+    private int nameLength;
+    
+    private int[] elements = new int[16];
+    private int depth;
+    private int cellDepth = -1;
+    private boolean emitted;
+    
+    private final StringBuilder address = new StringBuilder();
+    private final StringBuilder type = new StringBuilder();
+    private final StringBuilder vText = new StringBuilder();
+    private final StringBuilder fText = new StringBuilder();
+    private final StringBuilder tText = new StringBuilder();
+    private boolean hasAddress;
+    private boolean hasType;
+    
+    private WorksheetScanner(InputStream source, CellConsumer consumer) {
+        assert source != null;
+        assert consumer != null;
+        
+        this.source = source;
+        this.consumer = consumer;
+    }
+    
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n;
+        do {
+            n = source.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+    
+    /**
+     * 次の1バイトを読み込みます。<br>
+     * 
+     * @return 読み込んだバイト（0～255）。入力の終わりに達した場合は -1
+     */
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++] & 0xFF;
+    }
+    
+    /** 次の1バイトを読み込みます。入力の終わりに達した場合は例外をスローします。 */
+    private int require() throws IOException {
+        int b = read();
+        if (b < 0) {
+            throw malformed("unexpected end of input");
+        }
+        return b;
+    }
+    
+    /** 直前に {@link #read()} で読み込んだ1バイトを読み戻します。 */
+    private void unread() {
+        assert 0 < pos;
+        pos--;
+    }
+    
+    private IOException malformed(String message) {
+        return new IOException("malformed worksheet xml (byte %d): %s".formatted(consumed + pos, message));
+    }
+    
+    private boolean scan() throws IOException {
+        if (!checkEncoding()) {
+            return false;
+        }
+        
+        while (true) {
+            StringBuilder target = textTarget();
+            if (target == null) {
+                skipText();
+            } else {
+                readText(target);
+            }
+            
+            if (read() < 0) {
+                if (depth != 0) {
+                    throw malformed("unclosed element");
+                }
+                return true;
+            }
+            // ここでは必ず '<' を読み込んでいる。
+            int b = require();
+            switch (b) {
+            case '?':
+                skipUntil('?', '>');
+                break;
+            case '!':
+                if (!readDeclaration()) {
+                    return false;
+                }
+                break;
+            case '/':
+                readEndTag();
+                break;
+            default:
+                readStartTag(b);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * 先頭のバイト順マークとXML宣言から、このスキャナーで読み込める符号化方式かを判定します。<br>
+     * 
+     * @return UTF-8 の場合は {@code true}
+     */
+    private boolean checkEncoding() throws IOException {
+        if (!fill()) {
+            return true;
+        }
+        if (3 <= limit && (buf[0] & 0xFF) == 0xEF && (buf[1] & 0xFF) == 0xBB && (buf[2] & 0xFF) == 0xBF) {
+            pos = 3;
+            return checkDeclaration();
+        }
+        if (2 <= limit && (buf[0] == 0 || buf[1] == 0 || (buf[0] & 0xFF) == 0xFE || (buf[0] & 0xFF) == 0xFF)) {
+            // UTF-16, UTF-32 など
+            return false;
+        }
+        return checkDeclaration();
+    }
+    
+    /**
+     * XML宣言の encoding 擬似属性を確認します。<br>
+     * XML宣言は入力の先頭に位置するため、最初のバッファに収まっているものとして扱います。<br>
+     */
+    private boolean checkDeclaration() {
+        String head = new String(buf, pos, Math.min(limit - pos, 256), StandardCharsets.ISO_8859_1);
+        if (!head.startsWith("<?xml")) {
+            return true;
+        }
+        int end = head.indexOf("?>");
+        String decl = end < 0 ? head : head.substring(0, end);
+        int idx = decl.indexOf("encoding");
+        if (idx < 0) {
+            return true;
+        }
+        String rest = decl.substring(idx + "encoding".length()).stripLeading();
+        if (!rest.startsWith("=")) {
+            return true;
+        }
+        rest = rest.substring(1).stripLeading();
+        if (rest.isEmpty()) {
+            return false;
+        }
+        int close = rest.indexOf(rest.charAt(0), 1);
+        String encoding = close < 0 ? "" : rest.substring(1, close);
+        return "UTF-8".equalsIgnoreCase(encoding) || "UTF8".equalsIgnoreCase(encoding);
+    }
+    
+    /** 現在位置のテキストの格納先を返します。格納不要のテキストの場合は {@code null} を返します。 */
+    private StringBuilder textTarget() {
+        if (cellDepth < 0 || depth <= cellDepth) {
+            return null;
+        }
+        switch (elements[depth - 1]) {
+        case V:
+            return vText;
+        case F:
+            return fText;
+        case T:
+            return tText;
+        default:
+            return null;
+        }
+    }
+    
+    /** 次の '<' の手前までを読み飛ばします。 */
+    private void skipText() throws IOException {
+        while (pos < limit || fill()) {
+            byte[] b = buf;
+            int p = pos;
+            int l = limit;
+            while (p < l && b[p] != '<') {
+                p++;
+            }
+            pos = p;
+            if (p < l) {
+                return;
+            }
+        }
+    }
+    
+    /** 次の '<' の手前までのテキストを復号して追加します。 */
+    private void readText(StringBuilder dst) throws IOException {
+        while (true) {
+            // ASCII 文字が続く間は、1バイトずつそのまま追加する。
+            while (pos < limit) {
+                byte b = buf[pos];
+                if (b < 0 || b == '<' || b == '&' || b == '\r') {
+                    break;
+                }
+                dst.append((char) b);
+                pos++;
+            }
+            int b = read();
+            if (b < 0) {
+                return;
+            }
+            if (b == '<') {
+                unread();
+                return;
+            }
+            if (b == '&') {
+                readReference(dst);
+            } else {
+                decodeChar(b, dst);
+            }
+        }
+    }
+    
+    /**
+     * 指定されたバイトで始まる1文字を UTF-8 として復号して追加します。<br>
+     * 改行文字は XML の規則に従って正規化します。<br>
+     */
+    private void decodeChar(int b, StringBuilder dst) throws IOException {
+        if (b < 0x80) {
+            if (b == '\r') {
+                int next = read();
+                if (0 <= next && next != '\n') {
+                    unread();
+                }
+                dst.append('\n');
+            } else {
+                dst.append((char) b);
+            }
+            return;
+        }
+        
+        int extra;
+        int cp;
+        if ((b & 0xE0) == 0xC0) {
+            extra = 1;
+            cp = b & 0x1F;
+        } else if ((b & 0xF0) == 0xE0) {
+            extra = 2;
+            cp = b & 0x0F;
+        } else if ((b & 0xF8) == 0xF0) {
+            extra = 3;
+            cp = b & 0x07;
+        } else {
+            throw malformed("invalid UTF-8 byte: " + b);
+        }
+        for (int i = 0; i < extra; i++) {
+            int c = require();
+            if ((c & 0xC0) != 0x80) {
+                throw malformed("invalid UTF-8 sequence");
+            }
+            cp = (cp << 6) | (c & 0x3F);
+        }
+        if (!Character.isValidCodePoint(cp)) {
+            throw malformed("invalid code point: " + cp);
+        }
+        dst.appendCodePoint(cp);
+    }
+    
+    /** '&' に続く実体参照または文字参照を読み込み、参照する文字を追加します。 */
+    private void readReference(StringBuilder dst) throws IOException {
+        int b = require();
+        if (b == '#') {
+            int radix = 10;
+            b = require();
+            if (b == 'x') {
+                radix = 16;
+                b = require();
+            }
+            int cp = 0;
+            int digits = 0;
+            for (; b != ';'; b = require()) {
+                int d = Character.digit(b, radix);
+                if (d < 0 || Character.MAX_CODE_POINT < cp) {
+                    throw malformed("invalid character reference");
+                }
+                cp = cp * radix + d;
+                digits++;
+            }
+            if (digits == 0 || !Character.isValidCodePoint(cp)) {
+                throw malformed("invalid character reference");
+            }
+            dst.appendCodePoint(cp);
+            return;
+        }
+        
+        nameLength = 0;
+        for (; b != ';'; b = require()) {
+            if (nameLength == name.length) {
+                throw malformed("unknown entity reference");
+            }
+            name[nameLength++] = (byte) b;
+        }
+        if (nameIs("lt")) {
+            dst.append('<');
+        } else if (nameIs("gt")) {
+            dst.append('>');
+        } else if (nameIs("amp")) {
+            dst.append('&');
+        } else if (nameIs("quot")) {
+            dst.append('"');
+        } else if (nameIs("apos")) {
+            dst.append('\'');
+        } else {
+            throw malformed("unknown entity reference");
+        }
+    }
+    
+    private boolean nameIs(String str) {
+        if (nameLength != str.length()) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (name[i] != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /** 指定された2バイトの並びの直後までを読み飛ばします。 */
+    private void skipUntil(int first, int second) throws IOException {
+        int prev = -1;
+        int b;
+        while ((b = require()) != second || prev != first) {
+            prev = b;
+        }
+    }
+    
+    /**
+     * "&lt;!" に続く宣言（コメント、CDATA セクション、DOCTYPE 宣言）を読み込みます。<br>
+     * 
+     * @return DOCTYPE 宣言を含むためこのスキャナーでは読み込めない場合は {@code false}
+     */
+    private boolean readDeclaration() throws IOException {
+        int b = require();
+        if (b == '-') {
+            if (require() != '-') {
+                throw malformed("invalid comment");
+            }
+            // "-->" の直後まで読み飛ばす。
+            int prev2 = -1;
+            int prev1 = -1;
+            while ((b = require()) != '>' || prev1 != '-' || prev2 != '-') {
+                prev2 = prev1;
+                prev1 = b;
+            }
+            return true;
+        }
+        if (b == '[') {
+            for (int i = 0; i < "CDATA[".length(); i++) {
+                if (require() != "CDATA[".charAt(i)) {
+                    throw malformed("invalid CDATA section");
+                }
+            }
+            readCData(textTarget());
+            return true;
+        }
+        if (emitted || 0 < depth) {
+            throw malformed("unexpected declaration");
+        }
+        // DOCTYPE 宣言は内部サブセットで実体を宣言し得るため、汎用のXMLパーサーに委ねる。
+        return false;
+    }
+    
+    /** CDATA セクションの内容を "]]>" の直後まで読み込み、格納先が指定された場合は追加します。 */
+    private void readCData(StringBuilder dst) throws IOException {
+        int brackets = 0;
+        while (true) {
+            int b = require();
+            if (b == '>' && 2 <= brackets) {
+                if (dst != null) {
+                    // "]]>" の手前の余分な ']' は内容の一部である。
+                    dst.append("]".repeat(brackets - 2));
+                }
+                return;
+            }
+            if (b == ']') {
+                brackets++;
+                continue;
+            }
+            if (dst != null) {
+                dst.append("]".repeat(brackets));
+                decodeChar(b, dst);
+            }
+            brackets = 0;
+        }
+    }
+    
+    /** 要素名または属性名を読み込み、要素の種類を返します。 */
+    private int readName(int first) throws IOException {
+        nameLength = 0;
+        int b = first;
+        while (!isWhitespace(b) && b != '>' && b != '/' && b != '=') {
+            if (nameLength < name.length) {
+                name[nameLength] = (byte) b;
+            }
+            nameLength++;
+            b = require();
+        }
+        unread();
+        
+        if (nameLength != 1) {
+            return OTHER;
+        }
+        switch (name[0]) {
+        case 'c':
+            return C;
+        case 'v':
+            return V;
+        case 'f':
+            return F;
+        case 't':
+            return T;
+        default:
+            return OTHER;
+        }
+    }
+    
+    private void readStartTag(int first) throws IOException {
+        int element = readName(first);
+        if (element == C) {
+            address.setLength(0);
+            type.setLength(0);
+            vText.setLength(0);
+            fText.setLength(0);
+            tText.setLength(0);
+            hasAddress = false;
+            hasType = false;
+        }
+        
+        while (true) {
+            int b = require();
+            if (isWhitespace(b)) {
+                continue;
+            }
+            if (b == '>') {
+                push(element);
+                return;
+            }
+            if (b == '/') {
+                if (require() != '>') {
+                    throw malformed("invalid empty element tag");
+                }
+                push(element);
+                pop();
+                return;
+            }
+            readAttribute(b, element == C);
+        }
+    }
+    
+    private void readAttribute(int first, boolean isCell) throws IOException {
+        readName(first);
+        int b = require();
+        while (isWhitespace(b)) {
+            b = require();
+        }
+        if (b != '=') {
+            throw malformed("invalid attribute");
+        }
+        b = require();
+        while (isWhitespace(b)) {
+            b = require();
+        }
+        if (b != '"' && b != '\'') {
+            throw malformed("invalid attribute");
+        }
+        
+        StringBuilder dst = null;
+        if (isCell && nameIs("r")) {
+            dst = address;
+            hasAddress = true;
+        } else if (isCell && nameIs("t")) {
+            dst = type;
+            hasType = true;
+        }
+        readAttributeValue(b, dst);
+    }
+    
+    /** 属性値を閉じ引用符の直後まで読み込み、格納先が指定された場合は正規化して追加します。 */
+    private void readAttributeValue(int quote, StringBuilder dst) throws IOException {
+        while (true) {
+            int b = require();
+            if (b == quote) {
+                return;
+            }
+            if (b == '<') {
+                throw malformed("'<' in attribute value");
+            }
+            if (dst == null) {
+                continue;
+            }
+            if (b == '&') {
+                readReference(dst);
+            } else if (isWhitespace(b)) {
+                if (b == '\r') {
+                    int next = require();
+                    if (next != '\n') {
+                        unread();
+                    }
+                }
+                dst.append(' ');
+            } else {
+                decodeChar(b, dst);
+            }
+        }
+    }
+    
+    private void readEndTag() throws IOException {
+        int b;
+        while ((b = require()) != '>') {
+            if (b == '<') {
+                throw malformed("invalid end tag");
+            }
+        }
+        pop();
+    }
+    
+    private void push(int element) {
+        if (depth == elements.length) {
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        elements[depth++] = element;
+        if (element == C) {
+            cellDepth = depth;
+        }
+    }
+    
+    private void pop() throws IOException {
+        if (depth == 0) {
+            throw malformed("unexpected end tag");
+        }
+        depth--;
+        if (depth + 1 == cellDepth) {
+            cellDepth = -1;
+            emitted = true;
+            consumer.accept(
+                    hasAddress ? address : null,
+                    hasType ? type : null,
+                    0 < vText.length() ? vText : null,
+                    0 < fText.length() ? fText : null,
+                    0 < tText.length() ? tText : null);
+        }
+    }
+}
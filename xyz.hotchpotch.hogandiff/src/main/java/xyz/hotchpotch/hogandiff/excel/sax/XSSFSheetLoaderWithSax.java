@@ -8,7 +8,6 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -27,9 +26,12 @@ import org.xml.sax.helpers.DefaultHandler;
 import xyz.hotchpotch.hogandiff.excel.BookInfo;
 import xyz.hotchpotch.hogandiff.excel.BookType;
 import xyz.hotchpotch.hogandiff.excel.CellData;
+import xyz.hotchpotch.hogandiff.excel.CellsUtil;
 import xyz.hotchpotch.hogandiff.excel.ExcelHandlingException;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
 import xyz.hotchpotch.hogandiff.excel.SheetType;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 import xyz.hotchpotch.hogandiff.excel.common.BookHandler;
 import xyz.hotchpotch.hogandiff.excel.common.CommonUtil;
 import xyz.hotchpotch.hogandiff.excel.common.SheetHandler;
@@ -39,6 +41,7 @@ import xyz.hotchpotch.hogandiff.excel.sax.SaxUtil.SheetInfo;
  * SAX (Simple API for XML) を利用して、
  * .xlsx/.xlsm 形式のExcelブックのワークシートから
  * セルデータを抽出する {@link SheetLoader} の実装です。<br>
+ * ワークシートのXMLは、SAX パーサーよりも高速な専用のスキャナー（{@link WorksheetScanner}）で読み込みます。<br>
  *
  * @author nmby
  */
@@ -80,40 +83,49 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         /** formula */
         str;
         
-        private static XSSFCellType of(String t) {
-            return t == null ? n : valueOf(t);
+        private static final XSSFCellType[] VALUES = values();
+        
+        private static XSSFCellType of(CharSequence t) {
+            if (t == null) {
+                return n;
+            }
+            // 文字列を生成せずに判定するため、valueOf(String) を用いずに名前を比較する。
+            for (XSSFCellType type : VALUES) {
+                if (type.name().contentEquals(t)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("No enum constant: " + t);
         }
         
         // [instance members] --------------------------------------------------
     }
     
+    /**
+     * SAX (Simple API for XML) を利用してワークシートのXMLを読み込み、
+     * c 要素ごとに {@link WorksheetScanner.CellConsumer} に通知するハンドラです。<br>
+     * {@link WorksheetScanner} で読み込めない形式の場合に用います。<br>
+     *
+     * @author nmby
+     */
     private static class Handler1 extends DefaultHandler {
         
         // [static members] ----------------------------------------------------
         
         // [instance members] --------------------------------------------------
         
-        private final boolean extractCachedValue;
-        private final boolean saveMemory;
-        private final List<String> sst;
+        private final WorksheetScanner.CellConsumer consumer;
         
         private final Deque<String> qNames = new ArrayDeque<>();
         private final Map<String, StringBuilder> texts = new HashMap<>();
-        private final Set<CellData> cells = new HashSet<>();
         
-        private XSSFCellType type;
+        private String type;
         private String address;
         
-        private Handler1(
-                boolean extractCachedValue,
-                boolean saveMemory,
-                List<String> sst) {
+        private Handler1(WorksheetScanner.CellConsumer consumer) {
+            assert consumer != null;
             
-            assert sst != null;
-            
-            this.extractCachedValue = extractCachedValue;
-            this.saveMemory = saveMemory;
-            this.sst = sst;
+            this.consumer = consumer;
         }
         
         @Override
@@ -123,7 +135,7 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
             qNames.addFirst(qName);
             
             if ("c".equals(qName)) {
-                type = XSSFCellType.of(attributes.getValue("t"));
+                type = attributes.getValue("t");
                 address = attributes.getValue("r");
                 texts.clear();
             }
@@ -139,56 +151,13 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         @Override
         public void endElement(String uri, String localName, String qName) {
             if ("c".equals(qName)) {
-                StringBuilder vText = texts.get("v");
-                StringBuilder fText = texts.get("f");
-                StringBuilder tText = texts.get("t");
-                String value = null;
-                
-                if (!extractCachedValue && fText != null) {
-                    value = fText.toString();
-                } else {
-                    switch (type) {
-                    case b:
-                        if (vText != null) {
-                            value = Boolean.toString("1".equals(vText.toString()));
-                        }
-                        break;
-                    
-                    case n:
-                    case d:
-                    case e:
-                    case str:
-                        if (vText != null) {
-                            value = vText.toString();
-                        }
-                        break;
-                    
-                    case inlineStr:
-                        if (tText != null) {
-                            value = tText.toString();
-                        }
-                        break;
-                    
-                    case s:
-                        if (vText != null) {
-                            int idx = Integer.parseInt(vText.toString());
-                            value = sst.get(idx);
-                        }
-                        break;
-                    
-                    default:
-                        throw new AssertionError(type);
-                    }
-                }
-                if (value != null && !"".equals(value)) {
-                    cells.add(CellData.of(address, value, saveMemory));
-                }
+                consumer.accept(address, type, texts.get("v"), texts.get("f"), texts.get("t"));
                 
-                qNames.removeFirst();
                 type = null;
                 address = null;
                 texts.clear();
             }
+            qNames.removeFirst();
         }
     }
     
@@ -198,20 +167,15 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         
         // [instance members] --------------------------------------------------
         
-        private final Set<CellData> cells;
-        private final Map<String, CellData> cellsMap;
-        private final boolean saveMemory;
+        private final SheetCells.Builder cells;
         
-        private String address;
+        private long position;
         private StringBuilder comment;
         
-        private Handler2(Set<CellData> cells, boolean saveMemory) {
+        private Handler2(SheetCells.Builder cells) {
             assert cells != null;
             
             this.cells = cells;
-            this.cellsMap = cells.parallelStream()
-                    .collect(Collectors.toMap(CellData::address, Function.identity()));
-            this.saveMemory = saveMemory;
         }
         
         @Override
@@ -219,7 +183,7 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
                 throws SAXException {
             
             if ("comment".equals(qName)) {
-                address = attributes.getValue("ref");
+                position = CellsUtil.parseAddress(attributes.getValue("ref"));
                 comment = new StringBuilder();
             }
         }
@@ -234,15 +198,11 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         @Override
         public void endElement(String uri, String localName, String qName) {
             if ("comment".equals(qName)) {
-                if (cellsMap.containsKey(address)) {
-                    CellData original = cellsMap.get(address);
-                    cells.remove(original);
-                    cells.add(original.withComment(comment.toString()));
-                } else {
-                    cells.add(CellData.of(address, "", saveMemory).withComment(comment.toString()));
-                }
+                cells.addComment(
+                        CellsUtil.unpackRow(position),
+                        CellsUtil.unpackColumn(position),
+                        comment);
                 
-                address = null;
                 comment = null;
             }
         }
@@ -279,7 +239,47 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         return new XSSFSheetLoaderWithSax(
                 extractCachedValue,
                 saveMemory,
-                bookInfo);
+                bookInfo,
+                null);
+    }
+    
+    /**
+     * 新しいローダーを構成します。<br>
+     * 通常モードの場合は、読み込んだセル内容とセルコメントの文字列を指定された文字列表で保持します。<br>
+     * 
+     * @param extractCachedValue
+     *              数式セルからキャッシュされた計算値を抽出する場合は {@code true}、
+     *              数式文字列を抽出する場合は {@code false}
+     * @param saveMemory 省メモリモードの場合は {@code true}
+     * @param bookInfo Excelブックの情報
+     * @param stringPool セル内容とセルコメントの文字列を保持する文字列表（省メモリモードの場合は用いられません）
+     * @return 新しいローダー
+     * @throws NullPointerException
+     *              {@code bookInfo}, {@code stringPool} のいずれかが {@code null} の場合
+     * @throws IllegalArgumentException
+     *              {@code bookInfo} がサポート対象外の形式の場合
+     * @throws ExcelHandlingException
+     *              ローダーの構成に失敗した場合。
+     *              具体的には、Excelブックから共通情報の取得に失敗した場合
+     */
+    public static SheetLoader of(
+            boolean extractCachedValue,
+            boolean saveMemory,
+            BookInfo bookInfo,
+            StringPool stringPool)
+            throws ExcelHandlingException {
+        
+        Objects.requireNonNull(bookInfo, "bookInfo");
+        Objects.requireNonNull(stringPool, "stringPool");
+        CommonUtil.ifNotSupportedBookTypeThenThrow(
+                XSSFSheetLoaderWithSax.class,
+                bookInfo.bookType());
+        
+        return new XSSFSheetLoaderWithSax(
+                extractCachedValue,
+                saveMemory,
+                bookInfo,
+                stringPool);
     }
     
     // [instance members] ******************************************************
@@ -287,13 +287,15 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
     private final boolean extractCachedValue;
     private final boolean saveMemory;
     private final BookInfo bookInfo;
+    private final StringPool stringPool;
     private final Map<String, SheetInfo> nameToInfo;
     private final List<String> sst;
     
     private XSSFSheetLoaderWithSax(
             boolean extractCachedValue,
             boolean saveMemory,
-            BookInfo bookInfo)
+            BookInfo bookInfo,
+            StringPool stringPool)
             throws ExcelHandlingException {
         
         assert bookInfo != null;
@@ -302,6 +304,7 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         this.extractCachedValue = extractCachedValue;
         this.saveMemory = saveMemory;
         this.bookInfo = bookInfo;
+        this.stringPool = stringPool;
         this.nameToInfo = SaxUtil.loadSheetInfo(bookInfo).stream()
                 .collect(Collectors.toMap(
                         SheetInfo::name,
@@ -309,6 +312,49 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
         this.sst = SaxUtil.loadSharedStrings(bookInfo);
     }
     
+    /**
+     * c 要素の t 属性と子要素のテキストから、セル内容を求めます。<br>
+     * 省メモリモードではセル内容のハッシュ値だけが必要となるため、
+     * 可能な限り文字列を生成せずに読み込んだ文字の並びをそのまま返します。<br>
+     * 
+     * @param type セルのタイプ
+     * @param vText v 要素のテキスト（存在しない場合は {@code null}）
+     * @param fText f 要素のテキスト（存在しない場合は {@code null}）
+     * @param tText t 要素のテキスト（存在しない場合は {@code null}）
+     * @return セル内容（存在しない場合は {@code null}）
+     */
+    private CharSequence resolveValue(
+            XSSFCellType type,
+            CharSequence vText,
+            CharSequence fText,
+            CharSequence tText) {
+        
+        assert type != null;
+        
+        if (!extractCachedValue && fText != null) {
+            return fText;
+        }
+        switch (type) {
+        case b:
+            return vText == null ? null : Boolean.toString("1".contentEquals(vText));
+        
+        case n:
+        case d:
+        case e:
+        case str:
+            return vText;
+        
+        case inlineStr:
+            return tText;
+        
+        case s:
+            return vText == null ? null : sst.get(Integer.parseInt(vText, 0, vText.length(), 10));
+        
+        default:
+            throw new AssertionError(type);
+        }
+    }
+    
     /**
      * {@inheritDoc}
      * 
@@ -352,22 +398,36 @@ public class XSSFSheetLoaderWithSax implements SheetLoader {
             
             SAXParserFactory factory = SAXParserFactory.newInstance();
             SAXParser parser = factory.newSAXParser();
-            Set<CellData> cells = null;
+            SheetCells.Builder cells = saveMemory || stringPool == null
+                    ? SheetCells.builder(saveMemory)
+                    : SheetCells.builder(stringPool);
+            WorksheetScanner.CellConsumer consumer = (address, type, vText, fText, tText) -> {
+                CharSequence value = resolveValue(XSSFCellType.of(type), vText, fText, tText);
+                if (value != null && !value.isEmpty()) {
+                    long position = CellsUtil.parseAddress(address);
+                    cells.add(CellsUtil.unpackRow(position), CellsUtil.unpackColumn(position), value);
+                }
+            };
             
-            Handler1 handler1 = new Handler1(extractCachedValue, saveMemory, sst);
+            // ワークシートは専用のスキャナーで読み込み、読み込めない形式の場合だけ SAX パーサーを用いる。
+            boolean scanned;
             try (InputStream is = Files.newInputStream(fs.getPath(info.source()))) {
-                parser.parse(is, handler1);
+                scanned = WorksheetScanner.scan(is, consumer);
+            }
+            if (!scanned) {
+                try (InputStream is = Files.newInputStream(fs.getPath(info.source()))) {
+                    parser.parse(is, new Handler1(consumer));
+                }
             }
-            cells = handler1.cells;
             
             if (info.commentSource() != null) {
-                Handler2 handler2 = new Handler2(cells, saveMemory);
+                Handler2 handler2 = new Handler2(cells);
                 try (InputStream is = Files.newInputStream(fs.getPath(info.commentSource()))) {
                     parser.parse(is, handler2);
                 }
             }
             
-            return Set.copyOf(cells);
+            return cells.build();
             
         } catch (Exception e) {
             throw new ExcelHandlingException(
@@ -87,9 +87,13 @@ public class PaintDiffCellsReader extends BufferingReader {
     // [instance members] ******************************************************
     
     private final StylesManager stylesManager;
-    private final Map<Integer, Queue<String>> diffAddresses;
+    private final Map<Integer, Queue<CellData>> diffCells;
     private final Queue<Integer> targetRows;
     private final short colorIdx;
+    
+    /** セルアドレスの作成に繰り返し用いるバッファ */
+    private final StringBuilder addressBuilder = new StringBuilder();
+    
     private boolean auto = false;
     
     private PaintDiffCellsReader(
@@ -105,14 +109,12 @@ public class PaintDiffCellsReader extends BufferingReader {
         assert !diffCellContents.isEmpty();
         
         this.stylesManager = stylesManager;
-        this.diffAddresses = diffCellContents.stream()
+        this.diffCells = diffCellContents.stream()
                 .sorted(cellSorter)
                 .collect(Collectors.groupingBy(
                         CellData::row,
-                        Collectors.mapping(
-                                CellData::address,
-                                Collectors.toCollection(ArrayDeque::new))));
-        this.targetRows = diffAddresses.keySet().stream()
+                        Collectors.toCollection(ArrayDeque::new)));
+        this.targetRows = diffCells.keySet().stream()
                 .sorted()
                 .collect(Collectors.toCollection(ArrayDeque::new));
         this.colorIdx = colorIdx;
@@ -139,11 +141,11 @@ public class PaintDiffCellsReader extends BufferingReader {
             return;
         }
         
-        Queue<String> addrs = diffAddresses.get(targetRow);
+        Queue<CellData> targetCells = diffCells.get(targetRow);
         
         if (targetRow < sourceRow) {
             createRowStart(targetRow);
-            addrs.forEach(this::createCell);
+            targetCells.forEach(this::createCell);
             createRowEnd();
             
             targetRows.remove();
@@ -158,16 +160,16 @@ public class PaintDiffCellsReader extends BufferingReader {
         
         Queue<Queue<XMLEvent>> sourceCs = groupingCEvents();
         Queue<XMLEvent> nextC = sourceCs.poll();
-        String addr = addrs.poll();
+        CellData targetCell = targetCells.poll();
         
-        while (nextC != null && addr != null) {
-            int sourceColumn = CellsUtil.addressToIdx(
-                    nextC.peek().asStartElement().getAttributeByName(NONS_QNAME.R).getValue()).b();
-            int targetColumn = CellsUtil.addressToIdx(addr).b();
+        while (nextC != null && targetCell != null) {
+            int sourceColumn = CellsUtil.unpackColumn(CellsUtil.parseAddress(
+                    nextC.peek().asStartElement().getAttributeByName(NONS_QNAME.R).getValue()));
+            int targetColumn = targetCell.column();
             
             if (targetColumn < sourceColumn) {
-                createCell(addr);
-                addr = addrs.poll();
+                createCell(targetCell);
+                targetCell = targetCells.poll();
                 
             } else if (sourceColumn < targetColumn) {
                 buffer.addAll(nextC);
@@ -176,7 +178,7 @@ public class PaintDiffCellsReader extends BufferingReader {
             } else {
                 buffer.add(paintCell(nextC.remove().asStartElement()));
                 buffer.addAll(nextC);
-                addr = addrs.poll();
+                targetCell = targetCells.poll();
                 nextC = sourceCs.poll();
             }
         }
@@ -185,9 +187,9 @@ public class PaintDiffCellsReader extends BufferingReader {
             buffer.addAll(nextC);
             sourceCs.forEach(buffer::addAll);
             
-        } else if (addr != null) {
-            createCell(addr);
-            addrs.forEach(this::createCell);
+        } else if (targetCell != null) {
+            createCell(targetCell);
+            targetCells.forEach(this::createCell);
         }
         
         targetRows.remove();
@@ -240,13 +242,16 @@ public class PaintDiffCellsReader extends BufferingReader {
     
     /**
      * c 要素開始／終了イベントを作成してバッファに追加します。<br>
-     * @param addr
+     * 
+     * @param cell 作成するセル
      */
-    private void createCell(String addr) {
+    private void createCell(CellData cell) {
         int newStyle = stylesManager.getPaintedStyle(0, colorIdx);
         
         Set<Attribute> attrs = new HashSet<>();
-        attrs.add(eventFactory.createAttribute(NONS_QNAME.R, addr));
+        addressBuilder.setLength(0);
+        CellsUtil.appendAddress(addressBuilder, cell.row(), cell.column());
+        attrs.add(eventFactory.createAttribute(NONS_QNAME.R, addressBuilder.toString()));
         attrs.add(eventFactory.createAttribute(NONS_QNAME.S, Integer.toString(newStyle)));
         
         buffer.add(eventFactory.createStartElement(QNAME.C, attrs.iterator(), null));
@@ -82,6 +82,9 @@ public class PaintDiffOrRedundantCommentsReader extends BufferingReader {
     private final String diffCommentColor;
     private final String redundantCommentColor;
     
+    /** セルアドレスの作成に繰り返し用いるバッファ */
+    private final StringBuilder addressBuilder = new StringBuilder();
+    
     private int row;
     private int column;
     private boolean inRow;
@@ -156,7 +159,8 @@ public class PaintDiffOrRedundantCommentsReader extends BufferingReader {
             if (row < 0 || column < 0) {
                 throw new AssertionError("no row or column element.");
             }
-            String address = CellsUtil.idxToAddress(row, column);
+            addressBuilder.setLength(0);
+            String address = CellsUtil.appendAddress(addressBuilder, row, column).toString();
             
             if (diffCommentAddrs.contains(address)) {
                 processCommentShape(queue, diffCommentColor);
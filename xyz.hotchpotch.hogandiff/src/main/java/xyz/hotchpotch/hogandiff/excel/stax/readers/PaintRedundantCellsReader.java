@@ -22,7 +22,6 @@ import xyz.hotchpotch.hogandiff.excel.stax.StaxUtil;
 import xyz.hotchpotch.hogandiff.excel.stax.StaxUtil.NONS_QNAME;
 import xyz.hotchpotch.hogandiff.excel.stax.StaxUtil.QNAME;
 import xyz.hotchpotch.hogandiff.excel.stax.XSSFBookPainterWithStax.StylesManager;
-import xyz.hotchpotch.hogandiff.util.IntPair;
 
 /**
  * 余剰行や余剰列上のセルに色を付ける {@link XMLEventReader} の実装です。<br>
@@ -114,9 +113,10 @@ public class PaintRedundantCellsReader extends BufferingReader {
         }
         
         String address = event.asStartElement().getAttributeByName(NONS_QNAME.R).getValue();
-        IntPair idx = CellsUtil.addressToIdx(address);
+        long position = CellsUtil.parseAddress(address);
         
-        if (redundantRows.contains(idx.a()) || redundantColumns.contains(idx.b())) {
+        if (redundantRows.contains(CellsUtil.unpackRow(position))
+                || redundantColumns.contains(CellsUtil.unpackColumn(position))) {
             buffer.add(paintCell(event.asStartElement()));
             source.nextEvent();
         }
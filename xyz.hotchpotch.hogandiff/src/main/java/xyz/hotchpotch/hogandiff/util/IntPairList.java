@@ -0,0 +1,351 @@
+package xyz.hotchpotch.hogandiff.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * {@link IntPair} の不変リストです。<br>
+ * 各ペアを1つの {@code long} 値に詰めて保持するため、
+ * ペアごとにオブジェクトを保持する通常のリストよりも記憶領域を節約できます。<br>
+ * {@link #get(int)} は呼び出しのたびに {@link IntPair} オブジェクトを生成するため、
+ * 大量のペアを走査する場合は {@link #hasA(int)}, {@link #a(int)} などの
+ * オブジェクトを生成しないメソッドを利用してください。<br>
+ * 
+ * @author nmby
+ */
+// 実装メモ：
+// 上位32ビットに値a、下位32ビットに値bを保持し、値が無い場合は -1 で表す。
+// 行・列のインデックスは非負であるため、-1 と衝突することはない。
+public final class IntPairList extends AbstractList<IntPair> implements RandomAccess {
+    
+    // [static members] ********************************************************
+    
+    private static final int ABSENT = -1;
+    
+    private static final IntPairList EMPTY = new IntPairList(new long[] {}, 0);
+    
+    private static long pack(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFF_FFFFL);
+    }
+    
+    /**
+     * {@link IntPairList} のビルダーです。<br>
+     * ペアを追加した順に保持するリストを生成します。<br>
+     * 
+     * @author nmby
+     */
+    public static class Builder {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private long[] values;
+        private int size;
+        
+        private Builder(int initialCapacity) {
+            assert 0 <= initialCapacity;
+            
+            this.values = new long[Math.max(initialCapacity, 8)];
+        }
+        
+        private Builder append(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+            return this;
+        }
+        
+        /**
+         * 値a, 値bを保持するペアを追加します。<br>
+         * 
+         * @param a 値a
+         * @param b 値b
+         * @return このビルダー
+         * @throws IllegalArgumentException {@code a}, {@code b} のいずれかが負の場合
+         */
+        public Builder addPair(int a, int b) {
+            if (a < 0 || b < 0) {
+                throw new IllegalArgumentException("a: %d, b: %d".formatted(a, b));
+            }
+            return append(pack(a, b));
+        }
+        
+        /**
+         * 値aだけを保持するペアを追加します。<br>
+         * 
+         * @param a 値a
+         * @return このビルダー
+         * @throws IllegalArgumentException {@code a} が負の場合
+         */
+        public Builder addOnlyA(int a) {
+            if (a < 0) {
+                throw new IllegalArgumentException("a: %d".formatted(a));
+            }
+            return append(pack(a, ABSENT));
+        }
+        
+        /**
+         * 値bだけを保持するペアを追加します。<br>
+         * 
+         * @param b 値b
+         * @return このビルダー
+         * @throws IllegalArgumentException {@code b} が負の場合
+         */
+        public Builder addOnlyB(int b) {
+            if (b < 0) {
+                throw new IllegalArgumentException("b: %d".formatted(b));
+            }
+            return append(pack(ABSENT, b));
+        }
+        
+        /**
+         * 指定されたペアを追加します。<br>
+         * 
+         * @param pair ペア
+         * @return このビルダー
+         * @throws NullPointerException {@code pair} が {@code null} の場合
+         * @throws IllegalArgumentException {@code pair} が空のペアの場合、または負の値を保持する場合
+         */
+        public Builder add(IntPair pair) {
+            Objects.requireNonNull(pair, "pair");
+            
+            if (pair.isPaired()) {
+                return addPair(pair.a(), pair.b());
+            }
+            if (pair.hasA()) {
+                return addOnlyA(pair.a());
+            }
+            if (pair.hasB()) {
+                return addOnlyB(pair.b());
+            }
+            throw new IllegalArgumentException("empty pair");
+        }
+        
+        /**
+         * 指定されたリストのペアを、値a, 値bにそれぞれ指定されたオフセットを加えたうえで、順に追加します。<br>
+         * 
+         * @param pairs ペアのリスト
+         * @param offsetA 値aに加えるオフセット
+         * @param offsetB 値bに加えるオフセット
+         * @return このビルダー
+         * @throws NullPointerException {@code pairs} が {@code null} の場合、または {@code null} 要素を含む場合
+         * @throws IllegalArgumentException {@code pairs} が空のペアを含む場合、またはオフセットを加えた値が負となる場合
+         */
+        public Builder addAll(List<IntPair> pairs, int offsetA, int offsetB) {
+            Objects.requireNonNull(pairs, "pairs");
+            
+            if (pairs instanceof IntPairList list) {
+                for (int n = 0; n < list.size; n++) {
+                    int a = (int) (list.values[n] >> 32);
+                    int b = (int) list.values[n];
+                    if (a == ABSENT) {
+                        addOnlyB(b + offsetB);
+                    } else if (b == ABSENT) {
+                        addOnlyA(a + offsetA);
+                    } else {
+                        addPair(a + offsetA, b + offsetB);
+                    }
+                }
+                return this;
+            }
+            for (IntPair pair : pairs) {
+                Objects.requireNonNull(pair, "pair");
+                if (pair.isPaired()) {
+                    addPair(pair.a() + offsetA, pair.b() + offsetB);
+                } else if (pair.hasA()) {
+                    addOnlyA(pair.a() + offsetA);
+                } else if (pair.hasB()) {
+                    addOnlyB(pair.b() + offsetB);
+                } else {
+                    throw new IllegalArgumentException("empty pair");
+                }
+            }
+            return this;
+        }
+        
+        /**
+         * このビルダーで {@link IntPairList} オブジェクトを生成します。<br>
+         * 
+         * @return 新しい {@link IntPairList} オブジェクト
+         */
+        public IntPairList build() {
+            // ビルダーの作業領域は以後も変更され得るため、必要な長さの複製を保持させる。
+            return size == 0 ? EMPTY : new IntPairList(Arrays.copyOf(values, size), size);
+        }
+    }
+    
+    /**
+     * このクラスのビルダーを返します。<br>
+     * 
+     * @param initialCapacity 追加するペアの数の見込み
+     * @return 新しいビルダー
+     * @throws IllegalArgumentException {@code initialCapacity} が負の場合
+     */
+    public static Builder builder(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity: " + initialCapacity);
+        }
+        return new Builder(initialCapacity);
+    }
+    
+    /**
+     * 指定されたリストと同じペアを同じ順に保持するリストを返します。<br>
+     * 指定されたリストが {@link IntPairList} の場合は、そのまま返します。<br>
+     * 
+     * @param pairs ペアのリスト
+     * @return 同じペアを保持する {@link IntPairList}
+     * @throws NullPointerException {@code pairs} が {@code null} の場合、または {@code null} 要素を含む場合
+     * @throws IllegalArgumentException {@code pairs} が空のペアまたは負の値を保持するペアを含む場合
+     */
+    public static IntPairList copyOf(List<IntPair> pairs) {
+        Objects.requireNonNull(pairs, "pairs");
+        
+        if (pairs instanceof IntPairList list) {
+            return list;
+        }
+        Builder builder = new Builder(pairs.size());
+        pairs.forEach(builder::add);
+        return builder.build();
+    }
+    
+    // [instance members] ******************************************************
+    
+    private final long[] values;
+    private final int size;
+    
+    private IntPairList(long[] values, int size) {
+        assert values != null;
+        assert 0 <= size && size <= values.length;
+        
+        this.values = values;
+        this.size = size;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <br>
+     * このメソッドは、呼び出しのたびに新たな {@link IntPair} オブジェクトを生成します。<br>
+     */
+    @Override
+    public IntPair get(int index) {
+        Objects.checkIndex(index, size);
+        
+        int a = (int) (values[index] >> 32);
+        int b = (int) values[index];
+        return a == ABSENT
+                ? IntPair.onlyB(b)
+                : b == ABSENT
+                        ? IntPair.onlyA(a)
+                        : IntPair.of(a, b);
+    }
+    
+    /**
+     * 指定された位置のペアが値aを保持するかを返します。<br>
+     * 
+     * @param index ペアの位置
+     * @return 値aを保持する場合は {@code true}
+     * @throws IndexOutOfBoundsException {@code index} が範囲外の場合
+     */
+    public boolean hasA(int index) {
+        Objects.checkIndex(index, size);
+        
+        return (int) (values[index] >> 32) != ABSENT;
+    }
+    
+    /**
+     * 指定された位置のペアが値bを保持するかを返します。<br>
+     * 
+     * @param index ペアの位置
+     * @return 値bを保持する場合は {@code true}
+     * @throws IndexOutOfBoundsException {@code index} が範囲外の場合
+     */
+    public boolean hasB(int index) {
+        Objects.checkIndex(index, size);
+        
+        return (int) values[index] != ABSENT;
+    }
+    
+    /**
+     * 指定された位置のペアの値aを返します。<br>
+     * 
+     * @param index ペアの位置
+     * @return 値a。値aが無い場合は {@code -1}
+     * @throws IndexOutOfBoundsException {@code index} が範囲外の場合
+     */
+    public int a(int index) {
+        Objects.checkIndex(index, size);
+        
+        return (int) (values[index] >> 32);
+    }
+    
+    /**
+     * 指定された位置のペアの値bを返します。<br>
+     * 
+     * @param index ペアの位置
+     * @return 値b。値bが無い場合は {@code -1}
+     * @throws IndexOutOfBoundsException {@code index} が範囲外の場合
+     */
+    public int b(int index) {
+        Objects.checkIndex(index, size);
+        
+        return (int) values[index];
+    }
+    
+    /**
+     * 値aだけを保持するペアの値aを、リスト内の順に並べた配列を返します。<br>
+     * 
+     * @return 値aだけを保持するペアの値aの配列
+     */
+    public int[] onlyAValues() {
+        int[] result = new int[size];
+        int len = 0;
+        for (int n = 0; n < size; n++) {
+            if ((int) values[n] == ABSENT) {
+                result[len++] = (int) (values[n] >> 32);
+            }
+        }
+        return Arrays.copyOf(result, len);
+    }
+    
+    /**
+     * 値bだけを保持するペアの値bを、リスト内の順に並べた配列を返します。<br>
+     * 
+     * @return 値bだけを保持するペアの値bの配列
+     */
+    public int[] onlyBValues() {
+        int[] result = new int[size];
+        int len = 0;
+        for (int n = 0; n < size; n++) {
+            if ((int) (values[n] >> 32) == ABSENT) {
+                result[len++] = (int) values[n];
+            }
+        }
+        return Arrays.copyOf(result, len);
+    }
+    
+    /**
+     * 値a, 値bをともに保持するペアだけを、リスト内の順に保持するリストを返します。<br>
+     * 
+     * @return 値a, 値bをともに保持するペアのリスト
+     */
+    public IntPairList paired() {
+        long[] result = new long[size];
+        int len = 0;
+        for (int n = 0; n < size; n++) {
+            if ((int) (values[n] >> 32) != ABSENT && (int) values[n] != ABSENT) {
+                result[len++] = values[n];
+            }
+        }
+        return len == size ? this : new IntPairList(result, len);
+    }
+}
@@ -0,0 +1,89 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntBiFunction;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class AffixTrimmingMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    private static final Matcher<Character> gapMatcher = Matcher.simpleMatcherOf();
+    
+    private static final List<Character> list0 = List.of();
+    private static final List<Character> listABXCD = List.of('A', 'B', 'X', 'C', 'D');
+    private static final List<Character> listABYYCD = List.of('A', 'B', 'Y', 'Y', 'C', 'D');
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new AffixTrimmingMatcher<>(null, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new AffixTrimmingMatcher<>(diffEvaluator, null));
+        
+        assertDoesNotThrow(
+                () -> new AffixTrimmingMatcher<>(diffEvaluator, gapMatcher));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        AffixTrimmingMatcher<Character> testee = new AffixTrimmingMatcher<>(diffEvaluator, gapMatcher);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0, list0));
+    }
+    
+    @Test
+    void testMakePairs2_先頭と末尾の切り詰め() {
+        List<List<? extends Character>> middles = new ArrayList<>();
+        AffixTrimmingMatcher<Character> testee = new AffixTrimmingMatcher<>(
+                diffEvaluator,
+                (listA, listB) -> {
+                    middles.add(listA);
+                    middles.add(listB);
+                    return gapMatcher.makePairs(listA, listB);
+                });
+        
+        // 先頭と末尾の等しい要素同士は、挟まれた区間を委ねたマッチャーの結果の前後に置かれる。
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2),
+                        IntPair.onlyB(3),
+                        IntPair.of(3, 4),
+                        IntPair.of(4, 5)),
+                testee.makePairs(listABXCD, listABYYCD));
+        assertEquals(List.of(List.of('X'), List.of('Y', 'Y')), middles);
+        
+        // 一方が他方の先頭部分である場合は、空の区間が委ねられる。
+        middles.clear();
+        assertEquals(
+                List.of(IntPair.of(0, 0), IntPair.of(1, 1), IntPair.onlyB(2)),
+                testee.makePairs(List.of('A', 'B'), List.of('A', 'B', 'A')));
+        assertEquals(List.of(List.of(), List.of('A')), middles);
+        
+        // 切り詰められる要素が無い場合は、リスト全体が委ねられる。
+        middles.clear();
+        testee.makePairs(List.of('X'), List.of('Y'));
+        assertEquals(List.of(List.of('X'), List.of('Y')), middles);
+    }
+}
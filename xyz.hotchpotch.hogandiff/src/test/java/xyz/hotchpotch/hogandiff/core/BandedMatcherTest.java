@@ -0,0 +1,174 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.hotchpotch.hogandiff.core.MatcherTestUtil.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class BandedMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntFunction<Character> gapEvaluator = c -> 1;
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new BandedMatcher<>(null, diffEvaluator));
+        assertThrows(
+                AssertionError.class,
+                () -> new BandedMatcher<>(gapEvaluator, null));
+        assertThrows(
+                AssertionError.class,
+                () -> new BandedMatcher<>(null, null));
+        
+        assertDoesNotThrow(
+                () -> new BandedMatcher<>(gapEvaluator, diffEvaluator));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        BandedMatcher<Character> testee = new BandedMatcher<>(gapEvaluator, diffEvaluator);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        BandedMatcher<Character> testee = new BandedMatcher<>(gapEvaluator, diffEvaluator);
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_異なる内容() {
+        BandedMatcher<Character> testee = new BandedMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<Character> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        
+        // 一方が長さゼロ
+        assertEquals(
+                List.of(
+                        IntPair.onlyB(0),
+                        IntPair.onlyB(1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(list0_1, listABC_1));
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2)),
+                testee.makePairs(listABC_1, list0_1));
+        
+        // 一般
+        assertEquals(
+                expected.makePairs(listKITTEN, listSITTING),
+                testee.makePairs(listKITTEN, listSITTING));
+        assertEquals(
+                expected.makePairs(listSITTING, listKITTEN),
+                testee.makePairs(listSITTING, listKITTEN));
+    }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_帯状探索() {
+        BandedMatcher<Character> testee = new BandedMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<Character> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        Random random = new Random(0);
+        
+        // 余剰要素の少ない長いリストで、全体を探索した場合と同じ組み合わせが得られることを確認する。
+        for (int edits : new int[] { 0, 5, 30, 200 }) {
+            List<Character> listA = IntStream.range(0, 2000)
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            List<Character> listB = new ArrayList<>(listA);
+            for (int n = 0; n < edits; n++) {
+                int idx = random.nextInt(listB.size());
+                switch (random.nextInt(3)) {
+                case 0 -> listB.add(idx, (char) ('A' + random.nextInt(4)));
+                case 1 -> listB.remove(idx);
+                default -> listB.set(idx, (char) ('A' + random.nextInt(4)));
+                }
+            }
+            
+            List<IntPair> actual = testee.makePairs(listA, listB);
+            
+            assertEquals(
+                    expected.makePairs(listA, listB),
+                    actual);
+        }
+    }
+    
+    @Test
+    void testMakePairs5_マッチングロジック_余剰コストがゼロの要素() {
+        AtomicInteger count = new AtomicInteger();
+        ToIntFunction<String> gapEvaluator = String::length;
+        ToIntBiFunction<String, String> diffEvaluator = (s1, s2) -> {
+            count.incrementAndGet();
+            return StringDiffUtil.levenshteinDistance(s1, s2);
+        };
+        BandedMatcher<String> testee = new BandedMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<String> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        
+        // 余剰コストがゼロの要素（空文字列）を含むリスト同士
+        List<String> middle = IntStream.range(0, 398).mapToObj(i -> "s" + i).toList();
+        List<String> listA = new ArrayList<>();
+        listA.add("");
+        listA.addAll(middle);
+        listA.add("x");
+        List<String> listB = new ArrayList<>();
+        listB.add("y");
+        listB.addAll(middle);
+        listB.add("");
+        
+        List<IntPair> actual = testee.makePairs(listA, listB);
+        
+        // 最初の帯の中で探索を終え、エディットグラフ全体を評価しない。
+        assertTrue(count.get() < listA.size() * listB.size() / 4, "count: " + count.get());
+        assertEquals(
+                expected.makePairs(listA, listB),
+                actual);
+    }
+}
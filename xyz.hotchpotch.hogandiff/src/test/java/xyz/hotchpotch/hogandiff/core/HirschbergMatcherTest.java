@@ -0,0 +1,149 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.hotchpotch.hogandiff.core.MatcherTestUtil.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class HirschbergMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntFunction<Character> gapEvaluator = c -> 1;
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    
+    private static long totalCost(
+            List<Character> listA,
+            List<Character> listB,
+            List<IntPair> pairs) {
+        
+        return pairs.stream()
+                .mapToLong(p -> p.isPaired()
+                        ? diffEvaluator.applyAsInt(listA.get(p.a()), listB.get(p.b()))
+                        : p.hasA()
+                                ? gapEvaluator.applyAsInt(listA.get(p.a()))
+                                : gapEvaluator.applyAsInt(listB.get(p.b())))
+                .sum();
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new HirschbergMatcher<>(null, diffEvaluator));
+        assertThrows(
+                AssertionError.class,
+                () -> new HirschbergMatcher<>(gapEvaluator, null));
+        assertThrows(
+                AssertionError.class,
+                () -> new HirschbergMatcher<>(null, null));
+        
+        assertDoesNotThrow(
+                () -> new HirschbergMatcher<>(gapEvaluator, diffEvaluator));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        HirschbergMatcher<Character> testee = new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        HirschbergMatcher<Character> testee = new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_異なる内容() {
+        HirschbergMatcher<Character> testee = new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<Character> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        
+        // 一方が長さゼロ
+        assertEquals(
+                List.of(
+                        IntPair.onlyB(0),
+                        IntPair.onlyB(1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(list0_1, listABC_1));
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2)),
+                testee.makePairs(listABC_1, list0_1));
+        
+        // 一般
+        assertEquals(
+                totalCost(listKITTEN, listSITTING, expected.makePairs(listKITTEN, listSITTING)),
+                totalCost(listKITTEN, listSITTING, testee.makePairs(listKITTEN, listSITTING)));
+        assertEquals(
+                totalCost(listSITTING, listKITTEN, expected.makePairs(listSITTING, listKITTEN)),
+                totalCost(listSITTING, listKITTEN, testee.makePairs(listSITTING, listKITTEN)));
+    }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_分割統治() {
+        HirschbergMatcher<Character> testee = new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<Character> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        Random random = new Random(0);
+        
+        // 分割が発生する程度に長いリストで、最小コストが一致することを確認する。
+        for (int[] sizes : new int[][] { { 700, 650 }, { 300, 1000 }, { 1200, 90 } }) {
+            List<Character> listA = IntStream.range(0, sizes[0])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            List<Character> listB = IntStream.range(0, sizes[1])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            
+            List<IntPair> actual = testee.makePairs(listA, listB);
+            
+            assertValidRoute(listA, listB, actual);
+            assertEquals(
+                    totalCost(listA, listB, expected.makePairs(listA, listB)),
+                    totalCost(listA, listB, actual));
+        }
+    }
+}
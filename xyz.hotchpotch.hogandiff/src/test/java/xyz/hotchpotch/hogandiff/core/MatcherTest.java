@@ -2,6 +2,7 @@ package xyz.hotchpotch.hogandiff.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Comparator;
 import java.util.function.ToIntBiFunction;
 import java.util.function.ToIntFunction;
 
@@ -44,6 +45,105 @@ class MatcherTest {
                         diffEvaluator) instanceof MinimumEditDistanceMatcher2);
     }
     
+    @Test
+    void testHirschbergMatcherOf() {
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.hirschbergMatcherOf(null, diffEvaluator));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.hirschbergMatcherOf(gapEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.hirschbergMatcherOf(null, null));
+        assertDoesNotThrow(
+                () -> Matcher.hirschbergMatcherOf(gapEvaluator, diffEvaluator));
+        
+        assertTrue(
+                Matcher.hirschbergMatcherOf(gapEvaluator, diffEvaluator) instanceof HirschbergMatcher);
+    }
+    
+    @Test
+    void testBandedMatcherOf() {
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.bandedMatcherOf(null, diffEvaluator));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.bandedMatcherOf(gapEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.bandedMatcherOf(null, null));
+        assertDoesNotThrow(
+                () -> Matcher.bandedMatcherOf(gapEvaluator, diffEvaluator));
+        
+        assertTrue(
+                Matcher.bandedMatcherOf(gapEvaluator, diffEvaluator) instanceof BandedMatcher);
+    }
+    
+    @Test
+    void testMyersMatcherOf() {
+        Matcher<String> gapMatcher = Matcher.simpleMatcherOf();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(null, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(diffEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(null, null));
+        assertDoesNotThrow(
+                () -> Matcher.myersMatcherOf(diffEvaluator, gapMatcher));
+        
+        assertTrue(
+                Matcher.myersMatcherOf(diffEvaluator, gapMatcher) instanceof MyersMatcher);
+        
+        ToIntFunction<String> hashEvaluator = String::hashCode;
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(null, hashEvaluator, diffEvaluator, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(gapEvaluator, null, diffEvaluator, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(gapEvaluator, hashEvaluator, null, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.myersMatcherOf(gapEvaluator, hashEvaluator, diffEvaluator, null));
+        assertDoesNotThrow(
+                () -> Matcher.myersMatcherOf(gapEvaluator, hashEvaluator, diffEvaluator, gapMatcher));
+        
+        assertTrue(
+                Matcher.myersMatcherOf(gapEvaluator, hashEvaluator, diffEvaluator, gapMatcher) instanceof MyersMatcher);
+    }
+    
+    @Test
+    void testPatienceMatcherOf() {
+        ToIntFunction<String> hashEvaluator = String::hashCode;
+        Matcher<String> gapMatcher = Matcher.simpleMatcherOf();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.patienceMatcherOf(null, diffEvaluator, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.patienceMatcherOf(hashEvaluator, null, gapMatcher));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.patienceMatcherOf(hashEvaluator, diffEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.patienceMatcherOf(null, null, null));
+        assertDoesNotThrow(
+                () -> Matcher.patienceMatcherOf(hashEvaluator, diffEvaluator, gapMatcher));
+        
+        assertTrue(
+                Matcher.patienceMatcherOf(hashEvaluator, diffEvaluator, gapMatcher) instanceof PatienceMatcher);
+    }
+    
     @Test
     void testNerutonMatcherOf() {
         assertThrows(
@@ -61,4 +161,60 @@ class MatcherTest {
         assertTrue(
                 Matcher.nerutonMatcherOf(gapEvaluator, diffEvaluator) instanceof NerutonMatcher);
     }
+    
+    @Test
+    void testBoundedNerutonMatcherOf() {
+        BoundedDiffEvaluator<String> boundedDiffEvaluator = StringDiffUtil::levenshteinDistance;
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(null, boundedDiffEvaluator));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(gapEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(null, null));
+        assertDoesNotThrow(
+                () -> Matcher.boundedNerutonMatcherOf(gapEvaluator, boundedDiffEvaluator));
+        
+        assertTrue(
+                Matcher.boundedNerutonMatcherOf(gapEvaluator, boundedDiffEvaluator) instanceof NerutonMatcher);
+    }
+    
+    @Test
+    void testBoundedNerutonMatcherOf2() {
+        BoundedDiffEvaluator<String> boundedDiffEvaluator = StringDiffUtil::levenshteinDistance;
+        CandidateFilter<String> candidateFilter = CandidateFilter.qGramFilter();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(null, boundedDiffEvaluator, candidateFilter));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(gapEvaluator, null, candidateFilter));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(gapEvaluator, boundedDiffEvaluator, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.boundedNerutonMatcherOf(null, null, null));
+        assertDoesNotThrow(
+                () -> Matcher.boundedNerutonMatcherOf(gapEvaluator, boundedDiffEvaluator, candidateFilter));
+        
+        assertTrue(
+                Matcher.boundedNerutonMatcherOf(gapEvaluator, boundedDiffEvaluator, candidateFilter) instanceof NerutonMatcher);
+    }
+    
+    @Test
+    void testSortedIdentityMatcherOf() {
+        assertThrows(
+                NullPointerException.class,
+                () -> Matcher.sortedIdentityMatcherOf(null));
+        assertDoesNotThrow(
+                () -> Matcher.sortedIdentityMatcherOf(Comparator.naturalOrder()));
+        
+        assertTrue(
+                Matcher.sortedIdentityMatcherOf(Comparator.naturalOrder()) instanceof SortedIdentityMatcher);
+    }
 }
@@ -0,0 +1,56 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+/**
+ * マッチャーのテストで共通に用いるリストと検証メソッドを提供します。<br>
+ * 
+ * @author nmby
+ */
+/*package*/ class MatcherTestUtil {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    /*package*/ static final List<Character> list0_1 = List.of();
+    /*package*/ static final List<Character> list0_2 = new ArrayList<>();
+    /*package*/ static final List<Character> listABC_1 = List.of('A', 'B', 'C');
+    /*package*/ static final List<Character> listABC_2 = List.of('A', 'B', 'C');
+    /*package*/ static final List<Character> listKITTEN = List.of('K', 'I', 'T', 'T', 'E', 'N');
+    /*package*/ static final List<Character> listSITTING = List.of('S', 'I', 'T', 'T', 'I', 'N', 'G');
+    
+    /**
+     * 対応関係が、両リストの全ての要素をインデックスの順にちょうど一度ずつ含むことを確認します。<br>
+     * 
+     * @param listA リストA
+     * @param listB リストB
+     * @param pairs 対応関係
+     */
+    /*package*/ static void assertValidRoute(
+            List<?> listA,
+            List<?> listB,
+            List<IntPair> pairs) {
+        
+        int a = 0;
+        int b = 0;
+        for (IntPair p : pairs) {
+            if (p.hasA()) {
+                assertEquals(a++, p.a());
+            }
+            if (p.hasB()) {
+                assertEquals(b++, p.b());
+            }
+        }
+        assertEquals(listA.size(), a);
+        assertEquals(listB.size(), b);
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private MatcherTestUtil() {
+    }
+}
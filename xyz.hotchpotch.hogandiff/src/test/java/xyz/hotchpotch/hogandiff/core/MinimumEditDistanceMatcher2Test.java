@@ -4,8 +4,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.function.ToIntBiFunction;
 import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -25,6 +27,20 @@ class MinimumEditDistanceMatcher2Test {
     private static final List<Character> listKITTEN = List.of('K', 'I', 'T', 'T', 'E', 'N');
     private static final List<Character> listSITTING = List.of('S', 'I', 'T', 'T', 'I', 'N', 'G');
     
+    private static long totalCost(
+            List<Character> listA,
+            List<Character> listB,
+            List<IntPair> pairs) {
+        
+        return pairs.stream()
+                .mapToLong(p -> p.isPaired()
+                        ? diffEvaluator.applyAsInt(listA.get(p.a()), listB.get(p.b()))
+                        : p.hasA()
+                                ? gapEvaluator.applyAsInt(listA.get(p.a()))
+                                : gapEvaluator.applyAsInt(listB.get(p.b())))
+                .sum();
+    }
+    
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
     @Test
@@ -138,4 +154,61 @@ class MinimumEditDistanceMatcher2Test {
                         IntPair.onlyA(6)),
                 testee.makePairs(listSITTING, listKITTEN));
     }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_長いリスト() {
+        MinimumEditDistanceMatcher2<Character> testee = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        HirschbergMatcher<Character> expected = new HirschbergMatcher<>(gapEvaluator, diffEvaluator);
+        Random random = new Random(0);
+        
+        // 斜めのスライスが複数タスクに分割される程度に長いリストで、最小コストが一致することを確認する。
+        for (int[] sizes : new int[][] { { 2500, 2600 }, { 3000, 200 }, { 150, 2800 } }) {
+            List<Character> listA = IntStream.range(0, sizes[0])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            List<Character> listB = IntStream.range(0, sizes[1])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            
+            List<IntPair> actual = testee.makePairs(listA, listB);
+            
+            assertEquals(
+                    IntStream.range(0, sizes[0]).boxed().toList(),
+                    actual.stream().filter(IntPair::hasA).map(IntPair::a).toList());
+            assertEquals(
+                    IntStream.range(0, sizes[1]).boxed().toList(),
+                    actual.stream().filter(IntPair::hasB).map(IntPair::b).toList());
+            assertEquals(
+                    totalCost(listA, listB, expected.makePairs(listA, listB)),
+                    totalCost(listA, listB, actual));
+        }
+    }
+    
+    @Test
+    void testMakePairs5_マッチングロジック_先頭末尾の共通部分() {
+        MinimumEditDistanceMatcher2<Character> testee = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        
+        // 先頭と末尾の等しい要素同士はそのまま対応付けられ、その間の区間のみが探索される。
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2),
+                        IntPair.onlyA(3),
+                        IntPair.onlyA(4),
+                        IntPair.onlyB(3),
+                        IntPair.of(5, 4),
+                        IntPair.of(6, 5)),
+                testee.makePairs(
+                        List.of('A', 'B', 'C', 'x', 'y', 'D', 'E'),
+                        List.of('A', 'B', 'C', 'q', 'D', 'E')));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.onlyB(2),
+                        IntPair.onlyB(3),
+                        IntPair.of(2, 4)),
+                testee.makePairs(
+                        List.of('A', 'B', 'C'),
+                        List.of('A', 'B', 'x', 'y', 'C')));
+    }
 }
@@ -0,0 +1,278 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.hotchpotch.hogandiff.core.MatcherTestUtil.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class MyersMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntFunction<Character> gapEvaluator = c -> 1;
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    private static final Matcher<Character> gapMatcher = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+    
+    private static int lcsLength(List<Character> listA, List<Character> listB) {
+        int[][] lcs = new int[listA.size() + 1][listB.size() + 1];
+        for (int i = 1; i <= listA.size(); i++) {
+            for (int j = 1; j <= listB.size(); j++) {
+                lcs[i][j] = listA.get(i - 1).equals(listB.get(j - 1))
+                        ? lcs[i - 1][j - 1] + 1
+                        : Math.max(lcs[i - 1][j], lcs[i][j - 1]);
+            }
+        }
+        return lcs[listA.size()][listB.size()];
+    }
+    
+    /** 列ごとの値（ゼロは空のセル）で表した行の、空でないセルの数を余剰コストとする評価関数 */
+    private static final ToIntFunction<int[]> rowGapEvaluator = row -> (int) Arrays.stream(row)
+            .filter(v -> v != 0).count();
+    
+    /** 行同士の、一方にだけ存在するセルの数を差分コストとする評価関数 */
+    private static final ToIntBiFunction<int[], int[]> rowDiffEvaluator = (row1, row2) -> {
+        int cost = 0;
+        for (int i = 0; i < row1.length; i++) {
+            if (row1[i] != row2[i]) {
+                cost += (row1[i] != 0 ? 1 : 0) + (row2[i] != 0 ? 1 : 0);
+            }
+        }
+        return cost;
+    };
+    
+    private static int[] randomRow(Random random, int columns) {
+        return IntStream.range(0, columns)
+                .map(i -> random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(5))
+                .toArray();
+    }
+    
+    /** 行同士の組み合わせの、余剰コストと差分コストの合計を返します。 */
+    private static long cost(
+            List<int[]> listA,
+            List<int[]> listB,
+            List<IntPair> pairs) {
+        
+        return pairs.stream()
+                .mapToLong(p -> p.isPaired()
+                        ? rowDiffEvaluator.applyAsInt(listA.get(p.a()), listB.get(p.b()))
+                        : p.isOnlyA()
+                                ? rowGapEvaluator.applyAsInt(listA.get(p.a()))
+                                : rowGapEvaluator.applyAsInt(listB.get(p.b())))
+                .sum();
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        ToIntFunction<Character> hashEvaluator = Object::hashCode;
+        
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(null, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(diffEvaluator, null));
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(null, null));
+        
+        assertDoesNotThrow(
+                () -> new MyersMatcher<>(diffEvaluator, gapMatcher));
+        
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(null, hashEvaluator, diffEvaluator, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(gapEvaluator, null, diffEvaluator, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(gapEvaluator, hashEvaluator, null, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new MyersMatcher<>(gapEvaluator, hashEvaluator, diffEvaluator, null));
+        
+        assertDoesNotThrow(
+                () -> new MyersMatcher<>(gapEvaluator, hashEvaluator, diffEvaluator, gapMatcher));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        MyersMatcher<Character> testee = new MyersMatcher<>(diffEvaluator, gapMatcher);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        MyersMatcher<Character> testee = new MyersMatcher<>(diffEvaluator, gapMatcher);
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_異なる内容() {
+        MyersMatcher<Character> testee = new MyersMatcher<>(diffEvaluator, gapMatcher);
+        
+        // 一方が長さゼロ
+        assertEquals(
+                List.of(
+                        IntPair.onlyB(0),
+                        IntPair.onlyB(1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(list0_1, listABC_1));
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2)),
+                testee.makePairs(listABC_1, list0_1));
+        
+        // 一般
+        // K ITTE N
+        //   |||  |
+        //  SITT ING
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyB(0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2),
+                        IntPair.of(3, 3),
+                        IntPair.onlyA(4),
+                        IntPair.onlyB(4),
+                        IntPair.of(5, 5),
+                        IntPair.onlyB(6)),
+                testee.makePairs(listKITTEN, listSITTING));
+        
+        // 等しい要素同士に挟まれた区間は、指定されたマッチャーで対応付けられる。
+        MyersMatcher<Character> testee2 = new MyersMatcher<>(
+                diffEvaluator,
+                Matcher.simpleMatcherOf());
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2),
+                        IntPair.of(3, 3),
+                        IntPair.of(4, 4),
+                        IntPair.of(5, 5),
+                        IntPair.onlyB(6)),
+                testee2.makePairs(listKITTEN, listSITTING));
+    }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_最長共通部分列() {
+        MyersMatcher<Character> testee = new MyersMatcher<>(
+                diffEvaluator,
+                Matcher.simpleMatcherOf());
+        Random random = new Random(0);
+        
+        for (int[] sizes : new int[][] { { 50, 60 }, { 300, 280 }, { 10, 200 } }) {
+            List<Character> listA = IntStream.range(0, sizes[0])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            List<Character> listB = IntStream.range(0, sizes[1])
+                    .mapToObj(i -> (char) ('A' + random.nextInt(4))).toList();
+            
+            List<IntPair> actual = testee.makePairs(listA, listB);
+            
+            assertEquals(
+                    IntStream.range(0, sizes[0]).boxed().toList(),
+                    actual.stream().filter(IntPair::hasA).map(IntPair::a).toList());
+            assertEquals(
+                    IntStream.range(0, sizes[1]).boxed().toList(),
+                    actual.stream().filter(IntPair::hasB).map(IntPair::b).toList());
+            assertTrue(lcsLength(listA, listB) <= actual.stream()
+                    .filter(IntPair::isPaired)
+                    .filter(p -> listA.get(p.a()).equals(listB.get(p.b())))
+                    .count());
+        }
+    }
+    
+    @Test
+    void testMakePairs5_マッチングロジック_情報量の少ない要素() {
+        Matcher<int[]> expected = new MinimumEditDistanceMatcher2<>(rowGapEvaluator, rowDiffEvaluator);
+        MyersMatcher<int[]> testee = new MyersMatcher<>(
+                rowGapEvaluator, Arrays::hashCode, rowDiffEvaluator, expected);
+        MyersMatcher<int[]> unrestricted = new MyersMatcher<>(rowDiffEvaluator, expected);
+        Random random = new Random(0);
+        
+        // 空の行（余剰コストがゼロ）や繰り返し現れる行を多く含むシート同士で、
+        // 編集距離が最小となる対応付けと同じコストの対応付けが得られることを確認する。
+        long totalExpected = 0;
+        long totalUnrestricted = 0;
+        for (int n = 0; n < 300; n++) {
+            int columns = 2 + random.nextInt(6);
+            int[] repeated = randomRow(random, columns);
+            List<int[]> listA = IntStream.range(0, 20 + random.nextInt(60))
+                    .mapToObj(i -> switch (random.nextInt(10)) {
+                    case 0, 1 -> new int[columns];
+                    case 2 -> repeated.clone();
+                    default -> randomRow(random, columns);
+                    })
+                    .toList();
+            List<int[]> listB = new ArrayList<>(listA.stream().map(int[]::clone).toList());
+            for (int edits = 1 + random.nextInt(8); 0 < edits; edits--) {
+                int idx = random.nextInt(listB.size());
+                switch (random.nextInt(3)) {
+                case 0 -> listB.add(idx, random.nextBoolean() ? new int[columns] : randomRow(random, columns));
+                case 1 -> listB.remove(idx);
+                default -> listB.get(idx)[random.nextInt(columns)] = random.nextInt(6);
+                }
+            }
+            
+            long expectedCost = cost(listA, listB, expected.makePairs(listA, listB));
+            
+            assertEquals(
+                    expectedCost,
+                    cost(listA, listB, testee.makePairs(listA, listB)));
+            totalExpected += expectedCost;
+            totalUnrestricted += cost(listA, listB, unrestricted.makePairs(listA, listB));
+        }
+        
+        // 全ての等しい要素同士を目印とすると、最小コストの対応付けから外れる場合がある。
+        assertTrue(totalExpected < totalUnrestricted);
+    }
+}
@@ -3,9 +3,12 @@ package xyz.hotchpotch.hogandiff.core;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.function.ToIntBiFunction;
 import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -161,4 +164,79 @@ class NerutonMatcherTest {
                         IntPair.onlyB(2)),
                 testee.makePairs(listBB_1, listABC_1));
     }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_先頭末尾の共通部分() {
+        NerutonMatcher<String> testee = new NerutonMatcher<>(gapEvaluator, diffEvaluator);
+        
+        // 先頭と末尾の等しい要素同士を省いても、全ての組み合わせを評価した場合と同じ順序で対応付けが確定する。
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(2, 2),
+                        IntPair.of(3, 3),
+                        IntPair.onlyA(1),
+                        IntPair.onlyB(1)),
+                testee.makePairs(
+                        List.of("P", "Q", "R", "S"),
+                        List.of("P", "X", "R", "S")));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(2, 1),
+                        IntPair.onlyA(1)),
+                testee.makePairs(
+                        List.of("P", "Q", "R"),
+                        List.of("P", "R")));
+    }
+    
+    @Test
+    void testMakePairs5_マッチングロジック_差分コストの評価打ち切り() {
+        NerutonMatcher<String> expected = new NerutonMatcher<>(gapEvaluator, diffEvaluator);
+        NerutonMatcher<String> testee = NerutonMatcher.of(gapEvaluator, StringDiffUtil::levenshteinDistance);
+        Random random = new Random(0);
+        
+        // 評価を打ち切っても、全ての差分コストを評価した場合と同じ組み合わせが得られる。
+        for (int n = 0; n < 50; n++) {
+            List<String> listA = IntStream.range(0, random.nextInt(15))
+                    .mapToObj(i -> "s" + random.nextInt(30)).toList();
+            List<String> listB = IntStream.range(0, random.nextInt(15))
+                    .mapToObj(i -> "s" + random.nextInt(30)).toList();
+            
+            assertEquals(
+                    expected.makePairs(listA, listB),
+                    testee.makePairs(listA, listB));
+        }
+    }
+    
+    @Test
+    void testMakePairs6_マッチングロジック_候補の絞り込み() {
+        NerutonMatcher<String> testee = NerutonMatcher.of(
+                gapEvaluator,
+                StringDiffUtil::levenshteinDistance,
+                (listA, listB) -> new int[][] { { 1 }, { 0, 1 }, {} });
+        
+        // 候補とならなかった要素同士は対応付けられない。
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 1),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2),
+                        IntPair.onlyB(0)),
+                testee.makePairs(
+                        List.of("Y", "Z", "X"),
+                        List.of("X", "Y")));
+    }
+    
+    @Test
+    void testMakePairs7_組み合わせが多すぎる場合() {
+        NerutonMatcher<String> testee = new NerutonMatcher<>(gapEvaluator, diffEvaluator);
+        
+        // 優先順位を表現できない場合は、順位値を桁あふれさせずに例外をスローする。
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testee.makePairs(
+                        Collections.nCopies(50_000, "X"),
+                        Collections.nCopies(50_000, "Y")));
+    }
 }
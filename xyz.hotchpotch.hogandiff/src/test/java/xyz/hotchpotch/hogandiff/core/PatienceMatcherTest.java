@@ -0,0 +1,181 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.hotchpotch.hogandiff.core.MatcherTestUtil.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class PatienceMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntFunction<Character> gapEvaluator = c -> 1;
+    private static final ToIntFunction<Character> hashEvaluator = c -> c.hashCode();
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    private static final Matcher<Character> gapMatcher = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new PatienceMatcher<>(null, diffEvaluator, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new PatienceMatcher<>(hashEvaluator, null, gapMatcher));
+        assertThrows(
+                AssertionError.class,
+                () -> new PatienceMatcher<>(hashEvaluator, diffEvaluator, null));
+        assertThrows(
+                AssertionError.class,
+                () -> new PatienceMatcher<>(null, null, null));
+        
+        assertDoesNotThrow(
+                () -> new PatienceMatcher<>(hashEvaluator, diffEvaluator, gapMatcher));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        PatienceMatcher<Character> testee = new PatienceMatcher<>(hashEvaluator, diffEvaluator, gapMatcher);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        PatienceMatcher<Character> testee = new PatienceMatcher<>(hashEvaluator, diffEvaluator, gapMatcher);
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_異なる内容() {
+        PatienceMatcher<Character> testee = new PatienceMatcher<>(
+                hashEvaluator,
+                diffEvaluator,
+                Matcher.simpleMatcherOf());
+        
+        // 一方が長さゼロ
+        assertEquals(
+                List.of(
+                        IntPair.onlyB(0),
+                        IntPair.onlyB(1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(list0_1, listABC_1));
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2)),
+                testee.makePairs(listABC_1, list0_1));
+        
+        // 一意な要素同士が目印となり、その間の区間が指定されたマッチャーで対応付けられる。
+        //   X x a Y b
+        //   |     | |
+        //   X c   Y b d
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.onlyA(2),
+                        IntPair.of(3, 2),
+                        IntPair.of(4, 3),
+                        IntPair.onlyB(4)),
+                testee.makePairs(
+                        List.of('X', 'x', 'a', 'Y', 'b'),
+                        List.of('X', 'c', 'Y', 'b', 'd')));
+        
+        // 順序が入れ替わった一意な要素同士は、多い方の並びが目印として採用される。
+        //   P Q R S
+        //     | |
+        //   S Q R P
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2),
+                        IntPair.of(3, 3)),
+                testee.makePairs(
+                        List.of('P', 'Q', 'R', 'S'),
+                        List.of('S', 'Q', 'R', 'P')));
+        
+        // 重複する要素は目印とならない。
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(
+                        List.of('A', 'A'),
+                        List.of('B', 'A', 'A')));
+    }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_長いリスト() {
+        PatienceMatcher<Character> testee = new PatienceMatcher<>(hashEvaluator, diffEvaluator, gapMatcher);
+        Random random = new Random(0);
+        
+        for (int edits : new int[] { 0, 5, 30, 200 }) {
+            List<Character> listA = IntStream.range(0, 2000)
+                    .mapToObj(i -> (char) ('A' + random.nextInt(1000))).toList();
+            List<Character> listB = new ArrayList<>(listA);
+            for (int n = 0; n < edits; n++) {
+                int idx = random.nextInt(listB.size());
+                switch (random.nextInt(3)) {
+                case 0 -> listB.add(idx, (char) ('A' + random.nextInt(1000)));
+                case 1 -> listB.remove(idx);
+                default -> listB.set(idx, (char) ('A' + random.nextInt(1000)));
+                }
+            }
+            
+            List<IntPair> actual = testee.makePairs(listA, listB);
+            
+            assertValidRoute(listA, listB, actual);
+            assertTrue(listA.size() - 2 * edits <= actual.stream()
+                    .filter(IntPair::isPaired)
+                    .filter(p -> listA.get(p.a()).equals(listB.get(p.b())))
+                    .count());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class QGramCandidateFilterTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testCandidates1_パラメータチェック() {
+        QGramCandidateFilter testee = new QGramCandidateFilter();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.candidates(null, List.of()));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.candidates(List.of(), null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.candidates(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.candidates(List.of(), List.of()));
+    }
+    
+    @Test
+    void testCandidates2_組み合わせが少ない場合() {
+        QGramCandidateFilter testee = new QGramCandidateFilter();
+        
+        // 組み合わせが少ない場合は、全ての組み合わせが候補となる。
+        int[][] actual = testee.candidates(
+                List.of("abc", "xyz"),
+                List.of("abc", "def", "ghi"));
+        
+        assertEquals(2, actual.length);
+        assertArrayEquals(new int[] { 0, 1, 2 }, actual[0]);
+        assertArrayEquals(new int[] { 0, 1, 2 }, actual[1]);
+    }
+    
+    @Test
+    void testCandidates3_組み合わせが多い場合() {
+        QGramCandidateFilter testee = new QGramCandidateFilter();
+        Random random = new Random(0);
+        
+        List<String> listA = IntStream.range(0, 1000)
+                .mapToObj(i -> "book_%06d.xlsx".formatted(random.nextInt(1_000_000)))
+                .toList();
+        List<String> listB = IntStream.range(0, 1000)
+                .mapToObj(i -> random.nextInt(10) == 0
+                        ? "book_%06d.xlsx".formatted(random.nextInt(1_000_000))
+                        : listA.get(i).replace(".xlsx", "_v2.xlsx"))
+                .toList();
+        
+        int[][] actual = testee.candidates(listA, listB);
+        
+        assertEquals(listA.size(), actual.length);
+        for (int i = 0; i < listA.size(); i++) {
+            // 候補は昇順に並び、重複を含まない。
+            int[] candidates = actual[i];
+            assertArrayEquals(Arrays.stream(candidates).sorted().distinct().toArray(), candidates);
+            
+            // 名前の似ている相手は候補に含まれる。
+            if (listB.get(i).startsWith(listA.get(i).replace(".xlsx", ""))) {
+                int j = i;
+                assertTrue(Arrays.stream(candidates).anyMatch(c -> c == j));
+            }
+        }
+        
+        // 候補の総数は、各文字列から見た上位の相手文字列の数の合計を超えない。
+        assertTrue(Arrays.stream(actual).mapToInt(cs -> cs.length).sum() <= 8 * (listA.size() + listB.size()));
+    }
+}
@@ -0,0 +1,149 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class SortedIdentityMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final List<String> list0_1 = List.of();
+    private static final List<String> list0_2 = new ArrayList<>();
+    private static final List<String> listABC_1 = List.of("A", "B", "C");
+    private static final List<String> listABC_2 = List.of("A", "B", "C");
+    private static final List<String> listAXX_1 = List.of("A", "X", "X");
+    private static final List<String> listBCA_1 = List.of("B", "C", "A");
+    private static final List<String> listABXYZ_1 = List.of("A", "B", "X", "Y", "Z");
+    private static final List<String> listBCD_1 = List.of("B", "C", "D");
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        SortedIdentityMatcher<String> testee = new SortedIdentityMatcher<>(Comparator.naturalOrder());
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック_重複要素あり_昇順でない() {
+        SortedIdentityMatcher<String> testee = new SortedIdentityMatcher<>(Comparator.naturalOrder());
+        
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testee.makePairs(listABC_1, listAXX_1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testee.makePairs(listAXX_1, listABC_1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testee.makePairs(listABC_1, listBCA_1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> testee.makePairs(listBCA_1, listABC_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        SortedIdentityMatcher<String> testee = new SortedIdentityMatcher<>(Comparator.naturalOrder());
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_異なる内容() {
+        SortedIdentityMatcher<String> testee = new SortedIdentityMatcher<>(Comparator.naturalOrder());
+        
+        // 一方が長さゼロ
+        assertEquals(
+                List.of(
+                        IntPair.onlyB(0),
+                        IntPair.onlyB(1),
+                        IntPair.onlyB(2)),
+                testee.makePairs(list0_1, listABC_1));
+        assertEquals(
+                List.of(
+                        IntPair.onlyA(0),
+                        IntPair.onlyA(1),
+                        IntPair.onlyA(2)),
+                testee.makePairs(listABC_1, list0_1));
+        
+        // ギャップあり
+        assertEquals(
+                List.of(
+                        IntPair.of(1, 0),
+                        IntPair.of(2, 1),
+                        IntPair.onlyA(0),
+                        IntPair.onlyB(2)),
+                testee.makePairs(listABC_1, listBCD_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.onlyA(2),
+                        IntPair.onlyB(2),
+                        IntPair.onlyB(3),
+                        IntPair.onlyB(4)),
+                testee.makePairs(listABC_1, listABXYZ_1));
+    }
+    
+    @Test
+    void testMakePairs4_マッチングロジック_IdentityMatcherとの比較() {
+        SortedIdentityMatcher<String> testee = new SortedIdentityMatcher<>(Comparator.naturalOrder());
+        IdentityMatcher<String> expected = new IdentityMatcher<>();
+        Random random = new Random(0);
+        
+        for (int n = 0; n < 100; n++) {
+            List<String> listA = IntStream.range(0, random.nextInt(50))
+                    .mapToObj(i -> "book%03d.xlsx".formatted(random.nextInt(100)))
+                    .sorted().distinct().toList();
+            List<String> listB = IntStream.range(0, random.nextInt(50))
+                    .mapToObj(i -> "book%03d.xlsx".formatted(random.nextInt(100)))
+                    .sorted().distinct().toList();
+            
+            assertEquals(
+                    expected.makePairs(listA, listB),
+                    testee.makePairs(listA, listB));
+        }
+    }
+}
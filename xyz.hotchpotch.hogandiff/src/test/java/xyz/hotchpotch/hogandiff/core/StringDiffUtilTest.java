@@ -2,12 +2,36 @@ package xyz.hotchpotch.hogandiff.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 class StringDiffUtilTest {
     
     // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
+    private static String randomString(Random random, int len) {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < len; i++) {
+            str.append((char) ('a' + random.nextInt(4)));
+        }
+        return str.toString();
+    }
+    
+    private static int naiveDistance(String str1, String str2) {
+        int[][] d = new int[str1.length() + 1][str2.length() + 1];
+        for (int i = 0; i <= str1.length(); i++) {
+            for (int j = 0; j <= str2.length(); j++) {
+                d[i][j] = i == 0 || j == 0
+                        ? i + j
+                        : str1.charAt(i - 1) == str2.charAt(j - 1)
+                                ? d[i - 1][j - 1]
+                                : Math.min(d[i - 1][j], d[i][j - 1]) + 1;
+            }
+        }
+        return d[str1.length()][str2.length()];
+    }
+    
     // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
     
     @Test
@@ -55,4 +79,55 @@ class StringDiffUtilTest {
         assertEquals(4, StringDiffUtil.levenshteinDistance("abcd", "bxde"));
         assertEquals(10, StringDiffUtil.levenshteinDistance("abcde", "vwxyz"));
     }
+    
+    @Test
+    void testLevenshteinDistance4_長い文字列() {
+        Random random = new Random(0);
+        
+        // ビット並列版（64文字以下）と動的計画法版（65文字以上）の双方を確認する。
+        for (int len : new int[] { 1, 10, 63, 64, 65, 200 }) {
+            for (int n = 0; n < 20; n++) {
+                String str1 = randomString(random, len);
+                String str2 = randomString(random, random.nextInt(len * 2 + 1));
+                
+                assertEquals(
+                        naiveDistance(str1, str2),
+                        StringDiffUtil.levenshteinDistance(str1, str2));
+                assertEquals(
+                        naiveDistance(str1, str2),
+                        StringDiffUtil.levenshteinDistance(str2, str1));
+            }
+        }
+        
+        // サロゲートペア
+        assertEquals(2, StringDiffUtil.levenshteinDistance("a\uD83D\uDE00b", "a\uD83D\uDE01b"));
+    }
+    
+    @Test
+    void testLevenshteinDistance5_上限値() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> StringDiffUtil.levenshteinDistance("abc", "abd", -1));
+        
+        assertEquals(0, StringDiffUtil.levenshteinDistance("abc", "abc", 0));
+        assertEquals(1, StringDiffUtil.levenshteinDistance("abc", "abd", 0));
+        assertEquals(2, StringDiffUtil.levenshteinDistance("abc", "abd", 2));
+        assertEquals(2, StringDiffUtil.levenshteinDistance("abc", "abd", 1));
+        assertEquals(4, StringDiffUtil.levenshteinDistance("abcde", "vwxyz", 3));
+        assertEquals(4, StringDiffUtil.levenshteinDistance("", "abcde", 3));
+        
+        Random random = new Random(0);
+        for (int len : new int[] { 10, 64, 100 }) {
+            for (int n = 0; n < 20; n++) {
+                String str1 = randomString(random, len);
+                String str2 = randomString(random, len + random.nextInt(5));
+                int distance = naiveDistance(str1, str2);
+                int limit = random.nextInt(distance + 2);
+                
+                assertEquals(
+                        distance <= limit ? distance : limit + 1,
+                        StringDiffUtil.levenshteinDistance(str1, str2, limit));
+            }
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package xyz.hotchpotch.hogandiff.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xyz.hotchpotch.hogandiff.core.MatcherTestUtil.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class TiledMatcherTest {
+    
+    // [static members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    private static final ToIntFunction<Character> gapEvaluator = c -> 1;
+    private static final ToIntBiFunction<Character, Character> diffEvaluator = (c1, c2) -> c1.equals(c2) ? 0 : 3;
+    
+    /**
+     * 先頭と末尾の共通部分が生じないよう、指定された文字で挟んだランダムな文字のリストを返します。<br>
+     */
+    private static List<Character> randomList(Random random, int size, char head, char tail) {
+        return Stream.of(
+                Stream.of(head),
+                IntStream.range(0, size).mapToObj(i -> (char) ('A' + random.nextInt(4))),
+                Stream.of(tail))
+                .flatMap(s -> s)
+                .collect(Collectors.toList());
+    }
+    
+    // [instance members] ++++++++++++++++++++++++++++++++++++++++++++++++++++++
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new TiledMatcher<>(null, diffEvaluator));
+        assertThrows(
+                AssertionError.class,
+                () -> new TiledMatcher<>(gapEvaluator, null));
+        assertThrows(
+                AssertionError.class,
+                () -> new TiledMatcher<>(null, null));
+        
+        assertDoesNotThrow(
+                () -> new TiledMatcher<>(gapEvaluator, diffEvaluator));
+    }
+    
+    @Test
+    void testMakePairs1_パラメータチェック() {
+        TiledMatcher<Character> testee = new TiledMatcher<>(gapEvaluator, diffEvaluator);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, list0_1));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(list0_1, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.makePairs(null, null));
+        
+        assertDoesNotThrow(
+                () -> testee.makePairs(list0_1, list0_1));
+    }
+    
+    @Test
+    void testMakePairs2_マッチングロジック_同じ内容() {
+        TiledMatcher<Character> testee = new TiledMatcher<>(gapEvaluator, diffEvaluator);
+        
+        // 同一インスタンス
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_1));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_1));
+        
+        // 別インスタンス同一内容
+        assertEquals(
+                List.of(),
+                testee.makePairs(list0_1, list0_2));
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(1, 1),
+                        IntPair.of(2, 2)),
+                testee.makePairs(listABC_1, listABC_2));
+    }
+    
+    @Test
+    void testMakePairs3_マッチングロジック_タイル分割() {
+        TiledMatcher<Character> testee = new TiledMatcher<>(gapEvaluator, diffEvaluator);
+        MinimumEditDistanceMatcher2<Character> expected = new MinimumEditDistanceMatcher2<>(gapEvaluator, diffEvaluator);
+        Random random = new Random(0);
+        
+        // タイルの境界をまたぐ大きさのリストで、斜めのスライスごとに探索した場合と同じ組み合わせが得られることを確認する。
+        int[][] sizes = { { 0, 700 }, { 700, 0 }, { 254, 254 }, { 255, 600 }, { 500, 300 }, { 300, 509 } };
+        for (int[] size : sizes) {
+            List<Character> listA = randomList(random, size[0], '#', '!');
+            List<Character> listB = randomList(random, size[1], '%', '?');
+            
+            assertEquals(
+                    expected.makePairs(listA, listB),
+                    testee.makePairs(listA, listB));
+        }
+    }
+}
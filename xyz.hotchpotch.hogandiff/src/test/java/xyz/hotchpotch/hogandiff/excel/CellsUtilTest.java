@@ -0,0 +1,107 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.poi.ss.util.CellReference;
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.util.IntPair;
+
+class CellsUtilTest {
+    
+    // [static members] ********************************************************
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testIdxToAddress() {
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> CellsUtil.idxToAddress(-1, 0));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> CellsUtil.idxToAddress(0, -1));
+        
+        assertEquals("A1", CellsUtil.idxToAddress(0, 0));
+        assertEquals("Z10", CellsUtil.idxToAddress(9, 25));
+        assertEquals("AA2", CellsUtil.idxToAddress(1, 26));
+        assertEquals("XFD1048576", CellsUtil.idxToAddress(1048575, 16383));
+    }
+    
+    @Test
+    void testAddressToIdx() {
+        assertThrows(
+                NullPointerException.class,
+                () -> CellsUtil.addressToIdx(null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx(""));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx("A"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx("12"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx("A0"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx("A1B"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.addressToIdx("A99999999999"));
+        
+        assertEquals(IntPair.of(0, 0), CellsUtil.addressToIdx("A1"));
+        assertEquals(IntPair.of(9, 25), CellsUtil.addressToIdx("Z10"));
+        assertEquals(IntPair.of(1, 26), CellsUtil.addressToIdx("aa2"));
+        assertEquals(IntPair.of(1048575, 16383), CellsUtil.addressToIdx("XFD1048576"));
+    }
+    
+    @Test
+    void testParseAddress() {
+        assertThrows(
+                NullPointerException.class,
+                () -> CellsUtil.parseAddress(null, 0, 0));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> CellsUtil.parseAddress("A1", 1, 3));
+        
+        long packed = CellsUtil.parseAddress("r=\"AB123\"", 3, 8);
+        assertEquals(122, CellsUtil.unpackRow(packed));
+        assertEquals(27, CellsUtil.unpackColumn(packed));
+        assertEquals(CellsUtil.pack(122, 27), packed);
+        assertEquals(packed, CellsUtil.parseAddress(new StringBuilder("AB123")));
+        
+        // まとめた値の大小関係は、行、列の順の大小関係と一致する。
+        assertTrue(CellsUtil.parseAddress("XFD1") < CellsUtil.parseAddress("A2"));
+    }
+    
+    @Test
+    void testAppendAddress() {
+        StringBuilder sb = new StringBuilder("r=");
+        
+        assertSame(sb, CellsUtil.appendAddress(sb, 122, 27));
+        assertEquals("r=AB123", sb.toString());
+        
+        sb.setLength(0);
+        CellsUtil.appendColumnStr(sb, Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, CellsUtil.columnStrToIdx(sb.toString()));
+    }
+    
+    @Test
+    void testColumnIdxToStr_columnStrToIdx() {
+        for (int i = 0; i < 20000; i++) {
+            String str = CellsUtil.columnIdxToStr(i);
+            assertEquals(CellReference.convertNumToColString(i), str);
+            assertEquals(i, CellsUtil.columnStrToIdx(str));
+        }
+        
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.columnStrToIdx(""));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> CellsUtil.columnStrToIdx("A1"));
+    }
+}
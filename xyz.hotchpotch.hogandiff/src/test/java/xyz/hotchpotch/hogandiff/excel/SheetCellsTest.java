@@ -0,0 +1,295 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SheetCellsTest {
+    
+    // [static members] ********************************************************
+    
+    private static final CellData cell1 = CellData.of(2, 1, "abc", false);
+    private static final CellData cell2 = CellData.of(0, 5, "abc", false).withComment("comment");
+    private static final CellData cell3 = CellData.of(2, 0, "", false);
+    private static final CellData cell4 = CellData.of(1, 3, "xyz", false);
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testCopyOf1_パラメータチェック() {
+        assertThrows(
+                NullPointerException.class,
+                () -> SheetCells.copyOf(null));
+        assertThrows(
+                NullPointerException.class,
+                () -> SheetCells.copyOf(Arrays.asList(cell1, null)));
+        
+        // 同じ位置のセルを複数含む場合
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> SheetCells.copyOf(List.of(cell1, CellData.of(2, 1, "xyz", false))));
+        
+        // 通常モードのセルと省メモリモードのセルが混在する場合
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> SheetCells.copyOf(List.of(cell1, CellData.of(0, 0, "xyz", true))));
+        
+        assertDoesNotThrow(
+                () -> SheetCells.copyOf(List.of()));
+    }
+    
+    @Test
+    void testCopyOf2() {
+        Set<CellData> expected = Set.of(cell1, cell2, cell3, cell4);
+        SheetCells actual = SheetCells.copyOf(expected);
+        
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertSame(actual, SheetCells.copyOf(actual));
+        
+        // 行インデックス、列インデックスの昇順に並ぶ。
+        assertEquals(
+                List.of(cell2, cell4, cell3, cell1),
+                new ArrayList<>(actual));
+        assertEquals(
+                List.of(cell2, cell4, cell3, cell1),
+                actual.parallelStream().toList());
+    }
+    
+    @Test
+    void testCopyOf3_省メモリモード() {
+        Set<CellData> expected = Set.of(
+                CellData.of(3, 3, "abc", true),
+                CellData.of(0, 7, "xyz", true).withComment("comment"),
+                CellData.of(0, 2, "", true));
+        SheetCells actual = SheetCells.copyOf(expected);
+        
+        assertEquals(expected, actual);
+        assertEquals(expected, new HashSet<>(actual));
+        
+        // String#hashCode() が衝突するセル内容も区別される。
+        SheetCells aa = SheetCells.copyOf(List.of(CellData.of(1, 1, "Aa", true)));
+        assertTrue(aa.contains(CellData.of(1, 1, "Aa", true)));
+        assertFalse(aa.contains(CellData.of(1, 1, "BB", true)));
+        assertNotEquals(
+                CellData.of(1, 1, "Aa", false).dataHashCode64(),
+                CellData.of(1, 1, "BB", false).dataHashCode64());
+        
+        // 64ビットのハッシュ値は、省メモリモードか否かに依らず等しい。
+        assertEquals(
+                CellData.of(1, 1, "Aa", false).withComment("x").dataHashCode64(),
+                CellData.of(1, 1, "Aa", true).withComment("x").dataHashCode64());
+    }
+    
+    @Test
+    void testCopyOf4_文字列表の共有() {
+        StringPool pool = new StringPool();
+        SheetCells actual1 = SheetCells.copyOf(List.of(cell1, cell4), pool);
+        SheetCells actual2 = SheetCells.copyOf(
+                SheetCells.copyOf(List.of(CellData.of(5, 5, new String("abc"), false))),
+                pool);
+        
+        assertEquals(Set.of(cell1, cell4), actual1);
+        assertEquals(Set.of(CellData.of(5, 5, "abc", false)), actual2);
+        assertSame(actual1, SheetCells.copyOf(actual1, pool));
+        
+        // 同じ文字列表を用いるセット同士では、内容の等しい文字列は同一インスタンスとなる。
+        CellStringData abc1 = (CellStringData) actual1.stream().filter(c -> c.row() == 2).findFirst().get();
+        CellStringData abc2 = (CellStringData) actual2.iterator().next();
+        assertSame(abc1.content(), abc2.content());
+        assertEquals(2, pool.size());
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> SheetCells.copyOf(List.of(cell1), null));
+    }
+    
+    @Test
+    void testBuilder() {
+        SheetCells.Builder builder = SheetCells.builder(false);
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> builder.add(0, 0, null));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> builder.add(-1, 0, "abc"));
+        assertThrows(
+                NullPointerException.class,
+                () -> builder.addComment(0, 0, null));
+        
+        // セルの追加順は問わず、セルの無い位置のセルコメントは空のセルとして扱われる。
+        SheetCells actual = builder
+                .add(2, 1, new StringBuilder("abc"))
+                .add(1, 3, "xyz")
+                .add(0, 5, "abc")
+                .addComment(0, 5, new StringBuilder("comment"))
+                .addComment(3, 0, "only comment")
+                .build();
+        
+        assertEquals(
+                List.of(
+                        cell2,
+                        cell4,
+                        cell1,
+                        CellData.of(3, 0, "", false).withComment("only comment")),
+                new ArrayList<>(actual));
+    }
+    
+    @Test
+    void testBuilder_省メモリモード() {
+        SheetCells actual = SheetCells.builder(true)
+                .add(3, 3, new StringBuilder("abc"))
+                .add(0, 7, "xyz")
+                .addComment(0, 7, "comment")
+                .addComment(0, 2, "comment")
+                .build();
+        
+        assertEquals(
+                Set.of(
+                        CellData.of(3, 3, "abc", true),
+                        CellData.of(0, 7, "xyz", true).withComment("comment"),
+                        CellData.of(0, 2, "", true).withComment("comment")),
+                actual);
+    }
+    
+    @Test
+    void testBuilder_文字列表の共有() {
+        StringPool pool = new StringPool();
+        SheetCells actual1 = SheetCells.builder(pool).add(2, 1, "abc").add(1, 3, "xyz").build();
+        SheetCells actual2 = SheetCells.builder(pool).add(5, 5, new StringBuilder("abc")).build();
+        
+        assertEquals(Set.of(cell1, cell4), actual1);
+        assertEquals(Set.of(CellData.of(5, 5, "abc", false)), actual2);
+        
+        // 同じ文字列表を用いて生成したセットは、文字列表に登録し直されることなくそのまま返される。
+        assertSame(actual1, SheetCells.copyOf(actual1, pool));
+        CellStringData abc1 = (CellStringData) actual1.stream().filter(c -> c.row() == 2).findFirst().get();
+        CellStringData abc2 = (CellStringData) actual2.iterator().next();
+        assertSame(abc1.content(), abc2.content());
+        assertEquals(2, pool.size());
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> SheetCells.builder((StringPool) null));
+    }
+    
+    @Test
+    void testBuilder_同じ位置の重複() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> SheetCells.builder(false).add(1, 1, "abc").add(1, 1, "xyz").build());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> SheetCells.builder(true).addComment(1, 1, "a").addComment(1, 1, "b").build());
+        
+        assertDoesNotThrow(
+                () -> SheetCells.builder(false).build());
+    }
+    
+    @Test
+    void testIndexAccess() {
+        List<CellData> cells = List.of(
+                cell1, cell2, cell3, cell4,
+                CellData.of(3, 3, "abc", false),
+                CellData.of(4, 4, "abc", false).withComment("comment"),
+                CellData.of(4, 5, "abc", false).withComment("other"));
+        List<CellData> hashCells = List.of(
+                CellData.of(2, 1, "abc", true),
+                CellData.of(0, 5, "abc", true).withComment("comment"),
+                CellData.of(2, 0, "", true),
+                CellData.of(1, 3, "xyz", true),
+                CellData.of(3, 3, "abc", true),
+                CellData.of(4, 4, "abc", true).withComment("comment"),
+                CellData.of(4, 5, "abc", true).withComment("other"));
+        
+        StringPool pool = new StringPool();
+        SheetCells shared1 = SheetCells.copyOf(cells, pool);
+        SheetCells shared2 = SheetCells.copyOf(cells.subList(2, 7), pool);
+        SheetCells separate = SheetCells.copyOf(cells.subList(0, 5));
+        SheetCells hash1 = SheetCells.copyOf(hashCells);
+        SheetCells hash2 = SheetCells.copyOf(hashCells.subList(1, 6));
+        
+        // 要素のインデックスによる参照は、生成したセルオブジェクトの値と一致する。
+        for (SheetCells testee : List.of(shared1, shared2, separate, hash1, hash2)) {
+            List<CellData> elements = new ArrayList<>(testee);
+            for (int i = 0; i < testee.size(); i++) {
+                assertEquals(elements.get(i), testee.get(i));
+                assertEquals(elements.get(i).row(), testee.rowAt(i));
+                assertEquals(elements.get(i).column(), testee.columnAt(i));
+                assertEquals(elements.get(i).dataHashCode64(), testee.dataHashCode64At(i));
+            }
+            assertThrows(
+                    IndexOutOfBoundsException.class,
+                    () -> testee.get(testee.size()));
+        }
+        
+        // 文字列表を共有するか否か、省メモリモードか否かに依らず、セルオブジェクトと同じ比較結果となる。
+        List<List<SheetCells>> comparables = List.of(
+                List.of(shared1, shared2, separate),
+                List.of(hash1, hash2));
+        for (List<SheetCells> group : comparables) {
+            for (SheetCells a : group) {
+                for (SheetCells b : group) {
+                    for (int i = 0; i < a.size(); i++) {
+                        for (int j = 0; j < b.size(); j++) {
+                            CellData cellA = a.get(i);
+                            CellData cellB = b.get(j);
+                            assertEquals(cellA.dataEquals(cellB), a.dataEquals(i, b, j));
+                            assertEquals(
+                                    Integer.signum(cellA.dataCompareTo(cellB)),
+                                    Integer.signum(a.dataCompare(i, b, j)));
+                        }
+                    }
+                }
+            }
+        }
+        
+        assertFalse(shared1.dataEquals(0, hash1, 0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> shared1.dataCompare(0, hash1, 0));
+        assertThrows(
+                NullPointerException.class,
+                () -> shared1.dataEquals(0, null, 0));
+    }
+    
+    @Test
+    void testContains() {
+        SheetCells testee = SheetCells.copyOf(List.of(cell1, cell2, cell3));
+        
+        assertTrue(testee.contains(cell1));
+        assertTrue(testee.contains(cell2));
+        assertTrue(testee.contains(CellData.of(2, 0, "", false)));
+        
+        // 位置が同じでも内容が異なる場合
+        assertFalse(testee.contains(CellData.of(2, 1, "xyz", false)));
+        assertFalse(testee.contains(CellData.of(0, 5, "abc", false)));
+        
+        assertFalse(testee.contains(cell4));
+        assertFalse(testee.contains(null));
+        assertFalse(testee.contains("abc"));
+    }
+    
+    @Test
+    void testImmutable() {
+        SheetCells testee = SheetCells.copyOf(List.of(cell1, cell2));
+        
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> testee.add(cell3));
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> testee.remove(cell1));
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> testee.clear());
+    }
+}
@@ -0,0 +1,65 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class StringPoolTest {
+    
+    // [static members] ********************************************************
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testIdOf() {
+        StringPool testee = new StringPool();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.idOf(null));
+        
+        assertEquals(0, testee.idOf("abc"));
+        assertEquals(1, testee.idOf(""));
+        assertEquals(0, testee.idOf(new String("abc")));
+        assertEquals(2, testee.size());
+        
+        // 文字列以外の文字の並びでも、内容の等しい文字列と同じIDとなる。
+        assertEquals(0, testee.idOf(new StringBuilder("abc")));
+        assertEquals(2, testee.idOf(new StringBuilder("xyz")));
+        assertEquals("xyz", testee.get(2));
+        assertEquals(3, testee.size());
+    }
+    
+    @Test
+    void testGet() {
+        StringPool testee = new StringPool();
+        String abc = "abc";
+        testee.idOf(abc);
+        
+        // 内容の等しい文字列は、最初に登録されたインスタンスにまとめられる。
+        assertSame(abc, testee.get(testee.idOf(new String("abc"))));
+        
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> testee.get(-1));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> testee.get(1));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> testee.get(100));
+    }
+    
+    @Test
+    void testIdOf_並列() {
+        StringPool testee = new StringPool();
+        
+        IntStream.range(0, 10_000).parallel().forEach(n -> {
+            String str = String.valueOf(n % 1_000);
+            assertEquals(str, testee.get(testee.idOf(str)));
+        });
+        assertEquals(1_000, testee.size());
+    }
+}
@@ -0,0 +1,72 @@
+package xyz.hotchpotch.hogandiff.excel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class TextHasherTest {
+    
+    // [static members] ********************************************************
+    
+    private static final String text = "abcあいう123\nxyz";
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testHash() {
+        assertThrows(
+                NullPointerException.class,
+                () -> TextHasher.hash(null));
+        
+        assertEquals(TextHasher.hash(text), TextHasher.hash(new StringBuilder(text)));
+        assertNotEquals(TextHasher.hash("abc"), TextHasher.hash("abd"));
+        
+        // String#hashCode() が衝突する文字列同士でも、異なるハッシュ値となる。
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(TextHasher.hash("Aa"), TextHasher.hash("BB"));
+        
+        // ハッシュ値は常に 0 以外となる。
+        assertNotEquals(0L, TextHasher.hash(""));
+        assertNotEquals(TextHasher.hash(""), TextHasher.hash("\0"));
+    }
+    
+    @Test
+    void testUpdate_パラメータチェック() {
+        TextHasher testee = new TextHasher();
+        
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.update(null, 0, 0));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> testee.update(new char[3], 2, 2));
+        assertThrows(
+                NullPointerException.class,
+                () -> testee.update((CharSequence) null));
+    }
+    
+    @Test
+    void testUpdate_分割の仕方に依らない() {
+        long expected = TextHasher.hash(text);
+        char[] chars = text.toCharArray();
+        TextHasher testee = new TextHasher();
+        
+        for (int i = 0; i <= chars.length; i++) {
+            for (int j = i; j <= chars.length; j++) {
+                testee.update(chars, 0, i);
+                testee.update(text.subSequence(i, j));
+                testee.update(chars, j, chars.length - j);
+                assertEquals(expected, testee.finish());
+            }
+        }
+    }
+    
+    @Test
+    void testFinish_初期状態に戻る() {
+        TextHasher testee = new TextHasher();
+        
+        testee.update("abc");
+        assertEquals(TextHasher.hash("abc"), testee.finish());
+        assertEquals(TextHasher.hash(""), testee.finish());
+    }
+}
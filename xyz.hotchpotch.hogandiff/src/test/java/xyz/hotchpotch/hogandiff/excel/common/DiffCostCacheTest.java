@@ -0,0 +1,96 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class DiffCostCacheTest {
+    
+    // [static members] ********************************************************
+    
+    /** 文字列の長さをIDとし、長さの差を差分コストとする評価関数 */
+    private static ToIntBiFunction<String, String> counting(AtomicInteger count) {
+        return (s1, s2) -> {
+            count.incrementAndGet();
+            return Math.abs(s1.length() - s2.length());
+        };
+    }
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new DiffCostCache<String>(null, (s1, s2) -> 0, 1, 0));
+        assertThrows(
+                AssertionError.class,
+                () -> new DiffCostCache<String>(String::length, null, 1, 0));
+        assertThrows(
+                AssertionError.class,
+                () -> new DiffCostCache<String>(String::length, (s1, s2) -> 0, -1, 0));
+        assertThrows(
+                AssertionError.class,
+                () -> new DiffCostCache<String>(String::length, (s1, s2) -> 0, 1, -1));
+        
+        assertDoesNotThrow(
+                () -> new DiffCostCache<String>(String::length, (s1, s2) -> 0, 0, 0));
+    }
+    
+    @Test
+    void testApplyAsInt_IDが等しい場合() {
+        AtomicInteger count = new AtomicInteger();
+        DiffCostCache<String> testee = new DiffCostCache<>(String::length, counting(count), 10, 10);
+        
+        assertEquals(0, testee.applyAsInt("abc", "xyz"));
+        assertEquals(0, testee.applyAsInt("", ""));
+        assertEquals(0, count.get());
+    }
+    
+    @Test
+    void testApplyAsInt_IDが異なる場合() {
+        AtomicInteger count = new AtomicInteger();
+        DiffCostCache<String> testee = new DiffCostCache<>(String::length, counting(count), 10, 10);
+        
+        assertEquals(2, testee.applyAsInt("a", "abc"));
+        assertEquals(1, count.get());
+        
+        // 同じ組み合わせは、要素の順序に関わらず再評価しない。
+        assertEquals(2, testee.applyAsInt("x", "xyz"));
+        assertEquals(2, testee.applyAsInt("xyz", "x"));
+        assertEquals(1, count.get());
+        
+        assertEquals(9, testee.applyAsInt("", "123456789"));
+        assertEquals(2, count.get());
+    }
+    
+    @Test
+    void testApplyAsInt_記憶領域に収まらない場合() {
+        AtomicInteger count = new AtomicInteger();
+        
+        // 組み合わせとコストを64ビットに詰めきれない場合は、記憶せずに毎回評価する。
+        DiffCostCache<String> testee = new DiffCostCache<>(
+                String::length, counting(count), Integer.MAX_VALUE, Integer.MAX_VALUE);
+        
+        assertEquals(2, testee.applyAsInt("a", "abc"));
+        assertEquals(2, testee.applyAsInt("a", "abc"));
+        assertEquals(2, count.get());
+    }
+    
+    @Test
+    void testApplyAsInt_並列() {
+        DiffCostCache<String> testee = new DiffCostCache<>(
+                String::length, (s1, s2) -> Math.abs(s1.length() - s2.length()), 200, 200);
+        
+        // 衝突により上書きされても、常に正しい差分コストを返す。
+        IntStream.range(0, 200 * 200).parallel().forEach(n -> {
+            String s1 = "x".repeat(n / 200);
+            String s2 = "x".repeat(n % 200);
+            assertEquals(Math.abs(s1.length() - s2.length()), testee.applyAsInt(s1, s2));
+        });
+    }
+}
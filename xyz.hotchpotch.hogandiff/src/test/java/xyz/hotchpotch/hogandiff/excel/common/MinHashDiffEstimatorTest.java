@@ -0,0 +1,92 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class MinHashDiffEstimatorTest {
+    
+    // [static members] ********************************************************
+    
+    /** 値が {@code from} 以上 {@code to} 未満の項目の集合 */
+    private static long[] range(long from, long to) {
+        return LongStream.range(from, to).toArray();
+    }
+    
+    /** IDごとの項目の集合 */
+    private static final long[][] items = {
+            range(0, 500),
+            LongStream.concat(LongStream.range(0, 450), LongStream.range(1000, 1050)).toArray(),
+            range(2000, 2500),
+            LongStream.concat(LongStream.range(0, 250), LongStream.range(3000, 3250)).toArray(),
+            range(0, 10),
+            range(5, 20),
+            LongStream.concat(LongStream.range(0, 499), LongStream.of(5000)).toArray(),
+    };
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testConstructor() {
+        assertThrows(
+                AssertionError.class,
+                () -> new MinHashDiffEstimator<Integer>(null, (i, j) -> 0, items));
+        assertThrows(
+                AssertionError.class,
+                () -> new MinHashDiffEstimator<Integer>(i -> i, null, items));
+        assertThrows(
+                AssertionError.class,
+                () -> new MinHashDiffEstimator<Integer>(i -> i, (i, j) -> 0, null));
+        
+        assertDoesNotThrow(
+                () -> new MinHashDiffEstimator<Integer>(i -> i, (i, j) -> 0, new long[][] {}));
+    }
+    
+    @Test
+    void testApplyAsInt_IDが等しい場合() {
+        AtomicInteger count = new AtomicInteger();
+        MinHashDiffEstimator<Integer> testee = new MinHashDiffEstimator<>(
+                i -> i, (i, j) -> count.incrementAndGet(), items);
+        
+        assertEquals(0, testee.applyAsInt(0, 0));
+        assertEquals(0, testee.applyAsInt(4, 4));
+        assertEquals(0, count.get());
+    }
+    
+    @Test
+    void testApplyAsInt_項目が少ない場合() {
+        AtomicInteger count = new AtomicInteger();
+        MinHashDiffEstimator<Integer> testee = new MinHashDiffEstimator<>(
+                i -> i, (i, j) -> count.incrementAndGet() * 100, items);
+        
+        // 項目が少ない組み合わせは、推定せずに正確に評価する。
+        assertEquals(100, testee.applyAsInt(4, 5));
+        assertEquals(1, count.get());
+    }
+    
+    @Test
+    void testApplyAsInt_項目が多い場合() {
+        AtomicInteger count = new AtomicInteger();
+        MinHashDiffEstimator<Integer> testee = new MinHashDiffEstimator<>(
+                i -> i, (i, j) -> count.incrementAndGet(), items);
+        
+        // 共通する項目の無い組み合わせは、正確に推定される。
+        assertEquals(1000, testee.applyAsInt(0, 2));
+        
+        // 推定値は対称差の大きさの近傍となり、要素の順序に依らない。
+        int diff01 = testee.applyAsInt(0, 1);
+        int diff03 = testee.applyAsInt(0, 3);
+        assertTrue(30 <= diff01 && diff01 <= 250, "diff01: " + diff01);
+        assertTrue(300 <= diff03 && diff03 <= 700, "diff03: " + diff03);
+        assertEquals(diff01, testee.applyAsInt(1, 0));
+        
+        // IDの異なる要素同士の推定値は、シグネチャが一致してもゼロとはならない。
+        assertEquals(2, testee.applyAsInt(0, 6));
+        
+        // 項目の多い組み合わせは、正確な評価を行わない。
+        assertEquals(0, count.get());
+    }
+}
@@ -0,0 +1,269 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.core.Matcher;
+import xyz.hotchpotch.hogandiff.excel.CellData;
+import xyz.hotchpotch.hogandiff.excel.SResult;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
+import xyz.hotchpotch.hogandiff.util.IntPair;
+import xyz.hotchpotch.hogandiff.util.Pair;
+
+class SComparatorBaseTest {
+    
+    // [static members] ********************************************************
+    
+    /**
+     * 行同士（列同士）をインデックスの順に対応付けるマッパーを返します。<br>
+     */
+    private static SComparatorBase.Mapper mapper(ToIntFunction<CellData> index) {
+        return (cells1, cells2) -> Matcher.<Integer> simpleMatcherOf().makePairs(
+                IntStream.rangeClosed(0, cells1.stream().mapToInt(index).max().orElse(-1)).boxed().toList(),
+                IntStream.rangeClosed(0, cells2.stream().mapToInt(index).max().orElse(-1)).boxed().toList());
+    }
+    
+    /**
+     * 行同士（列同士）をインデックスの順を保ちつつ無作為に対応付け、対応付けられない行（列）も生じさせるマッパーを返します。<br>
+     * 同じ乱数の種からは、同じセルセットに対して常に同じ対応関係を返します。<br>
+     * {@code shuffle} が {@code true} の場合は、対応の順をインデックスの順と異ならせます。<br>
+     */
+    private static SComparatorBase.Mapper randomMapper(ToIntFunction<CellData> index, long seed, boolean shuffle) {
+        return (cells1, cells2) -> {
+            Random random = new Random(seed);
+            int size1 = cells1.stream().mapToInt(index).max().orElse(-1) + 1;
+            int size2 = cells2.stream().mapToInt(index).max().orElse(-1) + 1;
+            List<IntPair> pairs = new ArrayList<>();
+            int i = 0;
+            int j = 0;
+            while (i < size1 || j < size2) {
+                int choice = random.nextInt(5);
+                if (i < size1 && j < size2 && choice < 3) {
+                    pairs.add(IntPair.of(i++, j++));
+                } else if (i < size1 && (choice == 3 || size2 <= j)) {
+                    pairs.add(IntPair.onlyA(i++));
+                } else {
+                    pairs.add(IntPair.onlyB(j++));
+                }
+            }
+            if (shuffle) {
+                Collections.shuffle(pairs, random);
+            }
+            return pairs;
+        };
+    }
+    
+    private static final SComparatorBase.Mapper rowsMapper = mapper(CellData::row);
+    private static final SComparatorBase.Mapper columnsMapper = mapper(CellData::column);
+    private static final SComparatorBase.Mapper failingMapper = (cells1, cells2) -> {
+        throw new IllegalStateException("mapper failed");
+    };
+    
+    /**
+     * 指定されたマッパーを用いるテスト用の比較器です。<br>
+     */
+    private static class TestComparator extends SComparatorBase {
+        
+        // [static members] ----------------------------------------------------
+        
+        // [instance members] --------------------------------------------------
+        
+        private final Mapper rowsMapper;
+        private final Mapper columnsMapper;
+        private final boolean sequential;
+        
+        private TestComparator(Mapper rowsMapper, Mapper columnsMapper, boolean sequential) {
+            this(rowsMapper, columnsMapper, sequential, false);
+        }
+        
+        private TestComparator(Mapper rowsMapper, Mapper columnsMapper, boolean sequential, boolean saveMemory) {
+            super(true, true, saveMemory);
+            this.rowsMapper = rowsMapper;
+            this.columnsMapper = columnsMapper;
+            this.sequential = sequential;
+        }
+        
+        @Override
+        protected Mapper rowsMapper() {
+            return rowsMapper;
+        }
+        
+        @Override
+        protected Mapper columnsMapper() {
+            return columnsMapper;
+        }
+        
+        @Override
+        protected Pair<List<IntPair>> mapRowsAndColumns(
+                SheetCells cells1,
+                SheetCells cells2) {
+            
+            return sequential
+                    ? Pair.of(rowsMapper.makePairs(cells1, cells2), columnsMapper.makePairs(cells1, cells2))
+                    : super.mapRowsAndColumns(cells1, cells2);
+        }
+    }
+    
+    private static Set<CellData> randomCells(Random random) {
+        Map<IntPair, CellData> cells = new HashMap<>();
+        for (int n = 0; n < 200; n++) {
+            int row = random.nextInt(30);
+            int column = random.nextInt(10);
+            cells.putIfAbsent(
+                    IntPair.of(row, column),
+                    CellData.of(row, column, "v" + random.nextInt(3), false));
+        }
+        return Set.copyOf(cells.values());
+    }
+    
+    /**
+     * 値のあるセル、セルコメントだけのセル、値とセルコメントを持つセルが疎らに存在するセルセットを作成します。<br>
+     */
+    private static Set<CellData> randomSparseCells(Random random, boolean saveMemory) {
+        Map<IntPair, CellData> cells = new HashMap<>();
+        for (int n = 0; n < 60; n++) {
+            int row = random.nextInt(30);
+            int column = random.nextInt(10);
+            String content = "v" + random.nextInt(3);
+            String comment = "c" + random.nextInt(2);
+            cells.putIfAbsent(
+                    IntPair.of(row, column),
+                    switch (random.nextInt(4)) {
+                    case 0 -> CellData.of(row, column, "", saveMemory).withComment(comment);
+                    case 1 -> CellData.of(row, column, content, saveMemory).withComment(comment);
+                    default -> CellData.of(row, column, content, saveMemory);
+                    });
+        }
+        return Set.copyOf(cells.values());
+    }
+    
+    /**
+     * 対応付けられた行と対応付けられた列の全ての交点を、行の対応の順、列の対応の順に調べて差分セルを抽出します。<br>
+     */
+    private static List<Pair<CellData>> expectedDiffs(
+            Set<CellData> cells1,
+            Set<CellData> cells2,
+            List<IntPair> rowPairs,
+            List<IntPair> columnPairs,
+            boolean saveMemory) {
+        
+        Map<IntPair, CellData> map1 = new HashMap<>();
+        Map<IntPair, CellData> map2 = new HashMap<>();
+        cells1.forEach(cell -> map1.put(IntPair.of(cell.row(), cell.column()), cell));
+        cells2.forEach(cell -> map2.put(IntPair.of(cell.row(), cell.column()), cell));
+        
+        List<Pair<CellData>> diffs = new ArrayList<>();
+        for (IntPair rowPair : rowPairs) {
+            if (!rowPair.isPaired()) {
+                continue;
+            }
+            for (IntPair columnPair : columnPairs) {
+                if (!columnPair.isPaired()) {
+                    continue;
+                }
+                CellData cell1 = map1.get(IntPair.of(rowPair.a(), columnPair.a()));
+                CellData cell2 = map2.get(IntPair.of(rowPair.b(), columnPair.b()));
+                if (cell1 == null ? cell2 != null : !cell1.dataEquals(cell2)) {
+                    diffs.add(Pair.of(
+                            cell1 != null ? cell1 : CellData.empty(rowPair.a(), columnPair.a(), saveMemory),
+                            cell2 != null ? cell2 : CellData.empty(rowPair.b(), columnPair.b(), saveMemory)));
+                }
+            }
+        }
+        return diffs;
+    }
+    
+    /**
+     * 無作為な対応関係と疎らなセルセットで比較した結果の差分セルが、
+     * 全ての交点を調べて抽出した差分セルと一致することを確認します。<br>
+     */
+    private static void assertDiffCells(Random random, boolean shuffle, boolean sequential) {
+        for (boolean saveMemory : new boolean[] { false, true }) {
+            for (int n = 0; n < 50; n++) {
+                SComparatorBase.Mapper rowsMapper = randomMapper(CellData::row, random.nextLong(), shuffle);
+                SComparatorBase.Mapper columnsMapper = randomMapper(CellData::column, random.nextLong(), shuffle);
+                Set<CellData> cells1 = randomSparseCells(random, saveMemory);
+                Set<CellData> cells2 = randomSparseCells(random, saveMemory);
+                SheetCells sheetCells1 = SheetCells.copyOf(cells1);
+                SheetCells sheetCells2 = SheetCells.copyOf(cells2);
+                
+                SResult actual = new TestComparator(rowsMapper, columnsMapper, sequential, saveMemory)
+                        .compare(cells1, cells2);
+                
+                assertEquals(
+                        expectedDiffs(
+                                cells1,
+                                cells2,
+                                rowsMapper.makePairs(sheetCells1, sheetCells2),
+                                columnsMapper.makePairs(sheetCells1, sheetCells2),
+                                saveMemory),
+                        actual.diffCells());
+            }
+        }
+    }
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testMapRowsAndColumns_逐次処理と同じ結果() {
+        SComparatorBase testee = new TestComparator(rowsMapper, columnsMapper, false);
+        SComparatorBase expected = new TestComparator(rowsMapper, columnsMapper, true);
+        Random random = new Random(0);
+        
+        for (int n = 0; n < 20; n++) {
+            Set<CellData> cells1 = randomCells(random);
+            Set<CellData> cells2 = randomCells(random);
+            SResult expectedResult = expected.compare(cells1, cells2);
+            SResult actualResult = testee.compare(cells1, cells2);
+            
+            assertArrayEquals(expectedResult.redundantRows().a(), actualResult.redundantRows().a());
+            assertArrayEquals(expectedResult.redundantRows().b(), actualResult.redundantRows().b());
+            assertArrayEquals(expectedResult.redundantColumns().a(), actualResult.redundantColumns().a());
+            assertArrayEquals(expectedResult.redundantColumns().b(), actualResult.redundantColumns().b());
+            assertEquals(expectedResult.diffCells(), actualResult.diffCells());
+        }
+    }
+    
+    @Test
+    void testCompare_差分セルの抽出() {
+        assertDiffCells(new Random(0), false, true);
+        assertDiffCells(new Random(1), false, false);
+    }
+    
+    @Test
+    void testCompare_差分セルの抽出_対応の順がインデックスの順と異なる場合() {
+        // 行同士・列同士の対応の順がインデックスの順と異なる場合は、セルを対応の順に並べ替えたうえで突き合わせる。
+        assertDiffCells(new Random(2), true, true);
+        assertDiffCells(new Random(3), true, false);
+    }
+    
+    @Test
+    void testMapRowsAndColumns_例外の伝播() {
+        Set<CellData> cells1 = Set.of(CellData.of(0, 0, "a", false));
+        Set<CellData> cells2 = Set.of(CellData.of(1, 1, "b", false));
+        
+        // いずれのマッパーがスローした例外も、ラップされずにそのままスローされる。
+        IllegalStateException e1 = assertThrows(
+                IllegalStateException.class,
+                () -> new TestComparator(failingMapper, columnsMapper, false).compare(cells1, cells2));
+        assertEquals("mapper failed", e1.getMessage());
+        IllegalStateException e2 = assertThrows(
+                IllegalStateException.class,
+                () -> new TestComparator(rowsMapper, failingMapper, false).compare(cells1, cells2));
+        assertEquals("mapper failed", e2.getMessage());
+        assertThrows(
+                IllegalStateException.class,
+                () -> new TestComparator(failingMapper, failingMapper, false).compare(cells1, cells2));
+    }
+}
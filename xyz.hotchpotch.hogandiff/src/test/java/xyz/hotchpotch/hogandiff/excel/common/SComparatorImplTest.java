@@ -0,0 +1,98 @@
+package xyz.hotchpotch.hogandiff.excel.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.hotchpotch.hogandiff.excel.CellData;
+import xyz.hotchpotch.hogandiff.excel.SComparator;
+import xyz.hotchpotch.hogandiff.excel.SResult;
+import xyz.hotchpotch.hogandiff.util.Pair;
+
+class SComparatorImplTest {
+    
+    // [static members] ********************************************************
+    
+    private static final SComparator alignColumnsFirst = SComparatorImpl.of(true, true, false, 1_000_000, false, true);
+    private static final SComparator alignIndependently = SComparatorImpl.of(true, true, false, 1_000_000, false, false);
+    
+    /** 削除する列（シート1における列インデックス） */
+    private static final int DELETED_COLUMN = 4;
+    /** 挿入する列（シート2における列インデックス） */
+    private static final int INSERTED_COLUMN = 2;
+    /** 削除する行（シート1における行インデックス） */
+    private static final int DELETED_ROW = 17;
+    /** 挿入する行（シート2における行インデックス） */
+    private static final int INSERTED_ROW = 22;
+    
+    /**
+     * 6列×30行の表と、その表から列と行を1つずつ削除・挿入し、1つのセルの内容を変更した表を作成します。<br>
+     * 
+     * @param header 行インデックスを受け取り、見出し行であればその行の全ての列に共通の値を、
+     *               そうでなければ {@code null} を返す関数
+     * @return 2つの表のセルセットのペア
+     */
+    private static Pair<Set<CellData>> sheets(IntFunction<String> header) {
+        Set<CellData> cells1 = new HashSet<>();
+        Set<CellData> cells2 = new HashSet<>();
+        
+        for (int row = 0; row < 30; row++) {
+            for (int column = 0; column < 6; column++) {
+                cells1.add(CellData.of(row, column, value(header, row, "c" + column), false));
+            }
+        }
+        
+        List<String> columns2 = List.of("c0", "c1", "new", "c2", "c3", "c5");
+        for (int row2 = 0; row2 < 30; row2++) {
+            int row = row2 == INSERTED_ROW ? -1 : row2 < DELETED_ROW ? row2 : row2 < INSERTED_ROW ? row2 + 1 : row2;
+            for (int column2 = 0; column2 < columns2.size(); column2++) {
+                String value = row == -1
+                        ? "inserted" + column2
+                        : row == 14 && column2 == 1 ? "changed" : value(header, row, columns2.get(column2));
+                cells2.add(CellData.of(row2, column2, value, false));
+            }
+        }
+        return Pair.of(cells1, cells2);
+    }
+    
+    private static String value(IntFunction<String> header, int row, String column) {
+        String common = header.apply(row);
+        return common != null ? common : column + "_r" + row;
+    }
+    
+    private static void assertResult(SResult result) {
+        assertArrayEquals(new int[] { DELETED_ROW }, result.redundantRows().a());
+        assertArrayEquals(new int[] { INSERTED_ROW }, result.redundantRows().b());
+        assertArrayEquals(new int[] { DELETED_COLUMN }, result.redundantColumns().a());
+        assertArrayEquals(new int[] { INSERTED_COLUMN }, result.redundantColumns().b());
+        assertEquals(
+                List.of(Pair.of(CellData.of(14, 1, "c1_r14", false), CellData.of(14, 1, "changed", false))),
+                result.diffCells());
+    }
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testCompare_列同士を先に対応付ける場合() {
+        // 見出し行が列ごとに異なる場合
+        Pair<Set<CellData>> sheets = sheets(row -> null);
+        
+        assertResult(alignColumnsFirst.compare(sheets.a(), sheets.b()));
+        assertResult(alignIndependently.compare(sheets.a(), sheets.b()));
+    }
+    
+    @Test
+    void testCompare_列同士を先に対応付ける場合_見出し行で列を区別できない場合() {
+        // 先頭の数行が全ての列で同じ内容であり、見出し行だけでは列同士を正しく対応付けられない場合も、
+        // 対応付けられた行を用いて列同士を対応付け直すことで、正しい対応関係に収束する。
+        Pair<Set<CellData>> sheets = sheets(row -> row < 12 ? "same" + row : null);
+        
+        assertResult(alignColumnsFirst.compare(sheets.a(), sheets.b()));
+        assertResult(alignIndependently.compare(sheets.a(), sheets.b()));
+    }
+}
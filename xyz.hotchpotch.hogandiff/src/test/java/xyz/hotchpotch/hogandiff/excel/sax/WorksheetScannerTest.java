@@ -0,0 +1,130 @@
+package xyz.hotchpotch.hogandiff.excel.sax;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class WorksheetScannerTest {
+    
+    // [static members] ********************************************************
+    
+    private static final String HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n"
+            + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>";
+    
+    private static final String TAIL = "</sheetData></worksheet>";
+    
+    /** c 要素ごとの内容を "r|t|v|f|t" 形式の文字列で返します。 */
+    private static List<String> scan(String xml, Charset charset) throws IOException {
+        List<String> results = new ArrayList<>();
+        boolean scanned = WorksheetScanner.scan(
+                new ByteArrayInputStream(xml.getBytes(charset)),
+                (address, type, vText, fText, tText) -> results.add(
+                        "%s|%s|%s|%s|%s".formatted(address, type, vText, fText, tText)));
+        return scanned ? results : null;
+    }
+    
+    private static List<String> scan(String sheetData) throws IOException {
+        return scan(HEAD + sheetData + TAIL, StandardCharsets.UTF_8);
+    }
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testScan_パラメータチェック() {
+        assertThrows(
+                NullPointerException.class,
+                () -> WorksheetScanner.scan(null, (a, t, v, f, tt) -> {}));
+        assertThrows(
+                NullPointerException.class,
+                () -> WorksheetScanner.scan(new ByteArrayInputStream(new byte[0]), null));
+    }
+    
+    @Test
+    void testScan_セルの種類() throws IOException {
+        assertEquals(
+                List.of(
+                        "A1|null|123|null|null",
+                        "B1|s|0|null|null",
+                        "C1|null|3|SUM(1,2)|null",
+                        "D1|inlineStr|null|null|abc",
+                        "E1|null|null|null|null"),
+                scan("<row r=\"1\" spans=\"1:5\">"
+                        + "<c r=\"A1\"><v>123</v></c>"
+                        + "<c r=\"B1\" s=\"2\" t=\"s\"><v>0</v></c>"
+                        + "<c r='C1'><f>SUM(1,2)</f><v>3</v></c>"
+                        + "<c r=\"D1\" t=\"inlineStr\"><is><t>abc</t></is></c>"
+                        + "<c r=\"E1\" s=\"1\"/>"
+                        + "</row>"));
+    }
+    
+    @Test
+    void testScan_テキストの復号() throws IOException {
+        assertEquals(
+                List.of(
+                        "A1|inlineStr|null|null|あいう😀",
+                        "B1|str|<&>\"'é😀|A1&\"x\"|null",
+                        "C1|inlineStr|null|null|ab\ncd\ne",
+                        "D1|inlineStr|null|null|a<b>]]c",
+                        "E1|inlineStr|null|null|xyzふりがな"),
+                scan("<row r=\"1\">"
+                        + "<c r=\"A1\" t=\"inlineStr\"><is><t>あいう😀</t></is></c>"
+                        + "<c r=\"B1\" t=\"str\"><f>A1&amp;&quot;x&quot;</f>"
+                        + "<v>&lt;&amp;&gt;&quot;&apos;&#233;&#x1F600;</v></c>"
+                        + "<c r=\"C1\" t=\"inlineStr\"><is><t>ab\r\ncd\re</t></is></c>"
+                        + "<c r=\"D1\" t=\"inlineStr\"><is><t><![CDATA[a<b>]]]]><![CDATA[c]]></t></is></c>"
+                        + "<c r=\"E1\" t=\"inlineStr\"><is><r><t>x</t></r><r><rPr><b/></rPr><t>yz</t></r>"
+                        + "<rPh sb=\"0\" eb=\"1\"><t>ふりがな</t></rPh></is></c>"
+                        + "</row>"));
+    }
+    
+    @Test
+    void testScan_読み飛ばす要素() throws IOException {
+        assertEquals(
+                List.of("A2|null|1|null|null"),
+                scan("<!-- <c r=\"A1\"><v>9</v></c> -->\n"
+                        + "<row r=\"2\">\n  <c r=\"A2\">\n    <v>1</v>\n  </c>\n</row>\n"
+                        + "<?pi <c?>"));
+        
+        // 最初のバッファに収まらない大きさの入力
+        String many = "<row r=\"1\"><c r=\"A1\"><v>x</v></c></row>".repeat(20_000);
+        assertEquals(20_000, scan(many).size());
+    }
+    
+    @Test
+    void testScan_読み込めない形式() throws IOException {
+        assertNull(scan(
+                HEAD.replace("UTF-8", "UTF-16") + TAIL,
+                StandardCharsets.UTF_16));
+        assertNull(scan(
+                HEAD.replace("UTF-8", "Shift_JIS") + TAIL,
+                Charset.forName("Shift_JIS")));
+        assertNull(scan(
+                "<?xml version=\"1.0\"?><!DOCTYPE worksheet [<!ENTITY a \"b\">]><worksheet/>",
+                StandardCharsets.UTF_8));
+        
+        // バイト順マーク付きの UTF-8
+        assertEquals(
+                List.of(),
+                scan("\uFEFF" + HEAD + TAIL, StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testScan_不正な形式() {
+        assertThrows(
+                IOException.class,
+                () -> scan("<row><c r=\"A1\"><v>&unknown;</v></c></row>"));
+        assertThrows(
+                IOException.class,
+                () -> scan("<row><c r=\"A1\"><v>1</v>"));
+        assertThrows(
+                IOException.class,
+                () -> scan("<row><c r=\"A1\"><v>1</v></c></row></row>"));
+    }
+}
@@ -14,7 +14,9 @@ import org.junit.jupiter.api.Test;
 import xyz.hotchpotch.hogandiff.excel.BookInfo;
 import xyz.hotchpotch.hogandiff.excel.CellData;
 import xyz.hotchpotch.hogandiff.excel.ExcelHandlingException;
+import xyz.hotchpotch.hogandiff.excel.SheetCells;
 import xyz.hotchpotch.hogandiff.excel.SheetLoader;
+import xyz.hotchpotch.hogandiff.excel.StringPool;
 
 class XSSFSheetLoaderWithSaxTest {
     
@@ -64,6 +66,9 @@ class XSSFSheetLoaderWithSaxTest {
         assertThrows(
                 NullPointerException.class,
                 () -> XSSFSheetLoaderWithSax.of(true, saveMemory, null));
+        assertThrows(
+                NullPointerException.class,
+                () -> XSSFSheetLoaderWithSax.of(true, saveMemory, test1_xlsx, null));
         
         // サポート対象外のブック形式
         assertThrows(
@@ -399,4 +404,19 @@ class XSSFSheetLoaderWithSaxTest {
                         CellData.of(19, 1, " \"セル値\" & \"のみ\"", saveMemory)),
                 testee.loadCells(test4_xlsx, "コメント"));
     }
+    
+    @Test
+    void testLoadCells_正常系5_文字列表の共有() throws ExcelHandlingException {
+        StringPool stringPool = new StringPool();
+        SheetLoader testee1 = XSSFSheetLoaderWithSax.of(true, saveMemory, test1_xlsx, stringPool);
+        SheetLoader testee2 = XSSFSheetLoaderWithSax.of(true, saveMemory, test1_xlsm, stringPool);
+        
+        Set<CellData> cells1 = testee1.loadCells(test1_xlsx, "A1_ワークシート");
+        Set<CellData> cells2 = testee2.loadCells(test1_xlsm, "A1_ワークシート");
+        
+        // 両方のExcelブックのセル内容が、同じ文字列表に一度だけ登録される。
+        assertEquals(cells1, cells2);
+        assertEquals(7, stringPool.size());
+        assertSame(cells1, SheetCells.copyOf(cells1, stringPool));
+    }
 }
@@ -0,0 +1,140 @@
+package xyz.hotchpotch.hogandiff.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class IntPairListTest {
+    
+    // [static members] ********************************************************
+    
+    private static final List<IntPair> pairs = List.of(
+            IntPair.of(0, 0),
+            IntPair.onlyA(1),
+            IntPair.of(2, 1),
+            IntPair.onlyB(2),
+            IntPair.onlyB(3),
+            IntPair.of(3, 4),
+            IntPair.onlyA(4));
+    
+    // [instance members] ******************************************************
+    
+    @Test
+    void testBuilder() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(-1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(0).addPair(-1, 0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(0).addOnlyA(-1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(0).addOnlyB(-1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(0).add(IntPair.empty()));
+        assertThrows(
+                NullPointerException.class,
+                () -> IntPairList.builder(0).add(null));
+        
+        assertEquals(
+                pairs,
+                IntPairList.builder(0)
+                        .addPair(0, 0)
+                        .addOnlyA(1)
+                        .addPair(2, 1)
+                        .addOnlyB(2)
+                        .addOnlyB(3)
+                        .addPair(3, 4)
+                        .addOnlyA(4)
+                        .build());
+        
+        // ビルド後にビルダーを変更しても、生成済みのリストは変化しない。
+        IntPairList.Builder builder = IntPairList.builder(0).addPair(0, 0);
+        IntPairList list = builder.build();
+        builder.addOnlyA(1);
+        assertEquals(List.of(IntPair.of(0, 0)), list);
+    }
+    
+    @Test
+    void testAddAll() {
+        assertThrows(
+                NullPointerException.class,
+                () -> IntPairList.builder(0).addAll(null, 0, 0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> IntPairList.builder(0).addAll(pairs, -1, 0));
+        
+        List<IntPair> expected = List.of(
+                IntPair.onlyA(0),
+                IntPair.of(10, 100),
+                IntPair.onlyA(11),
+                IntPair.of(12, 101),
+                IntPair.onlyB(102),
+                IntPair.onlyB(103),
+                IntPair.of(13, 104),
+                IntPair.onlyA(14));
+        
+        assertEquals(
+                expected,
+                IntPairList.builder(0).addOnlyA(0).addAll(pairs, 10, 100).build());
+        assertEquals(
+                expected,
+                IntPairList.builder(0).addOnlyA(0).addAll(IntPairList.copyOf(pairs), 10, 100).build());
+    }
+    
+    @Test
+    void testCopyOf() {
+        assertThrows(
+                NullPointerException.class,
+                () -> IntPairList.copyOf(null));
+        
+        IntPairList list = IntPairList.copyOf(pairs);
+        assertEquals(pairs, list);
+        assertSame(list, IntPairList.copyOf(list));
+        assertEquals(List.of(), IntPairList.copyOf(List.of()));
+    }
+    
+    @Test
+    void testAccessors() {
+        IntPairList list = IntPairList.copyOf(pairs);
+        
+        assertEquals(7, list.size());
+        for (int n = 0; n < pairs.size(); n++) {
+            IntPair pair = pairs.get(n);
+            assertEquals(pair, list.get(n));
+            assertEquals(pair.hasA(), list.hasA(n));
+            assertEquals(pair.hasB(), list.hasB(n));
+            assertEquals(pair.hasA() ? pair.a() : -1, list.a(n));
+            assertEquals(pair.hasB() ? pair.b() : -1, list.b(n));
+        }
+        
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> list.get(7));
+        assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> list.a(-1));
+    }
+    
+    @Test
+    void testViews() {
+        IntPairList list = IntPairList.copyOf(pairs);
+        
+        assertArrayEquals(new int[] { 1, 4 }, list.onlyAValues());
+        assertArrayEquals(new int[] { 2, 3 }, list.onlyBValues());
+        assertEquals(
+                List.of(
+                        IntPair.of(0, 0),
+                        IntPair.of(2, 1),
+                        IntPair.of(3, 4)),
+                list.paired());
+        IntPairList paired = list.paired();
+        assertSame(paired, paired.paired());
+    }
+}